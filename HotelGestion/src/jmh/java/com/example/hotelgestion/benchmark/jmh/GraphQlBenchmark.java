@@ -0,0 +1,142 @@
+package com.example.hotelgestion.benchmark.jmh;
+
+import com.example.hotelgestion.controller.ReservationControllerGraphQL;
+import com.example.hotelgestion.dto.ReservationView;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.repository.ChambreRepository;
+import com.example.hotelgestion.repository.ClientRepository;
+import com.example.hotelgestion.repository.ReservationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.graphql.ExecutionGraphQlResponse;
+import org.springframework.graphql.ExecutionGraphQlService;
+import org.springframework.graphql.data.method.annotation.support.AnnotatedControllerConfigurer;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.DefaultBatchLoaderRegistry;
+import org.springframework.graphql.execution.DefaultExecutionGraphQlService;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.support.DefaultExecutionGraphQlRequest;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * GraphQL side: the allReservations query executed end to end by Spring GraphQL on the application's schema and
+ * controller (including the client/chambre batch mappings), its repositories answering from a fixed in-memory
+ * dataset so only execution and result building are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphQlBenchmark {
+
+    private static final String QUERY = "{ allReservations { id dateDebut dateFin preferences"
+            + " client { id nom prenom email telephone } chambre { id type prix disponible } } }";
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private GenericApplicationContext context;
+    private ExecutionGraphQlService graphQlService;
+
+    @Setup
+    public void setUp() {
+        List<Reservation> reservations = ReservationFixtures.reservations(size);
+        List<ReservationView> views = reservations.stream().map(ReservationView::of).toList();
+        Map<Long, Client> clients = new LinkedHashMap<>();
+        Map<Long, Chambre> chambres = new LinkedHashMap<>();
+        for (Reservation reservation : reservations) {
+            clients.put(reservation.getClient().getId(), reservation.getClient());
+            chambres.put(reservation.getChambre().getId(), reservation.getChambre());
+        }
+
+        BatchLoaderRegistry batchLoaderRegistry = new DefaultBatchLoaderRegistry();
+        context = new GenericApplicationContext();
+        context.registerBean(BatchLoaderRegistry.class, () -> batchLoaderRegistry);
+        context.registerBean(ReservationControllerGraphQL.class, () -> new ReservationControllerGraphQL(
+                repository(ReservationRepository.class, "findAllViews", arguments -> views),
+                repository(ClientRepository.class, "findAllById", arguments -> byId(clients, arguments[0])),
+                repository(ChambreRepository.class, "findAllById", arguments -> byId(chambres, arguments[0])),
+                null, null, null, null));
+        context.refresh();
+
+        AnnotatedControllerConfigurer controllers = new AnnotatedControllerConfigurer();
+        controllers.setApplicationContext(context);
+        controllers.afterPropertiesSet();
+        GraphQlSource source = GraphQlSource.schemaResourceBuilder()
+                .schemaResources(new ClassPathResource("graphql/schema.graphqls"))
+                .configureRuntimeWiring(controllers)
+                .build();
+        DefaultExecutionGraphQlService service = new DefaultExecutionGraphQlService(source);
+        service.addDataLoaderRegistrar(batchLoaderRegistry);
+        graphQlService = service;
+
+        ExecutionGraphQlResponse response = allReservations();
+        if (!response.isValid() || !response.getErrors().isEmpty()) {
+            throw new IllegalStateException("allReservations failed: " + response.getErrors());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object executeAllReservations() {
+        return allReservations().getData();
+    }
+
+    private ExecutionGraphQlResponse allReservations() {
+        return graphQlService.execute(new DefaultExecutionGraphQlRequest(QUERY, null, null, null, "bench", Locale.ROOT)).block();
+    }
+
+    private static <T> List<T> byId(Map<Long, T> entities, Object ids) {
+        List<T> found = new ArrayList<>();
+        for (Object id : (Iterable<?>) ids) {
+            T entity = entities.get((Long) id);
+            if (entity != null) {
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    // Repository answering one query method from memory; anything else the benchmark did not expect fails loudly
+    private static <T> T repository(Class<T> type, String method, Function<Object[], Object> answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, invoked, arguments) -> {
+            if (invoked.getName().equals(method)) {
+                return answer.apply(arguments);
+            }
+            return switch (invoked.getName()) {
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == arguments[0];
+                case "toString" -> "in-memory " + type.getSimpleName();
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + invoked.getName());
+            };
+        }));
+    }
+}
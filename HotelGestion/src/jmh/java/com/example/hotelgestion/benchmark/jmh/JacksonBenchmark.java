@@ -0,0 +1,53 @@
+package com.example.hotelgestion.benchmark.jmh;
+
+import com.example.hotelgestion.entity.Reservation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST side: the reservation entities written by Jackson as JSON or XML, with mappers built like Spring's message
+ * converters build theirs (Jackson2ObjectMapperBuilder, so java.time support and the same features).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"json", "xml"})
+    public String format;
+
+    private List<Reservation> reservations;
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setUp() {
+        reservations = ReservationFixtures.reservations(size);
+        mapper = "xml".equals(format) ? Jackson2ObjectMapperBuilder.xml().build() : Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] writeReservations() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(reservations);
+    }
+}
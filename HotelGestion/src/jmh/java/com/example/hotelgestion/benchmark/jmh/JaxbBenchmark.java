@@ -0,0 +1,76 @@
+package com.example.hotelgestion.benchmark.jmh;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBElement;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SOAP side: the reservations written the way CXF writes a getAllReservations response, one {@code return}
+ * element per reservation marshalled into the body's stream writer, dates going through the LocalDateAdapter
+ * registered on the entity package.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JaxbBenchmark {
+
+    private static final String NAMESPACE = "http://controller.hotelgestion.example.com/";
+    private static final QName RETURN = new QName("return");
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<Reservation> reservations;
+    private JAXBContext context;
+    private XMLOutputFactory outputFactory;
+
+    @Setup
+    public void setUp() throws JAXBException {
+        reservations = ReservationFixtures.reservations(size);
+        context = JAXBContext.newInstance(Reservation.class, Client.class, Chambre.class);
+        outputFactory = XMLOutputFactory.newInstance();
+    }
+
+    @Benchmark
+    public byte[] marshalReservations() throws JAXBException, XMLStreamException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out, "UTF-8");
+        // Like CXF, a marshaller per message
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        writer.writeStartElement("ns2", "getAllReservationsResponse", NAMESPACE);
+        writer.writeNamespace("ns2", NAMESPACE);
+        for (Reservation reservation : reservations) {
+            marshaller.marshal(new JAXBElement<>(RETURN, Reservation.class, reservation), writer);
+        }
+        writer.writeEndElement();
+        writer.close();
+        return out.toByteArray();
+    }
+}
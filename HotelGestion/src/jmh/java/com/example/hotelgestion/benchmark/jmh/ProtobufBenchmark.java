@@ -0,0 +1,96 @@
+package com.example.hotelgestion.benchmark.jmh;
+
+import com.example.hotelgestion.controller.ReservationGrpcController;
+import com.example.hotelgestion.dto.ReservationView;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.grpc.ReservationList;
+import com.example.hotelgestion.grpc.v2.ReservationPage;
+import com.example.hotelgestion.protobuf.ReservationReadMask;
+import com.example.hotelgestion.protobuf.ReservationV2Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC side: getAllReservations' entity to message mapping alone, then followed by the protobuf encoding
+ * the call writes on the wire; the difference is the encoding cost. The v2 variants build the compact
+ * reservation_v2.proto page (epoch days, each client and room once) for the same reservations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtobufBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<Reservation> reservations;
+    private List<ReservationView> views;
+    private Map<Long, Client> clients;
+    private Map<Long, Chambre> chambres;
+
+    @Setup
+    public void setUp() {
+        reservations = ReservationFixtures.reservations(size);
+        views = reservations.stream().map(ReservationView::of).toList();
+        clients = new LinkedHashMap<>();
+        chambres = new LinkedHashMap<>();
+        for (Reservation reservation : reservations) {
+            clients.put(reservation.getClient().getId(), reservation.getClient());
+            chambres.put(reservation.getChambre().getId(), reservation.getChambre());
+        }
+    }
+
+    @Benchmark
+    public ReservationList mapReservations() {
+        ReservationList.Builder response = ReservationList.newBuilder();
+        for (Reservation reservation : reservations) {
+            response.addReservations(ReservationGrpcController.mapToReservationResponse(reservation));
+        }
+        return response.build();
+    }
+
+    @Benchmark
+    public byte[] mapAndEncodeReservations() {
+        return mapReservations().toByteArray();
+    }
+
+    @Benchmark
+    public ReservationPage mapV2Page() {
+        return ReservationV2Mapper.toPage(views, ids -> lookup(clients, ids), ids -> lookup(chambres, ids),
+                ReservationReadMask.ALL).build();
+    }
+
+    @Benchmark
+    public byte[] mapAndEncodeV2Page() {
+        return mapV2Page().toByteArray();
+    }
+
+    private static <T> List<T> lookup(Map<Long, T> entities, Set<Long> ids) {
+        List<T> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            found.add(entities.get(id));
+        }
+        return found;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.hotelgestion.benchmark.jmh;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.entity.TypeChambre;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed in-memory dataset shared by the micro-benchmarks: the same reservations for a given size on every run,
+ * with a client for every four reservations and a room for every eight, as in a seeded database.
+ */
+final class ReservationFixtures {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final TypeChambre[] TYPES = TypeChambre.values();
+
+    private ReservationFixtures() {
+    }
+
+    static List<Reservation> reservations(int size) {
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < size / 4 + 1; i++) {
+            Client client = new Client();
+            client.setId((long) i + 1);
+            client.setNom("Nom" + i);
+            client.setPrenom("Prenom" + i);
+            client.setEmail("client" + i + "@example.com");
+            client.setTelephone(String.format("06%08d", i));
+            clients.add(client);
+        }
+        List<Chambre> chambres = new ArrayList<>();
+        for (int i = 0; i < size / 8 + 1; i++) {
+            Chambre chambre = new Chambre();
+            chambre.setId((long) i + 1);
+            chambre.setType(TYPES[i % TYPES.length]);
+            chambre.setPrix(80.0 + i % 5 * 20);
+            chambre.setDisponible(i % 3 != 0);
+            chambres.add(chambre);
+        }
+        List<Reservation> reservations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Reservation reservation = new Reservation();
+            reservation.setId((long) i + 1);
+            reservation.setDateDebut(FIRST_DAY.plusDays(i % 365));
+            reservation.setDateFin(FIRST_DAY.plusDays(i % 365 + 1 + i % 7));
+            reservation.setPreferences(i % 2 == 0 ? "Chambre non-fumeur, lit bébé" : "Vue sur mer");
+            reservation.setClient(clients.get(i % clients.size()));
+            reservation.setChambre(chambres.get(i % chambres.size()));
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+}
@@ -2,12 +2,22 @@ package com.example.hotelgestion;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
 public class HotelGestionApplication {
 
+    // Startup steps kept for the startup report (config.StartupReport) and /actuator/startup
+    private static final int STARTUP_STEPS = 10000;
+
     public static void main(String[] args) {
-        SpringApplication.run(HotelGestionApplication.class, args);
+        SpringApplication application = new SpringApplication(HotelGestionApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,192 @@
+package com.example.hotelgestion.bulkhead;
+
+import com.example.hotelgestion.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency budget of one protocol and operation class. Up to {@code limit} calls run at once, up to
+ * {@code queueSize} more wait at most {@code maxWait} for a slot and anything beyond is refused right away,
+ * so an overloaded class sheds load instead of piling up on the connection pool.
+ * The limit adapts to latency (gradient limiter): a slow moving average of call latency is the baseline,
+ * a fast one the current level. While the current level stays within {@link #TOLERANCE} of the baseline the
+ * limit grows by about its square root per sample; when calls slow down it shrinks in proportion.
+ */
+public final class Bulkhead {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SHORT_ALPHA = 0.1;
+    private static final double LONG_ALPHA = 0.01;
+    private static final double SMOOTHING = 0.2;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    // Written under the lock, read without it by the gauges
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int queued;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    private final Counter acceptedCalls;
+    private final Counter queueFullRejections;
+    private final Counter timeoutRejections;
+
+    Bulkhead(String protocol, OperationClass operation, int initialLimit, int minLimit, int maxLimit,
+             int queueSize, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.name = protocol + " " + operation.key();
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.queueSize = Math.max(0, queueSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+
+        Tags tags = Tags.of("protocol", protocol, "operation", operation.key());
+        Gauge.builder("bulkhead.limit", this, bulkhead -> Math.floor(bulkhead.limit))
+                .description("Current adaptive concurrency limit of the bulkhead")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.in.flight", this, bulkhead -> bulkhead.inFlight)
+                .description("Calls currently holding a bulkhead slot")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", this, bulkhead -> bulkhead.queued)
+                .description("Calls waiting for a bulkhead slot")
+                .tags(tags)
+                .register(meterRegistry);
+        this.acceptedCalls = Counter.builder("bulkhead.calls")
+                .description("Calls admitted by the bulkhead")
+                .tags(tags)
+                .register(meterRegistry);
+        this.queueFullRejections = rejections(meterRegistry, tags, "queue_full");
+        this.timeoutRejections = rejections(meterRegistry, tags, "timeout");
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, Tags tags, String reason) {
+        return Counter.builder("bulkhead.rejected")
+                .description("Calls refused by the bulkhead")
+                .tags(tags.and("reason", reason))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot, waiting at most the configured time when the bulkhead is at its limit.
+     * The returned permit must be released exactly once when the call has finished.
+     */
+    public Permit acquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                if (queued >= queueSize) {
+                    queueFullRejections.increment();
+                    throw new BulkheadFullException(name, inFlight + " running, " + queued + " waiting");
+                }
+                queued++;
+                try {
+                    long remaining = maxWaitNanos;
+                    while (inFlight >= (int) limit) {
+                        if (remaining <= 0) {
+                            timeoutRejections.increment();
+                            throw new BulkheadFullException(name, "no slot within " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + " ms");
+                        }
+                        remaining = released.awaitNanos(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BulkheadFullException(name, "interrupted while waiting");
+                } finally {
+                    queued--;
+                }
+            }
+            inFlight++;
+            acceptedCalls.increment();
+            return new Permit(this, inFlight, System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(Permit permit, boolean succeeded, long rttNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            int before = (int) limit;
+            // Failed calls say little about latency; they only give their slot back
+            if (succeeded) {
+                sample(rttNanos, permit.inFlightAtStart);
+            }
+            if ((int) limit > before) {
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sample(long rttNanos, int inFlightAtStart) {
+        shortRttNanos = shortRttNanos == 0 ? rttNanos : shortRttNanos + (rttNanos - shortRttNanos) * SHORT_ALPHA;
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) * LONG_ALPHA;
+        // After a slow period the baseline decays faster, so it does not keep excusing high latency
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double target;
+        if (gradient < 1.0) {
+            target = limit * gradient;
+        } else if (inFlightAtStart >= limit / 2) {
+            target = limit + Math.sqrt(limit);
+        } else {
+            // A lightly used bulkhead learns nothing about its ceiling
+            return;
+        }
+        limit = Math.min(maxLimit, Math.max(minLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    /** Slot held by one call. */
+    public static final class Permit {
+
+        // Handed out when bulkheads are disabled
+        static final Permit NONE = new Permit(null, 0, 0);
+
+        private final Bulkhead bulkhead;
+        private final int inFlightAtStart;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Bulkhead bulkhead, int inFlightAtStart, long startNanos) {
+            this.bulkhead = bulkhead;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        // Idempotent, since some protocols can report the end of a call twice (e.g. cancel after close).
+        // Only succeeded calls are a latency sample
+        public void release(boolean succeeded) {
+            release(succeeded, System.nanoTime() - startNanos);
+        }
+
+        // Lets tests choose the measured latency
+        void release(boolean succeeded, long rttNanos) {
+            if (bulkhead != null && released.compareAndSet(false, true)) {
+                bulkhead.release(this, succeeded, rttNanos);
+            }
+        }
+    }
+}
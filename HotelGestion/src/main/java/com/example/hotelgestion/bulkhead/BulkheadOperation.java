@@ -0,0 +1,19 @@
+package com.example.hotelgestion.bulkhead;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a REST handler, SOAP operation, GraphQL field or gRPC method behind the bulkhead of its protocol
+ * for the given operation class. Unannotated operations are not limited.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BulkheadOperation {
+
+    OperationClass value();
+}
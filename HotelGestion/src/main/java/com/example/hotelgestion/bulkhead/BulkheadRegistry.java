@@ -0,0 +1,64 @@
+package com.example.hotelgestion.bulkhead;
+
+import com.example.hotelgestion.latency.LatencyChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One {@link Bulkhead} per protocol and operation class. Settings come from {@code bulkhead.<class>.*}
+ * and can be overridden for a single protocol with {@code bulkhead.<protocol>.<class>.*},
+ * e.g. {@code bulkhead.graphql.list.max-limit}.
+ */
+@Component
+public class BulkheadRegistry {
+
+    private final boolean enabled;
+    private final Map<LatencyChannel, Map<OperationClass, Bulkhead>> bulkheads = new EnumMap<>(LatencyChannel.class);
+
+    public BulkheadRegistry(Environment environment, MeterRegistry meterRegistry) {
+        this.enabled = environment.getProperty("bulkhead.enabled", Boolean.class, true);
+        if (!enabled) {
+            return;
+        }
+        for (LatencyChannel protocol : LatencyChannel.values()) {
+            String protocolKey = protocol.name().toLowerCase(Locale.ROOT);
+            Map<OperationClass, Bulkhead> byOperation = new EnumMap<>(OperationClass.class);
+            for (OperationClass operation : OperationClass.values()) {
+                Settings settings = new Settings(environment, protocolKey, operation);
+                byOperation.put(operation, new Bulkhead(protocolKey, operation,
+                        settings.get("initial-limit", operation.initialLimit),
+                        settings.get("min-limit", operation.minLimit),
+                        settings.get("max-limit", operation.maxLimit),
+                        settings.get("queue-size", operation.queueSize),
+                        settings.get("max-wait-ms", (int) operation.maxWaitMs),
+                        meterRegistry));
+            }
+            bulkheads.put(protocol, byOperation);
+        }
+    }
+
+    /**
+     * Admits one call of {@code operation} over {@code protocol}, or throws
+     * {@link com.example.hotelgestion.exception.BulkheadFullException} when its budget is used up.
+     */
+    public Bulkhead.Permit acquire(LatencyChannel protocol, OperationClass operation) {
+        if (!enabled) {
+            return Bulkhead.Permit.NONE;
+        }
+        return bulkheads.get(protocol).get(operation).acquire();
+    }
+
+    private record Settings(Environment environment, String protocol, OperationClass operation) {
+
+        int get(String name, int defaultValue) {
+            Integer shared = environment.getProperty("bulkhead." + operation.key() + "." + name, Integer.class);
+            return environment.getProperty("bulkhead." + protocol + "." + operation.key() + "." + name, Integer.class,
+                    shared != null ? shared : defaultValue);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.hotelgestion.bulkhead;
+
+import com.example.hotelgestion.latency.LatencyChannel;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.schema.DataFetcher;
+import graphql.schema.GraphQLObjectType;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Runs the data fetchers of {@link BulkheadOperation} schema mappings inside their bulkhead. Fields are
+ * matched as {@code Type.field}, e.g. {@code Query.allReservations}. A refused field fails with a
+ * BulkheadFullException, which GraphQLExceptionHandler turns into a RESOURCE_EXHAUSTED error.
+ */
+@Component
+// Before GraphQlMetricsInstrumentation, which therefore wraps it
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class GraphQlBulkheadInstrumentation extends SimplePerformantInstrumentation {
+
+    private final BulkheadRegistry bulkheadRegistry;
+    private final Map<String, OperationClass> operations = new HashMap<>();
+
+    public GraphQlBulkheadInstrumentation(BulkheadRegistry bulkheadRegistry, ApplicationContext applicationContext) {
+        this.bulkheadRegistry = bulkheadRegistry;
+        for (String beanName : applicationContext.getBeanNamesForAnnotation(Controller.class)) {
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null) {
+                continue;
+            }
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(type))) {
+                BulkheadOperation operation = method.getAnnotation(BulkheadOperation.class);
+                SchemaMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, SchemaMapping.class);
+                if (operation != null && mapping != null) {
+                    String field = mapping.field().isEmpty() ? method.getName() : mapping.field();
+                    operations.put(mapping.typeName() + "." + field, operation.value());
+                }
+            }
+        }
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters,
+                                                InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return dataFetcher;
+        }
+        GraphQLObjectType parent = parameters.getExecutionStepInfo().getObjectType();
+        OperationClass operation = operations.get(parent.getName() + "." + parameters.getField().getName());
+        if (operation == null) {
+            return dataFetcher;
+        }
+        return environment -> {
+            Bulkhead.Permit permit = bulkheadRegistry.acquire(LatencyChannel.GRAPHQL, operation);
+            Object result;
+            try {
+                result = dataFetcher.get(environment);
+            } catch (Exception e) {
+                permit.release(false);
+                throw e;
+            }
+            // Controller methods may run on an executor; the slot is held until they complete
+            if (result instanceof CompletionStage<?> stage) {
+                return stage.whenComplete((value, failure) -> permit.release(failure == null));
+            }
+            permit.release(true);
+            return result;
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.hotelgestion.bulkhead;
+
+import com.example.hotelgestion.exception.BulkheadFullException;
+import com.example.hotelgestion.latency.LatencyChannel;
+import io.grpc.BindableService;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.Status;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Runs {@link BulkheadOperation} gRPC methods inside their bulkhead. The slot is held from the start of
+ * the call until it is closed or cancelled, so streaming calls count for their whole duration. Only unary calls
+ * give the limiter a latency sample: the duration of a stream is its lifetime, not a service time.
+ * A refused call is closed with RESOURCE_EXHAUSTED before reaching the service. Server streams paced by the client
+ * are left unannotated and take a slot around each of their reads instead, so a slow client holds none.
+ */
+@GrpcGlobalServerInterceptor
+public class GrpcBulkheadInterceptor implements ServerInterceptor {
+
+    private final BulkheadRegistry bulkheadRegistry;
+    private final Map<String, OperationClass> operations = new HashMap<>();
+
+    // Generated stubs name the implementation method after the rpc, with a lower case first letter
+    public GrpcBulkheadInterceptor(BulkheadRegistry bulkheadRegistry, ApplicationContext applicationContext) {
+        this.bulkheadRegistry = bulkheadRegistry;
+        for (Object service : applicationContext.getBeansWithAnnotation(GrpcService.class).values()) {
+            if (!(service instanceof BindableService bindable)) {
+                continue;
+            }
+            Map<String, OperationClass> byJavaName = new HashMap<>();
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(service))) {
+                BulkheadOperation operation = method.getAnnotation(BulkheadOperation.class);
+                if (operation != null) {
+                    byJavaName.put(method.getName(), operation.value());
+                }
+            }
+            for (ServerMethodDefinition<?, ?> definition : bindable.bindService().getMethods()) {
+                MethodDescriptor<?, ?> descriptor = definition.getMethodDescriptor();
+                OperationClass operation = byJavaName.get(StringUtils.uncapitalize(descriptor.getBareMethodName()));
+                if (operation != null) {
+                    operations.put(descriptor.getFullMethodName(), operation);
+                }
+            }
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        OperationClass operation = operations.get(call.getMethodDescriptor().getFullMethodName());
+        if (operation == null) {
+            return next.startCall(call, headers);
+        }
+        Bulkhead.Permit permit;
+        try {
+            permit = bulkheadRegistry.acquire(LatencyChannel.GRPC, operation);
+        } catch (BulkheadFullException e) {
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()), new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        boolean unary = call.getMethodDescriptor().getType() == MethodDescriptor.MethodType.UNARY;
+        ServerCall<ReqT, RespT> releasingCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                permit.release(unary && status.isOk());
+                super.close(status, trailers);
+            }
+        };
+        try {
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(releasingCall, headers)) {
+                @Override
+                public void onCancel() {
+                    permit.release(false);
+                    super.onCancel();
+                }
+            };
+        } catch (RuntimeException e) {
+            permit.release(false);
+            throw e;
+        }
+    }
+}
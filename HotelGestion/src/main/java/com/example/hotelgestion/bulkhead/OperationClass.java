@@ -0,0 +1,33 @@
+package com.example.hotelgestion.bulkhead;
+
+import java.util.Locale;
+
+/**
+ * Cost class of a protocol operation. Each protocol gets one bulkhead per class, so a burst of full
+ * scans only uses up the list budget of its own protocol. The numbers are the defaults of the
+ * {@code bulkhead.<class>.*} properties.
+ */
+public enum OperationClass {
+    POINT_READ(32, 4, 128, 64, 50),
+    LIST(2, 1, 4, 16, 200),
+    WRITE(16, 2, 32, 32, 100);
+
+    final int initialLimit;
+    final int minLimit;
+    final int maxLimit;
+    final int queueSize;
+    final long maxWaitMs;
+
+    OperationClass(int initialLimit, int minLimit, int maxLimit, int queueSize, long maxWaitMs) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    // Property and metric tag form, e.g. point-read
+    public String key() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.hotelgestion.bulkhead;
+
+import com.example.hotelgestion.latency.LatencyChannel;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Runs {@link BulkheadOperation} REST handlers inside their bulkhead. A refused call never reaches the
+ * handler; the BulkheadFullException goes to RestExceptionHandler, which answers 429.
+ */
+@Component
+public class RestBulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT = RestBulkheadInterceptor.class.getName() + ".permit";
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public RestBulkheadInterceptor(BulkheadRegistry bulkheadRegistry) {
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && request.getAttribute(PERMIT) == null) {
+            BulkheadOperation operation = handlerMethod.getMethodAnnotation(BulkheadOperation.class);
+            if (operation != null) {
+                request.setAttribute(PERMIT, bulkheadRegistry.acquire(LatencyChannel.REST, operation.value()));
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof Bulkhead.Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.release(ex == null && response.getStatus() < 500);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.hotelgestion.bulkhead;
+
+import com.example.hotelgestion.exception.BulkheadFullException;
+import com.example.hotelgestion.latency.LatencyChannel;
+import com.example.hotelgestion.pagination.ReservationStream;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.service.invoker.Invoker;
+import org.apache.cxf.service.invoker.MethodDispatcher;
+import org.apache.cxf.service.model.BindingOperationInfo;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CXF invoker running {@link BulkheadOperation} SOAP operations inside their bulkhead.
+ * A refused call is answered with a Server fault (HTTP 503) without invoking the service. A {@link ReservationStream}
+ * result holds its permit until it has been marshalled.
+ */
+public class SoapBulkheadInvoker implements Invoker {
+
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private final Invoker delegate;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final Map<Method, Optional<OperationClass>> operations = new ConcurrentHashMap<>();
+
+    public SoapBulkheadInvoker(Invoker delegate, BulkheadRegistry bulkheadRegistry) {
+        this.delegate = delegate;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public Object invoke(Exchange exchange, Object o) {
+        OperationClass operation = operationOf(exchange);
+        if (operation == null) {
+            return delegate.invoke(exchange, o);
+        }
+        Bulkhead.Permit permit;
+        try {
+            permit = bulkheadRegistry.acquire(LatencyChannel.SOAP, operation);
+        } catch (BulkheadFullException e) {
+            Fault fault = new Fault(e);
+            fault.setStatusCode(SERVICE_UNAVAILABLE);
+            throw fault;
+        }
+        boolean succeeded = false;
+        boolean held = false;
+        try {
+            Object result = delegate.invoke(exchange, o);
+            succeeded = true;
+            // A streamed page still reads rows while it is marshalled: the slot is kept until its rows are closed
+            ReservationStream stream = ReservationStream.in(result);
+            if (stream != null) {
+                stream.onClose(permit::release);
+                held = true;
+            }
+            return result;
+        } finally {
+            if (!held) {
+                permit.release(succeeded);
+            }
+        }
+    }
+
+    private OperationClass operationOf(Exchange exchange) {
+        BindingOperationInfo bindingOperation = exchange.getBindingOperationInfo();
+        MethodDispatcher dispatcher = (MethodDispatcher) exchange.getService().get(MethodDispatcher.class.getName());
+        if (bindingOperation == null || dispatcher == null) {
+            return null;
+        }
+        Method method = dispatcher.getMethod(bindingOperation);
+        if (method == null) {
+            return null;
+        }
+        return operations.computeIfAbsent(method, m -> Optional.ofNullable(m.getAnnotation(BulkheadOperation.class))
+                .map(BulkheadOperation::value)).orElse(null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.hotelgestion.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+
+/**
+ * Thread model used to handle requests, switched by the Spring Boot property spring.threads.virtual.enabled.
+ * Boot itself moves Tomcat (REST, SOAP, GraphQL) and its task executors to virtual threads; the gRPC server
+ * executor follows through {@link ExecutionModeConfig}. Virtual threads need a Java 21 runtime: the project
+ * still compiles for 17, so they are created reflectively, and startup fails when the switch is on and the JVM
+ * is older, rather than quietly serving requests on platform threads.
+ */
+@Component
+public class ExecutionMode {
+
+    private static final Logger LOGGER = Logger.getLogger(ExecutionMode.class.getName());
+
+    private final boolean virtual;
+    private ExecutorService virtualThreadExecutor;
+
+    public ExecutionMode(@Value("${spring.threads.virtual.enabled:false}") boolean virtualRequested) {
+        if (virtualRequested && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled is set but Java " + Runtime.version().feature()
+                    + " has no virtual threads: run on Java 21 or later, or set it to false");
+        }
+        this.virtual = virtualRequested;
+        LOGGER.info("Request execution mode: " + name());
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public String name() {
+        return virtual ? "virtual" : "platform";
+    }
+
+    // One virtual thread per task (Executors.newVirtualThreadPerTaskExecutor), shared and closed with the context
+    public synchronized ExecutorService virtualThreadExecutor() {
+        if (!virtual) {
+            throw new IllegalStateException("Virtual threads are not enabled");
+        }
+        if (virtualThreadExecutor == null) {
+            try {
+                MethodHandle factory = MethodHandles.publicLookup().findStatic(java.util.concurrent.Executors.class,
+                        "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+                virtualThreadExecutor = (ExecutorService) factory.invoke();
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot create a virtual thread executor", e);
+            }
+        }
+        return virtualThreadExecutor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.hotelgestion.config;
+
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ExecutionModeConfig {
+
+    // gRPC calls run on the starter's cached platform pool, or one virtual thread per call in virtual mode
+    @Bean
+    public GrpcServerConfigurer grpcExecutionModeConfigurer(ExecutionMode executionMode) {
+        return serverBuilder -> {
+            if (executionMode.isVirtual()) {
+                serverBuilder.executor(executionMode.virtualThreadExecutor());
+            }
+        };
+    }
+}
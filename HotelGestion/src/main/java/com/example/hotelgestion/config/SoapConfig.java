@@ -1,10 +1,16 @@
 package com.example.hotelgestion.config;
 
+import com.example.hotelgestion.bulkhead.BulkheadRegistry;
+import com.example.hotelgestion.bulkhead.SoapBulkheadInvoker;
 import com.example.hotelgestion.controller.ReservationSoapController;
+import com.example.hotelgestion.metrics.RequestMetrics;
+import com.example.hotelgestion.metrics.SoapMetricsInvoker;
 import lombok.AllArgsConstructor;
 import org.apache.catalina.filters.CorsFilter;
 import org.apache.cxf.Bus;
 import org.apache.cxf.jaxws.EndpointImpl;
+import org.apache.cxf.jaxws.JAXWSMethodInvoker;
+import org.apache.cxf.workqueue.SynchronousExecutor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,10 +20,16 @@ public class SoapConfig {
 
     private ReservationSoapController ReservationSoapController;
     private Bus bus;
+    private BulkheadRegistry bulkheadRegistry;
+    private RequestMetrics requestMetrics;
 
     @Bean
     public EndpointImpl endpoint() {
         EndpointImpl endpoint = new EndpointImpl(bus, ReservationSoapController);
+        // Invoke on the servlet request thread (a virtual thread in virtual mode) instead of handing off to a CXF pool
+        endpoint.setExecutor(SynchronousExecutor.getInstance());
+        endpoint.setInvoker(new SoapMetricsInvoker(
+                new SoapBulkheadInvoker(new JAXWSMethodInvoker(ReservationSoapController), bulkheadRegistry), requestMetrics));
         endpoint.publish("/ws");
         return endpoint;
     }
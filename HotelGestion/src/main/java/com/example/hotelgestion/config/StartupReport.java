@@ -0,0 +1,82 @@
+package com.example.hotelgestion.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Logs the startup timeline once the application is ready, to compare boots (default profile, fast profile with
+ * AOT and the CDS archive): time to ready since the JVM started and since {@code SpringApplication.run}, how the
+ * JVM was started, the context refresh and the slowest bean creations (each including the beans it depends on).
+ * Bean steps come from the {@link BufferingApplicationStartup} set by the main class; the whole timeline is served
+ * by {@code /actuator/startup}.
+ */
+@Component
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger LOGGER = Logger.getLogger(StartupReport.class.getName());
+
+    private final int slowestBeans;
+
+    public StartupReport(@Value("${startup.report.slowest-beans:10}") int slowestBeans) {
+        this.slowestBeans = slowestBeans;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        boolean cds = runtime.getInputArguments().stream().anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile"));
+        StringBuilder report = new StringBuilder("Startup: ready in ").append(runtime.getUptime())
+                .append(" ms since JVM start, ").append(millis(event.getTimeTaken())).append(" ms since run")
+                .append(" (profiles ").append(Arrays.toString(event.getApplicationContext().getEnvironment().getActiveProfiles()))
+                .append(", AOT ").append(AotDetector.useGeneratedArtifacts() ? "on" : "off")
+                .append(", CDS archive ").append(cds ? "on" : "off").append(')');
+
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        if (startup instanceof BufferingApplicationStartup buffering) {
+            StartupTimeline timeline = buffering.getBufferedTimeline();
+            report.append("\n  JVM start to run: ")
+                    .append(timeline.getStartTime().toEpochMilli() - runtime.getStartTime()).append(" ms");
+            timeline.getEvents().stream()
+                    .filter(step -> step.getStartupStep().getName().equals("spring.context.refresh"))
+                    .findFirst()
+                    .ifPresent(refresh -> report.append("\n  context refresh: ").append(millis(refresh.getDuration())).append(" ms"));
+            List<StartupTimeline.TimelineEvent> beans = timeline.getEvents().stream()
+                    .filter(step -> step.getStartupStep().getName().equals("spring.beans.instantiate"))
+                    .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                    .limit(slowestBeans)
+                    .toList();
+            for (StartupTimeline.TimelineEvent bean : beans) {
+                report.append("\n  ").append(millis(bean.getDuration())).append(" ms ").append(beanName(bean.getStartupStep()));
+            }
+        }
+        LOGGER.info(report.toString());
+    }
+
+    private static long millis(Duration duration) {
+        return duration.toMillis();
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (tag.getKey().equals("beanName")) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
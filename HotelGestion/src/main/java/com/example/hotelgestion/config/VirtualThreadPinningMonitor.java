@@ -0,0 +1,77 @@
+package com.example.hotelgestion.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * In virtual mode, listens to the JFR jdk.VirtualThreadPinned event: a virtual thread that blocks while
+ * pinned to its carrier (inside a synchronized block or a native frame, typically in a JDBC driver)
+ * holds a platform thread for the whole wait. Each pin longer than the threshold is counted in
+ * jvm.threads.virtual.pinned and logged with the top of its stack so the offending path can be found.
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreadPinningMonitor.class.getName());
+    private static final int LOGGED_FRAMES = 8;
+
+    private final ExecutionMode executionMode;
+    private final Duration threshold;
+    private final Counter pinnedCounter;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(ExecutionMode executionMode,
+                                       @Value("${execution.pinning.threshold-ms:20}") long thresholdMs,
+                                       MeterRegistry meterRegistry) {
+        this.executionMode = executionMode;
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!executionMode.isVirtual()) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCounter.increment();
+        StringBuilder message = new StringBuilder("Virtual thread pinned for ")
+                .append(event.getDuration().toMillis()).append(" ms");
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> frames = event.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(LOGGED_FRAMES, frames.size()); i++) {
+                RecordedFrame frame = frames.get(i);
+                message.append("\n\tat ").append(frame.getMethod().getType().getName())
+                        .append('.').append(frame.getMethod().getName())
+                        .append(':').append(frame.getLineNumber());
+            }
+        }
+        LOGGER.warning(message.toString());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
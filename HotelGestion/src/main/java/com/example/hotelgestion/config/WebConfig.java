@@ -1,17 +1,38 @@
 package com.example.hotelgestion.config;
 
+import com.example.hotelgestion.bulkhead.RestBulkheadInterceptor;
+import com.example.hotelgestion.metrics.RestMetricsInterceptor;
+import com.example.hotelgestion.pagination.PageHeaders;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    private final RestMetricsInterceptor restMetricsInterceptor;
+    private final RestBulkheadInterceptor restBulkheadInterceptor;
+
+    public WebConfig(RestMetricsInterceptor restMetricsInterceptor, RestBulkheadInterceptor restBulkheadInterceptor) {
+        this.restMetricsInterceptor = restMetricsInterceptor;
+        this.restBulkheadInterceptor = restBulkheadInterceptor;
+    }
+
+    // Metrics first, so calls refused by the bulkhead are timed too
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(restMetricsInterceptor);
+        registry.addInterceptor(restBulkheadInterceptor);
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins("http://localhost:3001")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("Link", PageHeaders.NEXT_CURSOR, "ETag")
                 .allowCredentials(true);
 
         registry.addMapping("/services/ws")
@@ -0,0 +1,33 @@
+package com.example.hotelgestion.controller;
+
+import com.example.hotelgestion.bulkhead.BulkheadOperation;
+import com.example.hotelgestion.bulkhead.OperationClass;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.service.RoomOccupancyIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/chambres")
+public class ChambreController {
+    @Autowired
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    // Rooms free every night of [dateDebut, dateFin), cheapest first; answered from memory, without a database read
+    @GetMapping("/disponibles")
+    @BulkheadOperation(OperationClass.POINT_READ)
+    public ResponseEntity<List<Chambre>> rechercherChambresDisponibles(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateDebut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFin,
+            @RequestParam(required = false) TypeChambre type,
+            @RequestParam(required = false) Double prixMax,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(roomOccupancyIndex.search(type, prixMax, dateDebut, dateFin, limit));
+    }
+}
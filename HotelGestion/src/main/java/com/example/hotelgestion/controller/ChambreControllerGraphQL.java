@@ -0,0 +1,30 @@
+package com.example.hotelgestion.controller;
+
+import com.example.hotelgestion.bulkhead.BulkheadOperation;
+import com.example.hotelgestion.bulkhead.OperationClass;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.service.RoomOccupancyIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.stereotype.Controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Controller
+public class ChambreControllerGraphQL {
+
+    @Autowired
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @QueryMapping
+    @BulkheadOperation(OperationClass.POINT_READ)
+    public List<Chambre> availableRooms(@Argument LocalDate dateDebut, @Argument LocalDate dateFin,
+                                        @Argument TypeChambre type, @Argument Double prixMax,
+                                        @Argument Integer limit) {
+        List<Chambre> chambres = roomOccupancyIndex.search(type, prixMax, dateDebut, dateFin, limit);
+        return chambres;
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.hotelgestion.controller;
 
+import com.example.hotelgestion.bulkhead.BulkheadOperation;
+import com.example.hotelgestion.bulkhead.OperationClass;
 import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.pagination.CursorPage;
+import com.example.hotelgestion.pagination.PageHeaders;
 import com.example.hotelgestion.service.ClientService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -15,21 +19,31 @@ public class ClientController {
     private ClientService clientService;
 
     @PostMapping
+    @BulkheadOperation(OperationClass.WRITE)
     public ResponseEntity<Client> creerClient(@RequestBody Client client) {
         return ResponseEntity.ok(clientService.creerClient(client));
     }
 
+    // Whole table without parameters, one keyset page with cursor and/or limit
     @GetMapping
-    public ResponseEntity<List<Client>> obtenirTousLesClients() {
-        return ResponseEntity.ok(clientService.obtenirTousLesClients());
+    @BulkheadOperation(OperationClass.LIST)
+    public ResponseEntity<List<Client>> obtenirTousLesClients(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(clientService.obtenirTousLesClients());
+        }
+        CursorPage<Client> page = clientService.obtenirPageDeClients(cursor, limit);
+        return ResponseEntity.ok().headers(PageHeaders.of(page)).body(page.items());
     }
 
     @GetMapping("/{id}")
+    @BulkheadOperation(OperationClass.POINT_READ)
     public ResponseEntity<Client> obtenirClientParId(@PathVariable Long id) {
         return ResponseEntity.ok(clientService.obtenirClientParId(id));
     }
 
     @DeleteMapping("/{id}")
+    @BulkheadOperation(OperationClass.WRITE)
     public ResponseEntity<Void> supprimerClient(@PathVariable Long id) {
         clientService.supprimerClient(id);
         return ResponseEntity.noContent().build();
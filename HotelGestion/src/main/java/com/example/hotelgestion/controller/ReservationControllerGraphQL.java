@@ -1,26 +1,44 @@
 package com.example.hotelgestion.controller;
 
+import com.example.hotelgestion.bulkhead.BulkheadOperation;
+import com.example.hotelgestion.bulkhead.OperationClass;
+import com.example.hotelgestion.dto.ReservationEvent;
+import com.example.hotelgestion.dto.ReservationResult;
+import com.example.hotelgestion.dto.ReservationStats;
+import com.example.hotelgestion.dto.ReservationTotals;
+import com.example.hotelgestion.dto.ReservationView;
 import com.example.hotelgestion.entity.Chambre;
 import com.example.hotelgestion.entity.Client;
 import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.exception.SlowConsumerException;
+import com.example.hotelgestion.pagination.CursorPage;
+import com.example.hotelgestion.pagination.PageCursor;
 import com.example.hotelgestion.repository.ChambreRepository;
 import com.example.hotelgestion.repository.ClientRepository;
 import com.example.hotelgestion.repository.ReservationRepository;
+import com.example.hotelgestion.service.ReferenceLookupService;
+import com.example.hotelgestion.service.ReservationBulkService;
+import com.example.hotelgestion.service.ReservationEventBus;
 import com.example.hotelgestion.service.ReservationService;
-import io.prometheus.client.Counter;
-import io.prometheus.client.Histogram;
+import com.example.hotelgestion.service.ReservationVersions;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
 
-import java.io.FileWriter;
-import java.io.IOException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 @Controller
 @AllArgsConstructor
@@ -34,187 +52,226 @@ public class ReservationControllerGraphQL {
     private ChambreRepository chambreRepository;
     @Autowired
     private ReservationService reservationService;
+    @Autowired
+    private ReferenceLookupService referenceLookupService;
+    @Autowired
+    private ReservationBulkService reservationBulkService;
+    @Autowired
+    private ReservationEventBus reservationEventBus;
 
-    private static final Histogram graphqlLatencyHistogram = Histogram.build()
-            .name("graphql_reservation_latency_seconds")
-            .help("Latency in seconds for GraphQL reservation requests.")
-            .register();
+    @QueryMapping
+    @BulkheadOperation(OperationClass.LIST)
+    public List<ReservationView> allReservations() {
+        List<ReservationView> reservations = reservationRepository.findAllViews();
+        return reservations;
+    }
 
-    private static final Counter graphqlRequestCounter = Counter.build()
-            .name("graphql_reservation_requests_total")
-            .help("Total number of GraphQL reservation requests.")
-            .register();
+    public record PageInfo(boolean hasNextPage, boolean hasPreviousPage, String startCursor, String endCursor) {
+    }
 
-    private static final String LOG_FILE_PATH = "YourPath";
+    public record ReservationEdge(ReservationView node, String cursor) {
+    }
 
-    private void logLatencyToFile(String methodName, double latency) {
-        try (FileWriter writer = new FileWriter(LOG_FILE_PATH, true)) {
-            writer.write(String.format("Method: %s, Latency: %.4f seconds%n", methodName, latency));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    public record ReservationConnection(List<ReservationEdge> edges, PageInfo pageInfo, String version,
+                                        boolean notModified) {
     }
 
+    // ifNoneMatch is the version of a previous answer for the same arguments; while nothing changed the page is not read again
     @QueryMapping
-    public List<Reservation> allReservations() {
-        graphqlRequestCounter.inc();
-        Histogram.Timer timer = graphqlLatencyHistogram.startTimer();
-        try {
-            List<Reservation> reservations = reservationRepository.findAll();
-            logLatencyToFile("allReservations", timer.observeDuration());
-            return reservations;
-        } finally {
-            timer.observeDuration();
+    @BulkheadOperation(OperationClass.LIST)
+    public ReservationConnection reservations(@Argument Integer first, @Argument String after,
+                                              @Argument LocalDate from, @Argument LocalDate to,
+                                              @Argument String ifNoneMatch) {
+        String version = ReservationVersions.pageVersion(reservationService.getListVersion(), first, after, from, to);
+        if (version.equals(ifNoneMatch)) {
+            return new ReservationConnection(List.of(), new PageInfo(false, false, null, null), version, true);
         }
+        CursorPage<ReservationView> page = reservationService.getReservationViewPage(after, first, from, to);
+        List<ReservationEdge> edges = page.items().stream()
+                .map(reservation -> new ReservationEdge(reservation, PageCursor.encode(reservation.id())))
+                .toList();
+        PageInfo pageInfo = new PageInfo(page.hasNext(), after != null && !after.isEmpty(),
+                edges.isEmpty() ? null : edges.get(0).cursor(),
+                edges.isEmpty() ? null : edges.get(edges.size() - 1).cursor());
+        return new ReservationConnection(edges, pageInfo, version, false);
     }
 
     @QueryMapping
-    public Reservation reservationById(@Argument Long id) {
-        graphqlRequestCounter.inc();
-        Histogram.Timer timer = graphqlLatencyHistogram.startTimer();
-        try {
-            Reservation reservation = reservationRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException(String.format("Reservation %s not found", id)));
-            logLatencyToFile("reservationById", timer.observeDuration());
-            return reservation;
-        } finally {
-            timer.observeDuration();
-        }
+    @BulkheadOperation(OperationClass.POINT_READ)
+    public ReservationView reservationById(@Argument Long id) {
+        ReservationView reservation = reservationRepository.findViewById(id)
+                .orElseThrow(() -> new RuntimeException(String.format("Reservation %s not found", id)));
+        return reservation;
     }
 
     @MutationMapping
-    public Reservation saveReservation(
+    @BulkheadOperation(OperationClass.WRITE)
+    public ReservationView saveReservation(
             @Argument LocalDate dateDebut,
             @Argument LocalDate dateFin,
             @Argument Long clientId,
             @Argument Long chambreId,
             @Argument String preferences) {
 
-        graphqlRequestCounter.inc();
-        Histogram.Timer timer = graphqlLatencyHistogram.startTimer();
-        try {
-            Client client = clientRepository.findById(clientId)
-                    .orElseThrow(() -> new RuntimeException("Client not found"));
-            Chambre chambre = chambreRepository.findById(chambreId)
-                    .orElseThrow(() -> new RuntimeException("Chambre not found"));
-
-            Reservation reservation = new Reservation();
-            reservation.setDateDebut(dateDebut);
-            reservation.setDateFin(dateFin);
-            reservation.setPreferences(preferences);
-            reservation.setClient(client);
-            reservation.setChambre(chambre);
-
-            Reservation savedReservation = reservationRepository.save(reservation);
-            logLatencyToFile("saveReservation", timer.observeDuration());
-            return savedReservation;
-        } finally {
-            timer.observeDuration();
+        Client client = referenceLookupService.findClient(clientId)
+                .orElseThrow(() -> new RuntimeException("Client not found"));
+        Chambre chambre = referenceLookupService.findChambre(chambreId)
+                .orElseThrow(() -> new RuntimeException("Chambre not found"));
+
+        Reservation reservation = new Reservation();
+        reservation.setDateDebut(dateDebut);
+        reservation.setDateFin(dateFin);
+        reservation.setPreferences(preferences);
+        reservation.setClient(client);
+        reservation.setChambre(chambre);
+
+        Reservation savedReservation = reservationService.createReservation(reservation);
+        return ReservationView.of(savedReservation);
+    }
+
+    public record ReservationInput(LocalDate dateDebut, LocalDate dateFin, Long clientId, Long chambreId,
+                                   String preferences) {
+    }
+
+    @MutationMapping
+    @BulkheadOperation(OperationClass.WRITE)
+    public List<ReservationResult> saveReservations(@Argument List<ReservationInput> reservations) {
+        List<Reservation> toCreate = new ArrayList<>(reservations.size());
+        for (ReservationInput input : reservations) {
+            toCreate.add(ReservationBulkService.newReservation(input.dateDebut(), input.dateFin(),
+                    input.clientId(), input.chambreId(), input.preferences()));
         }
+        List<ReservationResult> results = reservationBulkService.createReservations(toCreate);
+        return results;
     }
 
     @MutationMapping
-    public Reservation updateReservation(@Argument Long id, @Argument Reservation reservation) {
-        graphqlRequestCounter.inc();
-        Histogram.Timer timer = graphqlLatencyHistogram.startTimer();
-        try {
-            Reservation existingReservation = reservationRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException(String.format("Reservation %s not found", id)));
-
-            Client client = clientRepository.findById(reservation.getClient().getId())
-                    .orElseThrow(() -> new RuntimeException("Client not found"));
-            Chambre chambre = chambreRepository.findById(reservation.getChambre().getId())
-                    .orElseThrow(() -> new RuntimeException("Chambre not found"));
-
-            existingReservation.setClient(client);
-            existingReservation.setChambre(chambre);
-            existingReservation.setDateDebut(reservation.getDateDebut());
-            existingReservation.setDateFin(reservation.getDateFin());
-            existingReservation.setPreferences(reservation.getPreferences());
-
-            Reservation updatedReservation = reservationRepository.save(existingReservation);
-            logLatencyToFile("updateReservation", timer.observeDuration());
-            return updatedReservation;
-        } finally {
-            timer.observeDuration();
+    @BulkheadOperation(OperationClass.WRITE)
+    public ReservationView updateReservation(
+            @Argument Long id,
+            @Argument LocalDate dateDebut,
+            @Argument LocalDate dateFin,
+            @Argument Long clientId,
+            @Argument Long chambreId,
+            @Argument String preferences) {
+
+        Client client = referenceLookupService.findClient(clientId)
+                .orElseThrow(() -> new RuntimeException("Client not found"));
+        Chambre chambre = referenceLookupService.findChambre(chambreId)
+                .orElseThrow(() -> new RuntimeException("Chambre not found"));
+
+        Reservation reservation = new Reservation();
+        reservation.setDateDebut(dateDebut);
+        reservation.setDateFin(dateFin);
+        reservation.setPreferences(preferences);
+        reservation.setClient(client);
+        reservation.setChambre(chambre);
+
+        Reservation updatedReservation = reservationService.updateReservation(id, reservation);
+        if (updatedReservation == null) {
+            throw new RuntimeException(String.format("Reservation %s not found", id));
         }
+        return ReservationView.of(updatedReservation);
     }
 
     @MutationMapping
+    @BulkheadOperation(OperationClass.WRITE)
     public boolean deleteReservation(@Argument Long id) {
-        graphqlRequestCounter.inc();
-        Histogram.Timer timer = graphqlLatencyHistogram.startTimer();
-        try {
-            if (!reservationRepository.existsById(id)) {
-                throw new RuntimeException(String.format("Reservation %s not found", id));
-            }
-            reservationRepository.deleteById(id);
-            logLatencyToFile("deleteReservation", timer.observeDuration());
-            return true;
-        } finally {
-            timer.observeDuration();
+        if (!reservationService.deleteReservation(id)) {
+            throw new RuntimeException(String.format("Reservation %s not found", id));
         }
+        return true;
     }
 
     @QueryMapping
-    public Map<String, Object> reservationStats() {
-        graphqlRequestCounter.inc();
-        Histogram.Timer timer = graphqlLatencyHistogram.startTimer();
-        try {
-            long count = reservationRepository.count();
-            double avgDuration = reservationService.getAverageDuration();
-            logLatencyToFile("reservationStats", timer.observeDuration());
-            return Map.of("count", count, "avgDuration", avgDuration);
-        } finally {
-            timer.observeDuration();
-        }
+    @BulkheadOperation(OperationClass.LIST)
+    public ReservationStats reservationStats(@Argument Long clientId, @Argument Long chambreId, @Argument TypeChambre type) {
+        ReservationStats stats = reservationService.getReservationStats(clientId, chambreId, type);
+        return stats;
     }
 
     @QueryMapping
-    public List<Reservation> reservationsByClientId(@Argument Long clientId) {
-        graphqlRequestCounter.inc();
-        Histogram.Timer timer = graphqlLatencyHistogram.startTimer();
-        try {
-            Client client = clientRepository.findById(clientId)
-                    .orElseThrow(() -> new RuntimeException("Client not found"));
-            List<Reservation> reservations = reservationRepository.findByClient(client);
-            logLatencyToFile("reservationsByClientId", timer.observeDuration());
-            return reservations;
-        } finally {
-            timer.observeDuration();
-        }
+    @BulkheadOperation(OperationClass.POINT_READ)
+    public ReservationTotals reservationTotals(@Argument Long clientId) {
+        ReservationTotals totals = reservationService.getReservationTotals(clientId);
+        return totals;
     }
 
     @QueryMapping
-    public List<Reservation> reservationsByChambreId(@Argument Long chambreId) {
-        graphqlRequestCounter.inc();
-        Histogram.Timer timer = graphqlLatencyHistogram.startTimer();
-        try {
-            Chambre chambre = chambreRepository.findById(chambreId)
-                    .orElseThrow(() -> new RuntimeException("Chambre not found"));
-            List<Reservation> reservations = reservationRepository.findByChambre(chambre);
-            logLatencyToFile("reservationsByChambreId", timer.observeDuration());
-            return reservations;
-        } finally {
-            timer.observeDuration();
+    @BulkheadOperation(OperationClass.LIST)
+    public List<ReservationView> reservationsByClientId(@Argument Long clientId) {
+        if (!clientRepository.existsById(clientId)) {
+            throw new RuntimeException("Client not found");
         }
+        List<ReservationView> reservations = reservationRepository.findViewsByClientId(clientId);
+        return reservations;
     }
 
     @QueryMapping
-    public Map<String, Object> reservationState(@Argument Long clientId) {
-        graphqlRequestCounter.inc();
-        Histogram.Timer timer = graphqlLatencyHistogram.startTimer();
-        try {
-            Client client = clientRepository.findById(clientId)
-                    .orElseThrow(() -> new RuntimeException("Client not found"));
-
-            long count = reservationRepository.countByClient(client);
-            double avgDuration = reservationService.getAverageDurationByClient(client);
-
-            logLatencyToFile("reservationState", timer.observeDuration());
-            return Map.of("count", count, "avgDuration", avgDuration);
-        } finally {
-            timer.observeDuration();
+    @BulkheadOperation(OperationClass.LIST)
+    public List<ReservationView> reservationsByChambreId(@Argument Long chambreId) {
+        if (!chambreRepository.existsById(chambreId)) {
+            throw new RuntimeException("Chambre not found");
+        }
+        List<ReservationView> reservations = reservationRepository.findViewsByChambreId(chambreId);
+        return reservations;
+    }
+
+    // Delivery follows the subscriber's demand, which the WebSocket transport only renews once a message is sent:
+    // events wait in the bus buffer meanwhile, and a subscriber overflowing it ends with a SlowConsumerException
+    @SubscriptionMapping
+    public Flux<ReservationEvent> reservationChanges() {
+        return Flux.create(sink -> {
+            ReservationEventBus.Subscription subscription = reservationEventBus.subscribe(new ReservationEventBus.Sink() {
+                @Override
+                public boolean ready() {
+                    return sink.requestedFromDownstream() > 0;
+                }
+
+                @Override
+                public void send(ReservationEvent event) {
+                    sink.next(event);
+                }
+
+                @Override
+                public void evicted(SlowConsumerException e) {
+                    sink.error(e);
+                }
+            });
+            sink.onRequest(n -> subscription.drain());
+            sink.onDispose(subscription::cancel);
+        });
+    }
+
+    // Reservation.client / Reservation.chambre: one IN (...) query per type for the whole execution,
+    // and nothing at all when the query does not select the field
+    @BatchMapping(typeName = "Reservation")
+    public Map<ReservationView, Client> client(List<ReservationView> reservations) {
+        Map<Long, Client> clients = new HashMap<>();
+        clientRepository.findAllById(reservations.stream().map(ReservationView::clientId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .forEach(client -> clients.put(client.getId(), client));
+        Map<ReservationView, Client> result = new HashMap<>();
+        for (ReservationView reservation : reservations) {
+            Client client = clients.get(reservation.clientId());
+            if (client != null) {
+                result.put(reservation, client);
+            }
+        }
+        return result;
+    }
+
+    @BatchMapping(typeName = "Reservation")
+    public Map<ReservationView, Chambre> chambre(List<ReservationView> reservations) {
+        Map<Long, Chambre> chambres = new HashMap<>();
+        chambreRepository.findAllById(reservations.stream().map(ReservationView::chambreId).filter(Objects::nonNull).collect(Collectors.toSet()))
+                .forEach(chambre -> chambres.put(chambre.getId(), chambre));
+        Map<ReservationView, Chambre> result = new HashMap<>();
+        for (ReservationView reservation : reservations) {
+            Chambre chambre = chambres.get(reservation.chambreId());
+            if (chambre != null) {
+                result.put(reservation, chambre);
+            }
         }
+        return result;
     }
 }
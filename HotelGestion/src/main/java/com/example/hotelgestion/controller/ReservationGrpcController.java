@@ -1,20 +1,31 @@
 package com.example.hotelgestion.controller;
 
+import com.example.hotelgestion.bulkhead.Bulkhead;
+import com.example.hotelgestion.bulkhead.BulkheadOperation;
+import com.example.hotelgestion.bulkhead.BulkheadRegistry;
+import com.example.hotelgestion.bulkhead.OperationClass;
+import com.example.hotelgestion.dto.ReservationResult;
 import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.exception.BulkheadFullException;
+import com.example.hotelgestion.exception.ReservationConflictException;
 import com.example.hotelgestion.grpc.*;
+import com.example.hotelgestion.latency.LatencyChannel;
+import com.example.hotelgestion.pagination.CursorPage;
+import com.example.hotelgestion.pagination.PageCursor;
+import com.example.hotelgestion.service.ReferenceLookupService;
+import com.example.hotelgestion.service.ReservationBulkService;
 import com.example.hotelgestion.service.ReservationService;
-import com.example.hotelgestion.repository.ClientRepository;
-import com.example.hotelgestion.repository.ChambreRepository;
+import com.example.hotelgestion.service.ReservationVersions;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.springframework.beans.factory.annotation.Autowired;
-import io.prometheus.client.Histogram;
-import io.prometheus.client.Counter;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -26,123 +37,295 @@ public class ReservationGrpcController extends ReservationServiceGrpc.Reservatio
     private ReservationService reservationService;
 
     @Autowired
-    private ClientRepository clientRepository;
+    private ReferenceLookupService referenceLookupService;
 
     @Autowired
-    private ChambreRepository chambreRepository;
-
-    // Prometheus Metrics
-    private static final Histogram grpcLatencyHistogram = Histogram.build()
-            .name("grpc_reservation_latency_seconds")
-            .help("Latency in seconds for gRPC reservation requests.")
-            .register();
-
-    private static final Counter grpcRequestCounter = Counter.build()
-            .name("grpc_reservation_requests_total")
-            .help("Total number of gRPC reservation requests.")
-            .labelNames("method")
-            .register();
-
-    private static final String LOG_FILE_PATH = "YourPath";
-
-    private void logLatency(String methodName, double duration) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE_PATH, true))) {
-            writer.write("Method: " + methodName + ", Latency: " + duration + " seconds\n");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
+    private ReservationBulkService reservationBulkService;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    private static final int DEFAULT_CHUNK_SIZE = 100;
 
     // Get all reservations
     @Override
+    @BulkheadOperation(OperationClass.LIST)
     public void getAllReservations(Empty request, StreamObserver<ReservationList> responseObserver) {
-        grpcRequestCounter.labels("getAllReservations").inc();
-        Histogram.Timer timer = grpcLatencyHistogram.startTimer();
         try {
             List<Reservation> reservations = reservationService.obtenirToutesLesReservations();
             ReservationList response = ReservationList.newBuilder()
                     .addAllReservations(reservations.stream()
-                            .map(this::mapToReservationResponse)
+                            .map(ReservationGrpcController::mapToReservationResponse)
                             .collect(Collectors.toList()))
                     .build();
 
             responseObserver.onNext(response);
-        } finally {
-            double duration = timer.observeDuration();
-            logLatency("getAllReservations", duration);
             responseObserver.onCompleted();
+        } catch (Exception e) {
+            responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
+        }
+    }
+
+    // Stream all reservations chunk by chunk, only reading the next page when the client can take it.
+    // Not a bulkhead operation: each chunk read takes a list slot, so a client slow to ask for the next chunk holds none
+    @Override
+    public void streamReservations(StreamReservationsRequest request, StreamObserver<ReservationChunk> responseObserver) {
+        long afterId;
+        try {
+            afterId = PageCursor.decode(request.getResumeToken());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        int chunkSize = request.getChunkSize() <= 0 ? DEFAULT_CHUNK_SIZE : Math.min(request.getChunkSize(), PageCursor.MAX_PAGE_SIZE);
+
+        ServerCallStreamObserver<ReservationChunk> serverObserver = (ServerCallStreamObserver<ReservationChunk>) responseObserver;
+        ReservationChunkStreamer streamer = new ReservationChunkStreamer(serverObserver, afterId, chunkSize);
+        serverObserver.setOnCancelHandler(streamer::cancel);
+        serverObserver.setOnReadyHandler(streamer);
+        // onReady handlers and this method share the call's serializing executor, so this cannot race
+        streamer.run();
+    }
+
+    private final class ReservationChunkStreamer implements Runnable {
+        private final ServerCallStreamObserver<ReservationChunk> observer;
+        private final int chunkSize;
+        private long afterId;
+        private boolean done;
+
+        private ReservationChunkStreamer(ServerCallStreamObserver<ReservationChunk> observer, long afterId, int chunkSize) {
+            this.observer = observer;
+            this.afterId = afterId;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!done && observer.isReady()) {
+                    List<Reservation> page = readChunk();
+                    if (page.isEmpty()) {
+                        done = true;
+                        observer.onCompleted();
+                        return;
+                    }
+                    ReservationChunk.Builder chunk = ReservationChunk.newBuilder();
+                    for (Reservation reservation : page) {
+                        chunk.addReservations(mapToReservationResponse(reservation));
+                    }
+                    afterId = page.get(page.size() - 1).getId();
+                    observer.onNext(chunk.setResumeToken(PageCursor.encode(afterId)).build());
+                    if (page.size() < chunkSize) {
+                        done = true;
+                        observer.onCompleted();
+                        return;
+                    }
+                }
+            } catch (BulkheadFullException e) {
+                // The client resumes from the token of the last chunk it received
+                if (!done) {
+                    done = true;
+                    observer.onError(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException());
+                }
+            } catch (Exception e) {
+                if (!done) {
+                    done = true;
+                    observer.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
+                }
+            }
+        }
+
+        private List<Reservation> readChunk() {
+            Bulkhead.Permit permit = bulkheadRegistry.acquire(LatencyChannel.GRPC, OperationClass.LIST);
+            boolean succeeded = false;
+            try {
+                List<Reservation> page = reservationService.getReservationsAfter(afterId, chunkSize);
+                succeeded = true;
+                return page;
+            } finally {
+                permit.release(succeeded);
+            }
+        }
+
+        private void cancel() {
+            done = true;
+        }
+    }
+
+    // One keyset page, optionally restricted to a date range; answered with notModified when ifNoneMatch is current
+    @Override
+    @BulkheadOperation(OperationClass.LIST)
+    public void listReservations(ListReservationsRequest request, StreamObserver<ReservationPageResponse> responseObserver) {
+        try {
+            String version = ReservationVersions.pageVersion(reservationService.getListVersion(), request.getPageToken(),
+                    request.getPageSize(), request.getDateDebut(), request.getDateFin());
+            if (version.equals(request.getIfNoneMatch())) {
+                responseObserver.onNext(ReservationPageResponse.newBuilder().setVersion(version).setNotModified(true).build());
+                responseObserver.onCompleted();
+                return;
+            }
+            CursorPage<Reservation> page = reservationService.getReservationPage(request.getPageToken(),
+                    request.getPageSize(),
+                    request.getDateDebut().isEmpty() ? null : LocalDate.parse(request.getDateDebut()),
+                    request.getDateFin().isEmpty() ? null : LocalDate.parse(request.getDateFin()));
+            ReservationPageResponse.Builder response = ReservationPageResponse.newBuilder().setVersion(version);
+            for (Reservation reservation : page.items()) {
+                response.addReservations(mapToReservationResponse(reservation));
+            }
+            if (page.hasNext()) {
+                response.setNextPageToken(page.nextCursor());
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(e);
         }
     }
 
     // Get reservation by ID
     @Override
+    @BulkheadOperation(OperationClass.POINT_READ)
     public void getReservation(ReservationId request, StreamObserver<ReservationResponse> responseObserver) {
-        grpcRequestCounter.labels("getReservation").inc();
-        Histogram.Timer timer = grpcLatencyHistogram.startTimer();
         try {
             Optional<Reservation> reservation = reservationService.getReservation(request.getId());
             if (reservation.isPresent()) {
                 responseObserver.onNext(mapToReservationResponse(reservation.get()));
+                responseObserver.onCompleted();
             } else {
-                responseObserver.onError(new RuntimeException("Reservation not found"));
+                responseObserver.onError(Status.NOT_FOUND.withDescription("Reservation not found").asRuntimeException());
             }
-        } finally {
-            double duration = timer.observeDuration();
-            logLatency("getReservation", duration);
-            responseObserver.onCompleted();
+        } catch (Exception e) {
+            responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
         }
     }
 
     // Create reservation
     @Override
+    @BulkheadOperation(OperationClass.WRITE)
     public void createReservation(CreateReservationRequest request, StreamObserver<ReservationResponse> responseObserver) {
-        grpcRequestCounter.labels("createReservation").inc();
-        Histogram.Timer timer = grpcLatencyHistogram.startTimer();
         try {
             Reservation reservation = new Reservation();
             reservation.setDateDebut(LocalDate.parse(request.getDateDebut()));
             reservation.setDateFin(LocalDate.parse(request.getDateFin()));
             reservation.setPreferences(request.getPreferences());
 
-            clientRepository.findById(request.getClientId())
+            referenceLookupService.findClient(request.getClientId())
                     .ifPresent(reservation::setClient);
-            chambreRepository.findById(request.getChambreId())
+            if (reservation.getClient() == null) {
+                responseObserver.onError(Status.NOT_FOUND.withDescription("Client not found").asRuntimeException());
+                return;
+            }
+            referenceLookupService.findChambre(request.getChambreId())
                     .ifPresent(reservation::setChambre);
+            if (reservation.getChambre() == null) {
+                responseObserver.onError(Status.NOT_FOUND.withDescription("Chambre not found").asRuntimeException());
+                return;
+            }
 
             Reservation created = reservationService.createReservation(reservation);
             responseObserver.onNext(mapToReservationResponse(created));
+            responseObserver.onCompleted();
+        } catch (ReservationConflictException e) {
+            responseObserver.onError(Status.FAILED_PRECONDITION.withDescription(e.getMessage()).asRuntimeException());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
         } catch (Exception e) {
             responseObserver.onError(e);
-        } finally {
-            double duration = timer.observeDuration();
-            logLatency("createReservation", duration);
-            responseObserver.onCompleted();
         }
     }
 
+    // Bulk create: requests are buffered and handed to the bulk service one chunk at a time while the client streams
+    @Override
+    @BulkheadOperation(OperationClass.WRITE)
+    public StreamObserver<CreateReservationRequest> createReservations(StreamObserver<CreateReservationsResponse> responseObserver) {
+        return new StreamObserver<>() {
+            private final List<Reservation> pending = new ArrayList<>();
+            private final List<Integer> pendingIndexes = new ArrayList<>();
+            private final List<ReservationItemResult> results = new ArrayList<>();
+            private int received;
+
+            @Override
+            public void onNext(CreateReservationRequest request) {
+                int index = received++;
+                try {
+                    pending.add(ReservationBulkService.newReservation(LocalDate.parse(request.getDateDebut()),
+                            LocalDate.parse(request.getDateFin()), request.getClientId(), request.getChambreId(),
+                            request.getPreferences()));
+                    pendingIndexes.add(index);
+                } catch (DateTimeParseException e) {
+                    results.add(mapToItemResult(ReservationResult.rejected(index, ReservationResult.Status.INVALID, e.getMessage())));
+                }
+                if (pending.size() >= reservationBulkService.getChunkSize()) {
+                    flush();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // Chunks already flushed stay committed
+            }
+
+            @Override
+            public void onCompleted() {
+                try {
+                    flush();
+                    results.sort(Comparator.comparingInt(ReservationItemResult::getIndex));
+                    responseObserver.onNext(CreateReservationsResponse.newBuilder().addAllResults(results).build());
+                    responseObserver.onCompleted();
+                } catch (Exception e) {
+                    responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+                }
+            }
+
+            private void flush() {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                for (ReservationResult result : reservationBulkService.createReservations(pending)) {
+                    result.setIndex(pendingIndexes.get(result.getIndex()));
+                    results.add(mapToItemResult(result));
+                }
+                pending.clear();
+                pendingIndexes.clear();
+            }
+        };
+    }
+
+    private ReservationItemResult mapToItemResult(ReservationResult result) {
+        ReservationItemResult.Builder builder = ReservationItemResult.newBuilder()
+                .setIndex(result.getIndex())
+                .setStatus(result.getStatus().name());
+        if (result.getId() != null) {
+            builder.setId(result.getId());
+        }
+        if (result.getMessage() != null) {
+            builder.setMessage(result.getMessage());
+        }
+        return builder.build();
+    }
+
     // Delete reservation
     @Override
+    @BulkheadOperation(OperationClass.WRITE)
     public void deleteReservation(ReservationId request, StreamObserver<DeleteResponse> responseObserver) {
-        grpcRequestCounter.labels("deleteReservation").inc();
-        Histogram.Timer timer = grpcLatencyHistogram.startTimer();
         try {
             boolean deleted = reservationService.deleteReservation(request.getId());
             DeleteResponse response = DeleteResponse.newBuilder()
                     .setSuccess(deleted)
                     .build();
             responseObserver.onNext(response);
-        } finally {
-            double duration = timer.observeDuration();
-            logLatency("deleteReservation", duration);
             responseObserver.onCompleted();
+        } catch (Exception e) {
+            responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).withCause(e).asRuntimeException());
         }
     }
 
     // Update reservation
     @Override
+    @BulkheadOperation(OperationClass.WRITE)
     public void updateReservation(ReservationResponse request, StreamObserver<ReservationResponse> responseObserver) {
-        grpcRequestCounter.labels("updateReservation").inc();
-        Histogram.Timer timer = grpcLatencyHistogram.startTimer();
         try {
             Reservation reservation = new Reservation();
             reservation.setId(request.getId());
@@ -150,24 +333,43 @@ public class ReservationGrpcController extends ReservationServiceGrpc.Reservatio
             reservation.setDateFin(LocalDate.parse(request.getDateFin()));
             reservation.setPreferences(request.getPreferences());
 
-            clientRepository.findById(request.getId())
-                    .ifPresent(reservation::setClient);
-            chambreRepository.findById(request.getChambre().getId())
-                    .ifPresent(reservation::setChambre);
+            // Client and chambre are only changed when sent
+            if (request.hasClient()) {
+                referenceLookupService.findClient(request.getClient().getId())
+                        .ifPresent(reservation::setClient);
+                if (reservation.getClient() == null) {
+                    responseObserver.onError(Status.NOT_FOUND.withDescription("Client not found").asRuntimeException());
+                    return;
+                }
+            }
+            if (request.hasChambre()) {
+                referenceLookupService.findChambre(request.getChambre().getId())
+                        .ifPresent(reservation::setChambre);
+                if (reservation.getChambre() == null) {
+                    responseObserver.onError(Status.NOT_FOUND.withDescription("Chambre not found").asRuntimeException());
+                    return;
+                }
+            }
 
-            Reservation updated = reservationService.updateReservation(reservation.getId(),reservation);
+            Reservation updated = reservationService.updateReservation(reservation.getId(), reservation);
+            if (updated == null) {
+                responseObserver.onError(Status.NOT_FOUND.withDescription("Reservation not found").asRuntimeException());
+                return;
+            }
             responseObserver.onNext(mapToReservationResponse(updated));
+            responseObserver.onCompleted();
+        } catch (ReservationConflictException e) {
+            responseObserver.onError(Status.FAILED_PRECONDITION.withDescription(e.getMessage()).asRuntimeException());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
         } catch (Exception e) {
             responseObserver.onError(e);
-        } finally {
-            double duration = timer.observeDuration();
-            logLatency("updateReservation", duration);
-            responseObserver.onCompleted();
         }
     }
 
     // Helper method to map Reservation to ReservationResponse
-    private ReservationResponse mapToReservationResponse(Reservation reservation) {
+    // Public for the serialization micro-benchmarks (src/jmh)
+    public static ReservationResponse mapToReservationResponse(Reservation reservation) {
         return ReservationResponse.newBuilder()
                 .setId(reservation.getId())
                 .setDateDebut(reservation.getDateDebut().toString())
@@ -0,0 +1,265 @@
+package com.example.hotelgestion.controller;
+
+import com.example.hotelgestion.bulkhead.BulkheadOperation;
+import com.example.hotelgestion.bulkhead.OperationClass;
+import com.example.hotelgestion.dto.ReservationEvent;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.dto.ReservationView;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.exception.BulkheadFullException;
+import com.example.hotelgestion.exception.ReservationConflictException;
+import com.example.hotelgestion.exception.SlowConsumerException;
+import com.example.hotelgestion.grpc.v2.AvailableRooms;
+import com.example.hotelgestion.grpc.v2.ChangeType;
+import com.example.hotelgestion.grpc.v2.CreateReservationRequest;
+import com.example.hotelgestion.grpc.v2.GetReservationRequest;
+import com.example.hotelgestion.grpc.v2.ListReservationsRequest;
+import com.example.hotelgestion.grpc.v2.ReservationChange;
+import com.example.hotelgestion.grpc.v2.ReservationDetail;
+import com.example.hotelgestion.grpc.v2.ReservationPage;
+import com.example.hotelgestion.grpc.v2.ReservationServiceGrpc;
+import com.example.hotelgestion.grpc.v2.SearchAvailableRoomsRequest;
+import com.example.hotelgestion.grpc.v2.WatchReservationsRequest;
+import com.example.hotelgestion.pagination.CursorPage;
+import com.example.hotelgestion.protobuf.ReservationReadMask;
+import com.example.hotelgestion.protobuf.ReservationV2Mapper;
+import com.example.hotelgestion.repository.ChambreRepository;
+import com.example.hotelgestion.repository.ClientRepository;
+import com.example.hotelgestion.repository.ReservationRepository;
+import com.example.hotelgestion.service.ReferenceLookupService;
+import com.example.hotelgestion.service.ReservationEventBus;
+import com.example.hotelgestion.service.ReservationService;
+import com.example.hotelgestion.service.ReservationVersions;
+import com.example.hotelgestion.service.RoomOccupancyIndex;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Optional;
+
+/**
+ * Compact v2 of the gRPC reservation API (reservation_v2.proto), served alongside {@link ReservationGrpcController}.
+ * Reads use reservation views, so clients and rooms are only loaded when the read mask asks for them.
+ */
+@GrpcService
+public class ReservationGrpcV2Controller extends ReservationServiceGrpc.ReservationServiceImplBase {
+
+    // Negotiated: grpc-java only compresses when the client listed gzip in grpc-accept-encoding
+    private static final String COMPRESSION = "gzip";
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ChambreRepository chambreRepository;
+
+    @Autowired
+    private ReferenceLookupService referenceLookupService;
+
+    @Autowired
+    private ReservationEventBus reservationEventBus;
+
+    @Autowired
+    private RoomOccupancyIndex roomOccupancyIndex;
+
+    @Override
+    @BulkheadOperation(OperationClass.POINT_READ)
+    public void getReservation(GetReservationRequest request, StreamObserver<ReservationDetail> responseObserver) {
+        try {
+            ReservationReadMask mask = ReservationReadMask.of(request.getReadMask());
+            Optional<ReservationView> reservation = reservationRepository.findViewById(request.getId());
+            if (reservation.isEmpty()) {
+                responseObserver.onError(Status.NOT_FOUND.withDescription("Reservation not found").asRuntimeException());
+                return;
+            }
+            responseObserver.onNext(toDetail(reservation.get(), mask));
+            responseObserver.onCompleted();
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(e);
+        }
+    }
+
+    // One keyset page, optionally restricted to a date range; answered with notModified when ifNoneMatch is current
+    @Override
+    @BulkheadOperation(OperationClass.LIST)
+    public void listReservations(ListReservationsRequest request, StreamObserver<ReservationPage> responseObserver) {
+        try {
+            ReservationReadMask mask = ReservationReadMask.of(request.getReadMask());
+            ((ServerCallStreamObserver<ReservationPage>) responseObserver).setCompression(COMPRESSION);
+            String version = ReservationVersions.pageVersion(reservationService.getListVersion(), request.getPageToken(),
+                    request.getPageSize(), request.hasDateDebut() ? request.getDateDebut() : null,
+                    request.hasDateFin() ? request.getDateFin() : null, request.getReadMask().getPathsList());
+            if (version.equals(request.getIfNoneMatch())) {
+                responseObserver.onNext(ReservationPage.newBuilder().setVersion(version).setNotModified(true).build());
+                responseObserver.onCompleted();
+                return;
+            }
+            CursorPage<ReservationView> page = reservationService.getReservationViewPage(request.getPageToken(),
+                    request.getPageSize(),
+                    request.hasDateDebut() ? ReservationV2Mapper.toDate(request.getDateDebut()) : null,
+                    request.hasDateFin() ? ReservationV2Mapper.toDate(request.getDateFin()) : null);
+            ReservationPage.Builder response = ReservationV2Mapper.toPage(page.items(),
+                    clientRepository::findAllById, chambreRepository::findAllById, mask);
+            response.setVersion(version);
+            if (page.hasNext()) {
+                response.setNextPageToken(page.nextCursor());
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(e);
+        }
+    }
+
+    @Override
+    @BulkheadOperation(OperationClass.WRITE)
+    public void createReservation(CreateReservationRequest request, StreamObserver<ReservationDetail> responseObserver) {
+        try {
+            ReservationReadMask mask = ReservationReadMask.of(request.getReadMask());
+            // Unset dates would read as 1970-01-01 and unset ids as 0
+            if (!request.hasDateDebut() || !request.hasDateFin()) {
+                throw new IllegalArgumentException("dateDebut and dateFin are required");
+            }
+            if (request.getClientId() == 0 || request.getChambreId() == 0) {
+                throw new IllegalArgumentException("clientId and chambreId are required");
+            }
+            Reservation reservation = new Reservation();
+            reservation.setDateDebut(ReservationV2Mapper.toDate(request.getDateDebut()));
+            reservation.setDateFin(ReservationV2Mapper.toDate(request.getDateFin()));
+            reservation.setPreferences(request.getPreferences());
+
+            Optional<Client> client = referenceLookupService.findClient(request.getClientId());
+            if (client.isEmpty()) {
+                responseObserver.onError(Status.NOT_FOUND.withDescription("Client not found").asRuntimeException());
+                return;
+            }
+            Optional<Chambre> chambre = referenceLookupService.findChambre(request.getChambreId());
+            if (chambre.isEmpty()) {
+                responseObserver.onError(Status.NOT_FOUND.withDescription("Chambre not found").asRuntimeException());
+                return;
+            }
+            reservation.setClient(client.get());
+            reservation.setChambre(chambre.get());
+
+            Reservation created = reservationService.createReservation(reservation);
+            responseObserver.onNext(toDetail(ReservationView.of(created), mask));
+            responseObserver.onCompleted();
+        } catch (ReservationConflictException e) {
+            responseObserver.onError(Status.FAILED_PRECONDITION.withDescription(e.getMessage()).asRuntimeException());
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(e);
+        }
+    }
+
+    // Long-lived, so outside the bulkheads; the event bus bounds subscribers and what each of them may buffer
+    @Override
+    public void watchReservations(WatchReservationsRequest request, StreamObserver<ReservationChange> responseObserver) {
+        ServerCallStreamObserver<ReservationChange> observer = (ServerCallStreamObserver<ReservationChange>) responseObserver;
+        ChangeStream stream;
+        try {
+            stream = new ChangeStream(observer, ReservationReadMask.of(request.getReadMask()));
+        } catch (IllegalArgumentException e) {
+            observer.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        ReservationEventBus.Subscription subscription;
+        try {
+            subscription = reservationEventBus.subscribe(stream);
+        } catch (BulkheadFullException e) {
+            observer.onError(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException());
+            return;
+        }
+        observer.setOnCancelHandler(subscription::cancel);
+        // Sends resume when the transport drains its outbound buffer (flow control)
+        observer.setOnReadyHandler(subscription::drain);
+        stream.started = true;
+        subscription.drain();
+    }
+
+    @Override
+    @BulkheadOperation(OperationClass.POINT_READ)
+    public void searchAvailableRooms(SearchAvailableRoomsRequest request, StreamObserver<AvailableRooms> responseObserver) {
+        try {
+            AvailableRooms.Builder response = AvailableRooms.newBuilder();
+            for (Chambre chambre : roomOccupancyIndex.search(ReservationV2Mapper.toTypeChambre(request.getType()),
+                    request.hasPrixMax() ? request.getPrixMax() : null,
+                    ReservationV2Mapper.toDate(request.getDateDebut()), ReservationV2Mapper.toDate(request.getDateFin()),
+                    request.getLimit())) {
+                response.addChambres(ReservationV2Mapper.toMessage(chambre, ReservationReadMask.ALL));
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        } catch (Exception e) {
+            responseObserver.onError(e);
+        }
+    }
+
+    // Client and room come from the reference caches, and only when the mask asks for them
+    private ReservationDetail toDetail(ReservationView reservation, ReservationReadMask mask) {
+        ReservationDetail.Builder detail = ReservationDetail.newBuilder()
+                .setReservation(ReservationV2Mapper.toMessage(reservation, mask));
+        if (mask.clients() && reservation.clientId() != null) {
+            referenceLookupService.findClient(reservation.clientId())
+                    .ifPresent(client -> detail.setClient(ReservationV2Mapper.toMessage(client, mask)));
+        }
+        if (mask.chambres() && reservation.chambreId() != null) {
+            referenceLookupService.findChambre(reservation.chambreId())
+                    .ifPresent(chambre -> detail.setChambre(ReservationV2Mapper.toMessage(chambre, mask)));
+        }
+        return detail.build();
+    }
+
+    private static final class ChangeStream implements ReservationEventBus.Sink {
+
+        private static final ChangeType[] CHANGE_TYPES = {ChangeType.CREATED, ChangeType.UPDATED, ChangeType.DELETED};
+
+        private final ServerCallStreamObserver<ReservationChange> observer;
+        private final ReservationReadMask mask;
+        // The call's handlers can only be set before the first message
+        private volatile boolean started;
+
+        private ChangeStream(ServerCallStreamObserver<ReservationChange> observer, ReservationReadMask mask) {
+            this.observer = observer;
+            this.mask = mask;
+        }
+
+        @Override
+        public boolean ready() {
+            return started && observer.isReady();
+        }
+
+        @Override
+        public void send(ReservationEvent event) {
+            ReservationChange.Builder change = ReservationChange.newBuilder()
+                    .setSequence(event.sequence())
+                    .setType(CHANGE_TYPES[event.type().ordinal()])
+                    .setId(event.id());
+            if (event.reservation() != null) {
+                change.setReservation(ReservationV2Mapper.toMessage(event.reservation(), mask));
+            }
+            observer.onNext(change.build());
+        }
+
+        @Override
+        public void evicted(SlowConsumerException e) {
+            observer.onError(Status.RESOURCE_EXHAUSTED.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+}
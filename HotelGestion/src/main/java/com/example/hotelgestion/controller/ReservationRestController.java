@@ -1,17 +1,28 @@
 package com.example.hotelgestion.controller;
 
+import com.example.hotelgestion.bulkhead.BulkheadOperation;
+import com.example.hotelgestion.bulkhead.OperationClass;
+import com.example.hotelgestion.dto.ReservationResult;
+import com.example.hotelgestion.dto.ReservationStats;
+import com.example.hotelgestion.dto.ReservationSummary;
+import com.example.hotelgestion.dto.ReservationTotals;
 import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.pagination.CursorPage;
+import com.example.hotelgestion.pagination.PageHeaders;
+import com.example.hotelgestion.service.ReservationBulkService;
 import com.example.hotelgestion.service.ReservationService;
+import com.example.hotelgestion.service.ReservationStatsStore;
+import com.example.hotelgestion.service.ReservationVersions;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import io.prometheus.client.Histogram;
-import io.prometheus.client.Counter;
+import org.springframework.web.context.request.WebRequest;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,95 +33,108 @@ public class ReservationRestController {
     @Autowired
     private ReservationService reservationService;
 
-    // Prometheus Metrics
-    private static final Histogram restLatencyHistogram = Histogram.build()
-            .name("rest_reservation_latency_seconds")
-            .help("Latency in seconds for REST reservation requests.")
-            .register();
-
-    private static final Counter restRequestCounter = Counter.build()
-            .name("rest_reservation_requests_total")
-            .help("Total number of REST reservation requests.")
-            .register();
-
-    private static final String LOG_FILE_PATH = "YourPath";
-
-    private void logLatency(String methodName, double duration) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE_PATH, true))) {
-            writer.write("Method: " + methodName + ", Latency: " + duration + " seconds\n");
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
+    @Autowired
+    private ReservationBulkService reservationBulkService;
 
     // Create a reservation
     @PostMapping
+    @BulkheadOperation(OperationClass.WRITE)
     public ResponseEntity<Reservation> createReservation(@RequestBody Reservation reservation) {
-        restRequestCounter.inc();  // Increment the counter for requests
-        Histogram.Timer timer = restLatencyHistogram.startTimer();  // Start the timer for latency tracking
-        try {
-            Reservation createdReservation = reservationService.createReservation(reservation);
-            return new ResponseEntity<>(createdReservation, HttpStatus.CREATED);
-        } finally {
-            double duration = timer.observeDuration();  // Log the duration of the request
-            logLatency("createReservation", duration);  // Log latency to file
-        }
+        Reservation createdReservation = reservationService.createReservation(reservation);
+        return new ResponseEntity<>(createdReservation, HttpStatus.CREATED);
+    }
+
+    // Bulk create: one result per submitted reservation, in the same order; inserted in JDBC batches
+    @PostMapping("/batch")
+    @BulkheadOperation(OperationClass.WRITE)
+    public ResponseEntity<List<ReservationResult>> createReservations(@RequestBody List<Reservation> reservations) {
+        return ResponseEntity.ok(reservationBulkService.createReservations(reservations));
     }
 
-    // Get a reservation by ID
+    // Get a reservation by ID; If-None-Match with the current ETag gets a 304 without a database read
     @GetMapping("/{id}")
-    public ResponseEntity<Reservation> getReservation(@PathVariable Long id) {
-        restRequestCounter.inc();  // Increment the counter for requests
-        Histogram.Timer timer = restLatencyHistogram.startTimer();  // Start the timer for latency tracking
-        try {
-            Optional<Reservation> reservation = reservationService.getReservation(id);
-            return reservation.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
-        } finally {
-            double duration = timer.observeDuration();  // Log the duration of the request
-            logLatency("getReservation", duration);  // Log latency to file
+    @BulkheadOperation(OperationClass.POINT_READ)
+    public ResponseEntity<Reservation> getReservation(@PathVariable Long id, WebRequest request) {
+        String etag = ReservationVersions.etag(reservationService.getReservationVersion(id), request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(etag)) {
+            return null;
         }
+        Optional<Reservation> reservation = reservationService.getReservation(id);
+        return reservation.map(found -> ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(found))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     // Update a reservation
     @PutMapping("/{id}")
+    @BulkheadOperation(OperationClass.WRITE)
     public ResponseEntity<Reservation> updateReservation(@PathVariable Long id, @RequestBody Reservation updatedReservation) {
-        restRequestCounter.inc();  // Increment the counter for requests
-        Histogram.Timer timer = restLatencyHistogram.startTimer();  // Start the timer for latency tracking
-        try {
-            Reservation reservation = reservationService.updateReservation(id, updatedReservation);
-            return reservation != null ? ResponseEntity.ok(reservation) : ResponseEntity.notFound().build();
-        } finally {
-            double duration = timer.observeDuration();  // Log the duration of the request
-            logLatency("updateReservation", duration);  // Log latency to file
-        }
+        Reservation reservation = reservationService.updateReservation(id, updatedReservation);
+        return reservation != null ? ResponseEntity.ok(reservation) : ResponseEntity.notFound().build();
     }
 
     // Delete a reservation
     @DeleteMapping("/{id}")
+    @BulkheadOperation(OperationClass.WRITE)
     public ResponseEntity<Void> deleteReservation(@PathVariable Long id) {
-        restRequestCounter.inc();  // Increment the counter for requests
-        Histogram.Timer timer = restLatencyHistogram.startTimer();  // Start the timer for latency tracking
-        try {
-            boolean isDeleted = reservationService.deleteReservation(id);
-            return isDeleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
-        } finally {
-            double duration = timer.observeDuration();  // Log the duration of the request
-            logLatency("deleteReservation", duration);  // Log latency to file
-        }
+        boolean isDeleted = reservationService.deleteReservation(id);
+        return isDeleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 
-    // Get all reservations
+    // Get all reservations, or one keyset page when any paging parameter is given.
+    // The ETag follows the global version, so an unchanged list is answered with 304 without a database read
     @GetMapping
-    public ResponseEntity<List<Reservation>> obtenirToutesLesReservations() {
-        restRequestCounter.inc();  // Increment the counter for requests
-        Histogram.Timer timer = restLatencyHistogram.startTimer();  // Start the timer for latency tracking
-        try {
-            return ResponseEntity.ok(reservationService.obtenirToutesLesReservations());
-        } finally {
-            double duration = timer.observeDuration();  // Log the duration of the request
-            logLatency("obtenirToutesLesReservations", duration);  // Log latency to file
+    @BulkheadOperation(OperationClass.LIST)
+    public ResponseEntity<List<Reservation>> obtenirToutesLesReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        String etag = ReservationVersions.etag(reservationService.getListVersion(), request.getHeader(HttpHeaders.ACCEPT));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (cursor == null && limit == null && from == null && to == null) {
+            return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(reservationService.obtenirToutesLesReservations());
         }
+        CursorPage<Reservation> page = reservationService.getReservationPage(cursor, limit, from, to);
+        return ResponseEntity.ok().headers(PageHeaders.of(page)).eTag(etag).varyBy(HttpHeaders.ACCEPT).body(page.items());
     }
 
+    // Lightweight list view: one joined query, no preferences LOB, no managed entities
+    @GetMapping("/summaries")
+    @BulkheadOperation(OperationClass.LIST)
+    public ResponseEntity<List<ReservationSummary>> obtenirResumesDesReservations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        CursorPage<ReservationSummary> page = reservationService.getReservationSummaryPage(cursor, limit, from, to);
+        return ResponseEntity.ok().headers(PageHeaders.of(page)).body(page.items());
+    }
 
+    // Stay length statistics computed by the database, optionally for one client, room or room type
+    @GetMapping("/stats")
+    @BulkheadOperation(OperationClass.LIST)
+    public ResponseEntity<ReservationStats> obtenirStatistiques(
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) Long chambreId,
+            @RequestParam(required = false) TypeChambre type) {
+        return ResponseEntity.ok(reservationService.getReservationStats(clientId, chambreId, type));
+    }
+
+    // Running totals kept in memory, for dashboards that poll; global unless clientId is given
+    @GetMapping("/stats/totals")
+    @BulkheadOperation(OperationClass.POINT_READ)
+    public ResponseEntity<ReservationTotals> obtenirTotaux(@RequestParam(required = false) Long clientId) {
+        return ResponseEntity.ok(reservationService.getReservationTotals(clientId));
+    }
+
+    // Compares the running totals with a full recompute in the database; 503 while writes are in flight
+    @GetMapping("/stats/consistency")
+    @BulkheadOperation(OperationClass.LIST)
+    public ResponseEntity<ReservationStatsStore.ConsistencyReport> verifierTotaux() {
+        ReservationStatsStore.ConsistencyReport report = reservationService.checkReservationTotals();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
 }
@@ -1,26 +1,33 @@
 package com.example.hotelgestion.controller;
 
+import com.example.hotelgestion.bulkhead.BulkheadOperation;
+import com.example.hotelgestion.bulkhead.OperationClass;
+import com.example.hotelgestion.dto.ReservationResult;
 import com.example.hotelgestion.entity.Chambre;
 import com.example.hotelgestion.entity.Client;
 import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.exception.ReservationConflictException;
+import com.example.hotelgestion.pagination.CursorPage;
+import com.example.hotelgestion.pagination.ReservationPage;
+import com.example.hotelgestion.pagination.ReservationStream;
+import com.example.hotelgestion.service.ReservationBulkService;
 import com.example.hotelgestion.service.ReservationService;
 import jakarta.jws.WebMethod;
 import jakarta.jws.WebParam;
 import jakarta.jws.WebService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.bind.annotation.CrossOrigin;
-import io.prometheus.client.Histogram;
-import io.prometheus.client.Counter;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 @Component
 @CrossOrigin(origins = "http://localhost:3001")
@@ -32,44 +39,16 @@ public class ReservationSoapController {
     @Autowired
     private ReservationService reservationService;
 
-    // Prometheus Metrics
-    private static final Histogram soapLatencyHistogram;
-
-    private static final Counter soapRequestCounter;
-
-    private static final String LOG_FILE_PATH = "YourPath";
-
-
-    // Method for logging latency to a file
-    private void logLatency(String methodName, double duration) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(LOG_FILE_PATH , true))) {
-            writer.write("Method: " + methodName + ", Latency: " + duration + " seconds\n");
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Error writing latency to file", e);
-        }
-    }
-
-    static {
-        soapLatencyHistogram = Histogram.build()
-                .name("soap_reservation_latency_seconds")
-                .help("Latency in seconds for SOAP reservation requests.")
-                .buckets(0.01, 0.05, 0.1, 0.2, 0.5, 1.0, 2.0, 5.0)
-                .register();
-        soapRequestCounter = Counter.build()
-                .name("soap_reservation_requests_total")
-                .help("Total number of SOAP reservation requests.")
-                .register();
-    }
+    @Autowired
+    private ReservationBulkService reservationBulkService;
 
     // Get all reservations
     @WebMethod
+    @BulkheadOperation(OperationClass.LIST)
     public List<Reservation> getAllReservations() {
-        soapRequestCounter.inc();  // Increment request counter
-        Histogram.Timer timer = soapLatencyHistogram.startTimer();
         try {
             LOGGER.info("Fetching all reservations.");
             List<Reservation> reservations = reservationService.obtenirToutesLesReservations();
-            logLatency("getAllReservations", timer.observeDuration());
             return reservations;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error fetching all reservations", e);
@@ -77,14 +56,61 @@ public class ReservationSoapController {
         }
     }
 
+    // Get one keyset page of reservations; dateDebut/dateFin (ISO dates) keep reservations overlapping that range
+    @WebMethod
+    @BulkheadOperation(OperationClass.LIST)
+    public ReservationPage getReservationsPage(@WebParam(name = "pageToken") String pageToken,
+                                               @WebParam(name = "pageSize") Integer pageSize,
+                                               @WebParam(name = "dateDebut") String dateDebut,
+                                               @WebParam(name = "dateFin") String dateFin) {
+        try {
+            CursorPage<Reservation> page = reservationService.getReservationPage(pageToken, pageSize,
+                    dateDebut == null || dateDebut.isEmpty() ? null : LocalDate.parse(dateDebut),
+                    dateFin == null || dateFin.isEmpty() ? null : LocalDate.parse(dateFin));
+            return new ReservationPage(page);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            LOGGER.log(Level.WARNING, "Rejected page request: " + e.getMessage());
+            throw new IllegalArgumentException(e.getMessage(), e);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error fetching reservation page", e);
+            throw new RuntimeException("Error fetching reservation page", e);
+        }
+    }
+
+    // Stream reservations from a database cursor straight into the response: memory stays flat whatever the page size
+    // and the first reservations are sent before the last ones are read. pageSize is optional (all remaining rows).
+    // A database error after the first bytes were sent truncates the response instead of returning a fault.
+    @WebMethod
+    @BulkheadOperation(OperationClass.LIST)
+    public ReservationStream streamReservations(@WebParam(name = "pageToken") String pageToken,
+                                                @WebParam(name = "pageSize") Integer pageSize,
+                                                @WebParam(name = "dateDebut") String dateDebut,
+                                                @WebParam(name = "dateFin") String dateFin) {
+        try {
+            int size = pageSize != null && pageSize > 0 ? pageSize : 0;
+            Stream<Reservation> rows = reservationService.streamReservations(pageToken, size > 0 ? size + 1 : null,
+                    dateDebut == null || dateDebut.isEmpty() ? null : LocalDate.parse(dateDebut),
+                    dateFin == null || dateFin.isEmpty() ? null : LocalDate.parse(dateFin));
+            ReservationStream stream = new ReservationStream(rows, size);
+            // Normally closed once marshalled; this also releases the connection if marshalling stops half way
+            RequestContextHolder.currentRequestAttributes().registerDestructionCallback(
+                    ReservationStream.class.getName(), stream::close, RequestAttributes.SCOPE_REQUEST);
+            return stream;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            LOGGER.log(Level.WARNING, "Rejected stream request: " + e.getMessage());
+            throw new IllegalArgumentException(e.getMessage(), e);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error streaming reservations", e);
+            throw new RuntimeException("Error streaming reservations", e);
+        }
+    }
+
     // Get reservation by ID
     @WebMethod
+    @BulkheadOperation(OperationClass.POINT_READ)
     public Reservation getReservationById(@WebParam(name = "id") Long id) {
-        soapRequestCounter.inc();
-        Histogram.Timer timer = soapLatencyHistogram.startTimer();
         try {
             Optional<Reservation> reservation = reservationService.getReservation(id);
-            logLatency("getReservationById", timer.observeDuration());
             return reservation.orElse(null);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error fetching reservation by ID", e);
@@ -94,13 +120,12 @@ public class ReservationSoapController {
 
     // Create a reservation
     @WebMethod(operationName = "createReservation")
+    @BulkheadOperation(OperationClass.WRITE)
     public Reservation createReservation(@WebParam(name = "dateDebut") LocalDate dateDebut,
                                          @WebParam(name = "dateFin") LocalDate dateFin,
                                          @WebParam(name = "client") Client client,
                                          @WebParam(name = "chambre") Chambre chambre,
                                          @WebParam(name = "preference") String preference) {
-        soapRequestCounter.inc();
-        Histogram.Timer timer = soapLatencyHistogram.startTimer();
         try {
             Reservation reservation = new Reservation();
             reservation.setDateDebut(dateDebut);
@@ -109,27 +134,40 @@ public class ReservationSoapController {
             reservation.setChambre(chambre);
             reservation.setPreferences(preference);
             Reservation createdReservation = reservationService.createReservation(reservation);
-            logLatency("createReservation", timer.observeDuration());
             return createdReservation;
+        } catch (ReservationConflictException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Rejected reservation: " + e.getMessage());
+            throw e;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error creating reservation", e);
             throw new RuntimeException("Error creating reservation", e);
         }
     }
 
+    // Bulk create: one result per reservation, in the same order; inserted in JDBC batches
+    @WebMethod
+    @BulkheadOperation(OperationClass.WRITE)
+    public List<ReservationResult> createReservations(@WebParam(name = "reservation") List<Reservation> reservations) {
+        try {
+            List<ReservationResult> results = reservationBulkService.createReservations(
+                    reservations != null ? reservations : List.of());
+            return results;
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Error creating reservations", e);
+            throw new RuntimeException("Error creating reservations", e);
+        }
+    }
+
     // Delete a reservation
     @WebMethod
+    @BulkheadOperation(OperationClass.WRITE)
     public boolean deleteReservation(@WebParam(name = "id") Long id) {
-        soapRequestCounter.inc();
-        Histogram.Timer timer = soapLatencyHistogram.startTimer();
         try {
             Optional<Reservation> reservation = reservationService.getReservation(id);
             if (reservation.isPresent()) {
                 reservationService.deleteReservation(id);
-                logLatency("deleteReservation", timer.observeDuration());
                 return true;
             }
-            logLatency("deleteReservation", timer.observeDuration());
             return false;  // Return false if reservation is not found
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error deleting reservation", e);
@@ -139,9 +177,8 @@ public class ReservationSoapController {
 
     // Update a reservation
     @WebMethod
+    @BulkheadOperation(OperationClass.WRITE)
     public Reservation updateReservation(@WebParam(name = "id") Long id, @WebParam(name = "reservation") Reservation reservation) {
-        soapRequestCounter.inc();
-        Histogram.Timer timer = soapLatencyHistogram.startTimer();
         try {
             Reservation existingReservation = reservationService.getReservation(id).orElseThrow(() -> new RuntimeException(String.format("Reservation %s not found", id)));
             existingReservation.setClient(reservation.getClient());
@@ -150,8 +187,10 @@ public class ReservationSoapController {
             existingReservation.setDateFin(reservation.getDateFin());
             existingReservation.setPreferences(reservation.getPreferences());
             Reservation updatedReservation = reservationService.createReservation(existingReservation);
-            logLatency("updateReservation", timer.observeDuration());
             return updatedReservation;
+        } catch (ReservationConflictException | IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Rejected reservation update: " + e.getMessage());
+            throw e;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error updating reservation", e);
             throw new RuntimeException("Error updating reservation", e);
@@ -0,0 +1,12 @@
+package com.example.hotelgestion.dto;
+
+/**
+ * One committed reservation change, as pushed to the change feed. {@code reservation} is the state after the change,
+ * null for a deletion. Sequence numbers increase in commit order across all reservations.
+ */
+public record ReservationEvent(long sequence, Type type, Long id, ReservationView reservation) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
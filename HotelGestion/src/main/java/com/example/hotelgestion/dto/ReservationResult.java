@@ -0,0 +1,34 @@
+package com.example.hotelgestion.dto;
+
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one item of a bulk create; index is its position in the request, id is only set when CREATED
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ReservationResult {
+
+    public enum Status {
+        CREATED, INVALID, CONFLICT, FAILED
+    }
+
+    private int index;
+    private Long id;
+    private Status status;
+    private String message;
+
+    public static ReservationResult created(int index, Long id) {
+        return new ReservationResult(index, id, Status.CREATED, null);
+    }
+
+    public static ReservationResult rejected(int index, Status status, String message) {
+        return new ReservationResult(index, null, status, message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.hotelgestion.dto;
+
+import java.util.List;
+
+/**
+ * Stay length statistics (in nights) over a set of dated reservations, computed by a single
+ * aggregate row in the database. The histogram buckets follow {@link #BUCKET_LOWER_BOUNDS}.
+ */
+public record ReservationStats(long count, double averageNights, Long minNights, Long maxNights,
+                               List<NightsBucket> histogram) {
+
+    // Lower bound (inclusive) of each bucket; the upper bound is the next lower bound minus one, the last one is open
+    public static final int[] BUCKET_LOWER_BOUNDS = {1, 2, 3, 4, 8, 15, 31};
+
+    public record NightsBucket(int minNights, Integer maxNights, long count) {
+    }
+
+    // Target of the JPQL constructor expression; aggregates are null when no row matched
+    public ReservationStats(Long count, Double averageNights, Long minNights, Long maxNights,
+                            Long oneNight, Long twoNights, Long threeNights, Long upToAWeek,
+                            Long upToTwoWeeks, Long upToAMonth, Long longer) {
+        this(count == null ? 0 : count, averageNights == null ? 0 : averageNights, minNights, maxNights,
+                buckets(oneNight, twoNights, threeNights, upToAWeek, upToTwoWeeks, upToAMonth, longer));
+    }
+
+    private static List<NightsBucket> buckets(Long... counts) {
+        NightsBucket[] buckets = new NightsBucket[BUCKET_LOWER_BOUNDS.length];
+        for (int i = 0; i < buckets.length; i++) {
+            Integer upper = i + 1 < BUCKET_LOWER_BOUNDS.length ? BUCKET_LOWER_BOUNDS[i + 1] - 1 : null;
+            buckets[i] = new NightsBucket(BUCKET_LOWER_BOUNDS[i], upper, counts[i] == null ? 0 : counts[i]);
+        }
+        return List.of(buckets);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.hotelgestion.dto;
+
+import com.example.hotelgestion.entity.TypeChambre;
+
+import java.time.LocalDate;
+
+/**
+ * Flat, read-only list row: reservation dates with the client name and room type/price,
+ * read by a single joined query and without the preferences LOB.
+ */
+public record ReservationSummary(Long id, LocalDate dateDebut, LocalDate dateFin,
+                                 Long clientId, String clientNom, String clientPrenom,
+                                 Long chambreId, TypeChambre chambreType, Double chambrePrix) {
+}
@@ -0,0 +1,17 @@
+package com.example.hotelgestion.dto;
+
+/**
+ * Running totals of dated reservations (globally or for one client): how many, and the mean and
+ * standard deviation of their stay length in nights, derived from the count, sum and sum of squares.
+ */
+public record ReservationTotals(long count, long totalNights, double averageNights, double stdDevNights) {
+
+    public static ReservationTotals of(long count, long sumNights, long sumSquares) {
+        if (count <= 0) {
+            return new ReservationTotals(0, 0, 0, 0);
+        }
+        double average = (double) sumNights / count;
+        double variance = Math.max(0, (double) sumSquares / count - average * average);
+        return new ReservationTotals(count, sumNights, average, Math.sqrt(variance));
+    }
+}
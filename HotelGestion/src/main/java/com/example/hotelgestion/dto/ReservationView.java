@@ -0,0 +1,20 @@
+package com.example.hotelgestion.dto;
+
+import com.example.hotelgestion.entity.Reservation;
+
+import java.time.LocalDate;
+
+/**
+ * Reservation row without its associations: only the foreign keys of client and chambre are read,
+ * so the associated rows are loaded separately (and in batch) only when a caller needs them.
+ */
+public record ReservationView(Long id, LocalDate dateDebut, LocalDate dateFin, String preferences,
+                              Long clientId, Long chambreId) {
+
+    public static ReservationView of(Reservation reservation) {
+        return new ReservationView(reservation.getId(), reservation.getDateDebut(), reservation.getDateFin(),
+                reservation.getPreferences(),
+                reservation.getClient() != null ? reservation.getClient().getId() : null,
+                reservation.getChambre() != null ? reservation.getChambre().getId() : null);
+    }
+}
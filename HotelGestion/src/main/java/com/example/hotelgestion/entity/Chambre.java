@@ -1,5 +1,6 @@
 package com.example.hotelgestion.entity;
 
+import com.example.hotelgestion.service.ReferenceDataCacheListener;
 import jakarta.persistence.*;
 import jakarta.xml.bind.annotation.XmlAccessType;
 import jakarta.xml.bind.annotation.XmlAccessorType;
@@ -7,6 +8,7 @@ import jakarta.xml.bind.annotation.XmlRootElement;
 import lombok.*;
 
 @Entity
+@EntityListeners(ReferenceDataCacheListener.class)
 @Data
 @XmlRootElement
 @XmlAccessorType(XmlAccessType.FIELD)
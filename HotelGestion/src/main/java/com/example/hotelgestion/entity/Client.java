@@ -1,6 +1,8 @@
 package com.example.hotelgestion.entity;
 
+import com.example.hotelgestion.service.ReferenceDataCacheListener;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -10,6 +12,7 @@ import jakarta.xml.bind.annotation.XmlRootElement;
 import lombok.*;
 
 @Entity
+@EntityListeners(ReferenceDataCacheListener.class)
 @Data
 @XmlRootElement
 @XmlAccessorType(XmlAccessType.FIELD)
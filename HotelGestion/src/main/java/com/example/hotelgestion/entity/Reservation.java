@@ -6,6 +6,12 @@ import java.time.LocalDate;
 
 @Entity
 @Data
+// One index per access path (V2 migration); both also cover the date reads of a client / a room, and the foreign keys.
+// RepositoryQueryPlanTests checks that every repository query uses one
+@Table(indexes = {
+        @Index(name = "idx_reservation_client_dates", columnList = "client_id, date_debut, date_fin"),
+        @Index(name = "idx_reservation_chambre_dates", columnList = "chambre_id, date_debut, date_fin")
+})
 public class Reservation {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,11 @@
+/**
+ * JPA entities, also exposed as is by the SOAP service: JAXB writes their {@code LocalDate} fields as ISO dates
+ * through {@link com.example.hotelgestion.config.LocalDateAdapter}.
+ */
+@XmlJavaTypeAdapter(value = LocalDateAdapter.class, type = LocalDate.class)
+package com.example.hotelgestion.entity;
+
+import com.example.hotelgestion.config.LocalDateAdapter;
+import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+import java.time.LocalDate;
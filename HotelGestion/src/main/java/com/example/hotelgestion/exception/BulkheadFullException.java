@@ -0,0 +1,8 @@
+package com.example.hotelgestion.exception;
+
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String bulkhead, String reason) {
+        super(String.format("Too many concurrent %s requests (%s), retry later", bulkhead, reason));
+    }
+}
@@ -2,15 +2,21 @@ package com.example.hotelgestion.exception;
 
 import graphql.ErrorClassification;
 import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
 import graphql.language.SourceLocation;
 import graphql.schema.DataFetchingEnvironment;
 import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.execution.SubscriptionExceptionResolver;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
 @Component
-public class GraphQLExceptionHandler extends DataFetcherExceptionResolverAdapter {
+public class GraphQLExceptionHandler extends DataFetcherExceptionResolverAdapter implements SubscriptionExceptionResolver {
+
+    private static final ErrorClassification RESOURCE_EXHAUSTED = ErrorClassification.errorClassification("RESOURCE_EXHAUSTED");
 
     @Override
     protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
@@ -27,8 +33,27 @@ public class GraphQLExceptionHandler extends DataFetcherExceptionResolverAdapter
 
             @Override
             public ErrorClassification getErrorType() {
-                return null;
+                if (ex instanceof BulkheadFullException) {
+                    return RESOURCE_EXHAUSTED;
+                }
+                if (ex instanceof ReservationConflictException || ex instanceof IllegalArgumentException) {
+                    return ErrorType.BAD_REQUEST;
+                }
+                // Never null: the observation instrumentation reads the classification of every error
+                return ErrorType.INTERNAL_ERROR;
             }
         };
     }
+
+    // Errors ending a subscription stream, e.g. a subscriber evicted from the change feed
+    @Override
+    public Mono<List<GraphQLError>> resolveException(Throwable exception) {
+        if (exception instanceof SlowConsumerException || exception instanceof BulkheadFullException) {
+            return Mono.just(List.of(GraphqlErrorBuilder.newError()
+                    .message(exception.getMessage())
+                    .errorType(RESOURCE_EXHAUSTED)
+                    .build()));
+        }
+        return Mono.empty();
+    }
 }
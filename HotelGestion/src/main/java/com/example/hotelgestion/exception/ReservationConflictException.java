@@ -0,0 +1,17 @@
+package com.example.hotelgestion.exception;
+
+import java.time.LocalDate;
+
+public class ReservationConflictException extends RuntimeException {
+
+    private final Long chambreId;
+
+    public ReservationConflictException(Long chambreId, LocalDate dateDebut, LocalDate dateFin) {
+        super(String.format("Chambre %s is already booked between %s and %s", chambreId, dateDebut, dateFin));
+        this.chambreId = chambreId;
+    }
+
+    public Long getChambreId() {
+        return chambreId;
+    }
+}
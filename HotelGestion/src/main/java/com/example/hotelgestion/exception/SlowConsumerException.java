@@ -0,0 +1,13 @@
+package com.example.hotelgestion.exception;
+
+public class SlowConsumerException extends RuntimeException {
+
+    public SlowConsumerException(int bufferSize) {
+        super(String.format("Change feed subscriber fell more than %d events behind and was disconnected; "
+                + "reload and subscribe again", bufferSize));
+    }
+
+    public SlowConsumerException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.hotelgestion.latency;
+
+import java.util.Locale;
+
+public enum LatencyChannel {
+    REST, SOAP, GRPC, GRAPHQL;
+
+    // Same file names as the historical per-controller logs, e.g. reservation_rest_latency.log
+    String fileName() {
+        return "reservation_" + name().toLowerCase(Locale.ROOT) + "_latency.log";
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.hotelgestion.latency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared latency log for every protocol controller.
+ * Request threads only push a fixed-size record into a lock-free ring; a single background
+ * writer drains it, batches lines into per-protocol NIO buffers and writes them out when a
+ * buffer fills up or the flush interval expires. Records are dropped (and counted) rather
+ * than blocking the caller when the writer falls behind.
+ * While the ring is empty the writer sleeps until the next flush is due, or until a producer
+ * wakes it when nothing is left to flush.
+ */
+@Component
+public class LatencyJournal {
+
+    private static final Logger LOGGER = Logger.getLogger(LatencyJournal.class.getName());
+
+    private static final int DRAIN_BATCH = 1024;
+
+    private final LatencyRingBuffer ring;
+    private final Path directory;
+    private final int bufferBytes;
+    private final long flushIntervalNanos;
+    private final long maxFileBytes;
+    private final int maxBackups;
+
+    private final Map<String, Integer> methodIds = new ConcurrentHashMap<>();
+    private volatile byte[][] methodPrefixes = new byte[0][];
+
+    private final LatencyLogFile[] files = new LatencyLogFile[LatencyChannel.values().length];
+    private final LatencyRingBuffer.RecordHandler appender = this::append;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+
+    // Set by the writer before it parks on an empty ring; the first producer to clear it unparks the writer
+    private final AtomicBoolean idle = new AtomicBoolean();
+
+    private volatile boolean running;
+    private volatile Thread writer;
+
+    public LatencyJournal(@Value("${latency.journal.directory:${user.home}/hotelgestion/logs}") String directory,
+                          @Value("${latency.journal.capacity:65536}") int capacity,
+                          @Value("${latency.journal.flush-bytes:65536}") int bufferBytes,
+                          @Value("${latency.journal.flush-interval-ms:1000}") long flushIntervalMs,
+                          @Value("${latency.journal.max-file-bytes:10485760}") long maxFileBytes,
+                          @Value("${latency.journal.max-backups:5}") int maxBackups,
+                          MeterRegistry meterRegistry) {
+        this.ring = new LatencyRingBuffer(capacity);
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.bufferBytes = bufferBytes;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.maxFileBytes = maxFileBytes;
+        this.maxBackups = maxBackups;
+
+        FunctionCounter.builder("latency.journal.dropped", this, LatencyJournal::getDroppedRecords)
+                .description("Latency records dropped because the journal ring was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("latency.journal.written", this, LatencyJournal::getWrittenRecords)
+                .description("Latency records handed to the journal files")
+                .register(meterRegistry);
+        FunctionCounter.builder("latency.journal.errors", this, LatencyJournal::getWriteErrors)
+                .description("Latency records or flushes the journal failed to write")
+                .register(meterRegistry);
+        Gauge.builder("latency.journal.capacity", ring, LatencyRingBuffer::capacity)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        for (LatencyChannel channel : LatencyChannel.values()) {
+            files[channel.ordinal()] = new LatencyLogFile(directory.resolve(channel.fileName()), bufferBytes, maxFileBytes, maxBackups);
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "latency-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        LOGGER.info("Latency journal writing to " + directory);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    public void recordNanos(LatencyChannel channel, String method, long nanos) {
+        if (ring.offer(channel.ordinal(), methodId(method), nanos) && idle.get() && idle.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    public void recordSeconds(LatencyChannel channel, String method, double seconds) {
+        recordNanos(channel, method, (long) (seconds * 1_000_000_000L));
+    }
+
+    public long getDroppedRecords() {
+        return ring.droppedCount();
+    }
+
+    public long getWrittenRecords() {
+        return written.get();
+    }
+
+    public long getWriteErrors() {
+        return writeErrors.get();
+    }
+
+    private int methodId(String method) {
+        Integer id = methodIds.get(method);
+        return id != null ? id : registerMethod(method);
+    }
+
+    private synchronized int registerMethod(String method) {
+        Integer id = methodIds.get(method);
+        if (id != null) {
+            return id;
+        }
+        byte[][] prefixes = Arrays.copyOf(methodPrefixes, methodPrefixes.length + 1);
+        prefixes[prefixes.length - 1] = ("Method: " + method + ", Latency: ").getBytes(StandardCharsets.UTF_8);
+        methodPrefixes = prefixes;
+        methodIds.put(method, prefixes.length - 1);
+        return prefixes.length - 1;
+    }
+
+    // A failing record or flush is counted and logged, never allowed to end the writer: the ring would fill up for good
+    private void runWriter() {
+        long lastFlush = System.nanoTime();
+        while (running || !ring.isEmpty()) {
+            int drained = 0;
+            try {
+                drained = ring.drain(appender, DRAIN_BATCH);
+                long now = System.nanoTime();
+                if (now - lastFlush >= flushIntervalNanos) {
+                    flushAll();
+                    lastFlush = now;
+                }
+            } catch (RuntimeException e) {
+                writeErrors.incrementAndGet();
+                LOGGER.log(Level.SEVERE, "Latency journal writer error", e);
+            }
+            if (drained == 0 && running) {
+                awaitRecords(lastFlush);
+            }
+        }
+        for (LatencyLogFile file : files) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Error closing latency journal file", e);
+            }
+        }
+    }
+
+    private void awaitRecords(long lastFlush) {
+        idle.set(true);
+        // Checked again once idle is visible, so a record offered just before is not left waiting for a wake-up
+        if (ring.isEmpty() && running) {
+            if (hasPending()) {
+                LockSupport.parkNanos(this, lastFlush + flushIntervalNanos - System.nanoTime());
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        idle.set(false);
+    }
+
+    private boolean hasPending() {
+        for (LatencyLogFile file : files) {
+            if (file.hasPending()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void append(int channel, int method, long nanos) {
+        try {
+            files[channel].append(methodPrefixes[method], nanos);
+            written.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            writeErrors.incrementAndGet();
+            LOGGER.log(Level.SEVERE, "Error writing latency to file", e);
+        }
+    }
+
+    private void flushAll() {
+        for (LatencyLogFile file : files) {
+            if (!file.hasPending()) {
+                continue;
+            }
+            try {
+                file.flush();
+            } catch (IOException | RuntimeException e) {
+                writeErrors.incrementAndGet();
+                LOGGER.log(Level.SEVERE, "Error flushing latency journal", e);
+            }
+        }
+    }
+}
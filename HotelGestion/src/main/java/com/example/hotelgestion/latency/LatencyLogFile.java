@@ -0,0 +1,125 @@
+package com.example.hotelgestion.latency;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One append-only latency log with its own preallocated buffer. Rotates to
+ * {@code name.1 .. name.N} once the file would grow past {@code maxFileBytes}.
+ * Not thread-safe: only the journal writer thread touches it.
+ */
+final class LatencyLogFile {
+
+    private static final byte[] SUFFIX = " seconds\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_NUMBER_BYTES = 20 + 1 + 9;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final long maxFileBytes;
+    private final int maxBackups;
+    private FileChannel channel;
+    private long size;
+
+    LatencyLogFile(Path path, int bufferBytes, long maxFileBytes, int maxBackups) throws IOException {
+        this.path = path;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+        this.maxFileBytes = maxFileBytes;
+        this.maxBackups = Math.max(1, maxBackups);
+        open();
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        size = channel.size();
+    }
+
+    // prefix is the preencoded "Method: xxx, Latency: " line start
+    void append(byte[] prefix, long nanos) throws IOException {
+        int recordBytes = prefix.length + MAX_NUMBER_BYTES + SUFFIX.length;
+        if (recordBytes > buffer.capacity()) {
+            throw new IOException("Latency record of " + recordBytes + " bytes does not fit the " + buffer.capacity() + " bytes buffer");
+        }
+        if (buffer.remaining() < recordBytes) {
+            flush();
+        }
+        buffer.put(prefix);
+        putSeconds(nanos < 0 ? 0 : nanos);
+        buffer.put(SUFFIX);
+    }
+
+    boolean hasPending() {
+        return buffer.position() > 0;
+    }
+
+    void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        try {
+            if (size > 0 && size + buffer.remaining() > maxFileBytes) {
+                rotate();
+            }
+            while (buffer.hasRemaining()) {
+                size += channel.write(buffer);
+            }
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void rotate() throws IOException {
+        channel.close();
+        String name = path.getFileName().toString();
+        Files.deleteIfExists(path.resolveSibling(name + "." + maxBackups));
+        for (int i = maxBackups - 1; i >= 1; i--) {
+            Path source = path.resolveSibling(name + "." + i);
+            if (Files.exists(source)) {
+                Files.move(source, path.resolveSibling(name + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, path.resolveSibling(name + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Writes nanos as decimal seconds with '.' as separator whatever the default locale
+    private void putSeconds(long nanos) {
+        putDigits(nanos / 1_000_000_000L, 0);
+        buffer.put((byte) '.');
+        long fraction = nanos % 1_000_000_000L;
+        int digits = 9;
+        while (digits > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            digits--;
+        }
+        putDigits(fraction, digits);
+    }
+
+    private void putDigits(long value, int minDigits) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, minDigits);
+        int start = buffer.position();
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer.put(start + i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(start + digits);
+    }
+}
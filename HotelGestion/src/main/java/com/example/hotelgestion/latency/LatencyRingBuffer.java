@@ -0,0 +1,86 @@
+package com.example.hotelgestion.latency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded multi-producer / single-consumer ring of fixed-size latency records.
+ * Producers claim a slot with a CAS on the tail and never block: when the ring is full the
+ * record is counted as dropped. Records are stored in preallocated parallel arrays, so the
+ * request thread does not allocate.
+ */
+final class LatencyRingBuffer {
+
+    interface RecordHandler {
+        void accept(int channel, int method, long nanos);
+    }
+
+    private final int capacity;
+    private final int mask;
+    private final int[] channels;
+    private final int[] methods;
+    private final long[] nanos;
+    // Holds sequence + 1 once the slot has been written, 0 while it was never used
+    private final AtomicLongArray published;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long head;
+
+    LatencyRingBuffer(int requestedCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.channels = new int[size];
+        this.methods = new int[size];
+        this.nanos = new long[size];
+        this.published = new AtomicLongArray(size);
+    }
+
+    boolean offer(int channel, int method, long value) {
+        long sequence;
+        do {
+            sequence = tail.get();
+            if (sequence - head >= capacity) {
+                dropped.increment();
+                return false;
+            }
+        } while (!tail.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        channels[index] = channel;
+        methods[index] = method;
+        nanos[index] = value;
+        published.lazySet(index, sequence + 1);
+        return true;
+    }
+
+    // Only ever called from the single writer thread
+    int drain(RecordHandler handler, int limit) {
+        long current = head;
+        int count = 0;
+        while (count < limit) {
+            int index = (int) current & mask;
+            if (published.get(index) != current + 1) {
+                break;
+            }
+            handler.accept(channels[index], methods[index], nanos[index]);
+            current++;
+            count++;
+        }
+        head = current;
+        return count;
+    }
+
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+}
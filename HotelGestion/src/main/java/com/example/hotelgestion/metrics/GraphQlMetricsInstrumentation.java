@@ -0,0 +1,143 @@
+package com.example.hotelgestion.metrics;
+
+import com.example.hotelgestion.latency.LatencyChannel;
+import com.example.hotelgestion.sql.QueryScope;
+import graphql.ExecutionResult;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
+import graphql.language.Selection;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.graphql.server.WebGraphQlResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Times the data fetchers of the controllers' schema mappings, tagged with the field name, e.g.
+ * {@code allReservations}. Also copies the HTTP {@code traceparent} header into the GraphQL context, where
+ * the fetchers find it for exemplars.
+ * SQL statements are counted per operation (including the batch loads of nested fields), against its first root field.
+ * Ordered last: graphql-java applies the last instrumentation outermost, so fields refused by the bulkhead
+ * instrumentation are timed as well.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class GraphQlMetricsInstrumentation extends SimplePerformantInstrumentation implements WebGraphQlInterceptor {
+
+    // Type name, then field name: looked up per fetch without building a key
+    private final Map<String, Map<String, RequestMetrics.OperationMetrics>> operations = new HashMap<>();
+
+    public GraphQlMetricsInstrumentation(RequestMetrics requestMetrics, ApplicationContext applicationContext) {
+        for (String beanName : applicationContext.getBeanNamesForAnnotation(Controller.class)) {
+            Class<?> type = applicationContext.getType(beanName);
+            if (type == null) {
+                continue;
+            }
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(type))) {
+                SchemaMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method, SchemaMapping.class);
+                if (mapping != null) {
+                    String field = mapping.field().isEmpty() ? method.getName() : mapping.field();
+                    operations.computeIfAbsent(mapping.typeName(), typeName -> new HashMap<>())
+                            .put(field, requestMetrics.operation(LatencyChannel.GRAPHQL, field));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Mono<WebGraphQlResponse> intercept(WebGraphQlRequest request, Chain chain) {
+        String traceparent = request.getHeaders().getFirst(RequestExemplars.TRACEPARENT);
+        if (traceparent != null) {
+            request.configureExecutionInput((input, builder) -> {
+                input.getGraphQLContext().put(RequestExemplars.TRACEPARENT, traceparent);
+                return input;
+            });
+        }
+        return chain.next(request);
+    }
+
+    // Bound to the thread running the operation; with synchronous fetchers it runs and completes on that thread
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(InstrumentationExecuteOperationParameters parameters,
+                                                                         InstrumentationState state) {
+        OperationDefinition definition = parameters.getExecutionContext().getOperationDefinition();
+        String typeName = switch (definition.getOperation()) {
+            case QUERY -> "Query";
+            case MUTATION -> "Mutation";
+            case SUBSCRIPTION -> null;
+        };
+        Map<String, RequestMetrics.OperationMetrics> fields = typeName == null ? null : operations.get(typeName);
+        RequestMetrics.OperationMetrics operation = null;
+        if (fields != null) {
+            for (Selection<?> selection : definition.getSelectionSet().getSelections()) {
+                if (selection instanceof Field field) {
+                    operation = fields.get(field.getName());
+                    break;
+                }
+            }
+        }
+        if (operation == null) {
+            return SimpleInstrumentationContext.noOp();
+        }
+        QueryScope queries = operation.newQueryScope();
+        QueryScope previous = queries.enter();
+        return SimpleInstrumentationContext.whenCompleted((result, failure) -> {
+            queries.exit(previous);
+            queries.finish();
+        });
+    }
+
+    @Override
+    public DataFetcher<?> instrumentDataFetcher(DataFetcher<?> dataFetcher, InstrumentationFieldFetchParameters parameters,
+                                                InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return dataFetcher;
+        }
+        Map<String, RequestMetrics.OperationMetrics> fields = operations.get(parameters.getExecutionStepInfo().getObjectType().getName());
+        RequestMetrics.OperationMetrics operation = fields == null ? null : fields.get(parameters.getField().getName());
+        if (operation == null) {
+            return dataFetcher;
+        }
+        return environment -> {
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = dataFetcher.get(environment);
+            } catch (Exception e) {
+                operation.record(start, Outcome.of(e), traceparent(environment));
+                throw e;
+            }
+            if (result instanceof CompletionStage<?> stage) {
+                return stage.whenComplete((value, failure) -> operation.record(start,
+                        failure == null ? Outcome.SUCCESS : Outcome.of(failure), traceparent(environment)));
+            }
+            operation.record(start, Outcome.SUCCESS, traceparent(environment));
+            return result;
+        };
+    }
+
+    private static String traceparent(DataFetchingEnvironment environment) {
+        return environment.getGraphQlContext().get(RequestExemplars.TRACEPARENT);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.hotelgestion.metrics;
+
+import com.example.hotelgestion.latency.LatencyChannel;
+import com.example.hotelgestion.sql.QueryScope;
+import io.grpc.BindableService;
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.Status;
+import net.devh.boot.grpc.common.util.InterceptorOrder;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times gRPC calls from start until they are closed or cancelled, tagged with the implementation method name
+ * (the rpc name with a lower case first letter, e.g. {@code listReservations}, or {@code v2.listReservations}).
+ * Ordered before the bulkhead interceptor, so calls it refuses are timed too (as {@code rejected}, from
+ * RESOURCE_EXHAUSTED). SQL statements are counted against the call from whichever thread runs its callbacks.
+ */
+@GrpcGlobalServerInterceptor
+@Order(InterceptorOrder.ORDER_TRACING_METRICS)
+public class GrpcMetricsInterceptor implements ServerInterceptor {
+
+    private static final Metadata.Key<String> TRACEPARENT = Metadata.Key.of(RequestExemplars.TRACEPARENT, Metadata.ASCII_STRING_MARSHALLER);
+
+    private final Map<String, RequestMetrics.OperationMetrics> operations = new HashMap<>();
+
+    public GrpcMetricsInterceptor(RequestMetrics requestMetrics, ApplicationContext applicationContext) {
+        for (Object service : applicationContext.getBeansWithAnnotation(GrpcService.class).values()) {
+            if (!(service instanceof BindableService bindable)) {
+                continue;
+            }
+            for (ServerMethodDefinition<?, ?> definition : bindable.bindService().getMethods()) {
+                MethodDescriptor<?, ?> descriptor = definition.getMethodDescriptor();
+                operations.put(descriptor.getFullMethodName(), requestMetrics.operation(LatencyChannel.GRPC, operationName(descriptor)));
+            }
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        RequestMetrics.OperationMetrics operation = operations.get(call.getMethodDescriptor().getFullMethodName());
+        if (operation == null) {
+            return next.startCall(call, headers);
+        }
+        TimedCall<ReqT, RespT> timedCall = new TimedCall<>(call, operation, headers.get(TRACEPARENT));
+        QueryScope queries = timedCall.queries;
+        QueryScope previous = queries.enter();
+        try {
+            return new QueryScopedListener<>(next.startCall(timedCall, headers), queries) {
+                @Override
+                public void onCancel() {
+                    timedCall.finish(Outcome.CLIENT_ERROR);
+                    super.onCancel();
+                }
+            };
+        } catch (RuntimeException e) {
+            timedCall.finish(Outcome.SERVER_ERROR);
+            throw e;
+        } finally {
+            queries.exit(previous);
+        }
+    }
+
+    // Services of a v2 (or later) proto package, e.g. com.example.hotelgestion.v2.ReservationService, are told apart
+    // from v1 by a prefix: v2.listReservations. v1 and unversioned services (including grpc.health.v1) keep bare names.
+    private static String operationName(MethodDescriptor<?, ?> descriptor) {
+        String name = StringUtils.uncapitalize(descriptor.getBareMethodName());
+        String service = descriptor.getServiceName();
+        int end = service == null ? -1 : service.lastIndexOf('.');
+        int start = end < 0 ? -1 : service.lastIndexOf('.', end - 1);
+        String version = end < 0 ? "" : service.substring(start + 1, end);
+        return version.matches("v\\d+") && !version.equals("v1") ? version + "." + name : name;
+    }
+
+    private static Outcome outcomeOf(Status.Code code) {
+        return switch (code) {
+            case OK -> Outcome.SUCCESS;
+            case RESOURCE_EXHAUSTED -> Outcome.REJECTED;
+            case CANCELLED, INVALID_ARGUMENT, NOT_FOUND, ALREADY_EXISTS, PERMISSION_DENIED, FAILED_PRECONDITION,
+                 OUT_OF_RANGE, UNAUTHENTICATED -> Outcome.CLIENT_ERROR;
+            default -> Outcome.SERVER_ERROR;
+        };
+    }
+
+    // Service methods run in these callbacks (a unary method in onHalfClose), on the gRPC executor threads
+    private static class QueryScopedListener<ReqT> extends ForwardingServerCallListener.SimpleForwardingServerCallListener<ReqT> {
+
+        private final QueryScope queries;
+
+        private QueryScopedListener(ServerCall.Listener<ReqT> delegate, QueryScope queries) {
+            super(delegate);
+            this.queries = queries;
+        }
+
+        @Override
+        public void onMessage(ReqT message) {
+            QueryScope previous = queries.enter();
+            try {
+                super.onMessage(message);
+            } finally {
+                queries.exit(previous);
+            }
+        }
+
+        @Override
+        public void onHalfClose() {
+            QueryScope previous = queries.enter();
+            try {
+                super.onHalfClose();
+            } finally {
+                queries.exit(previous);
+            }
+        }
+
+        @Override
+        public void onReady() {
+            QueryScope previous = queries.enter();
+            try {
+                super.onReady();
+            } finally {
+                queries.exit(previous);
+            }
+        }
+    }
+
+    private static final class TimedCall<ReqT, RespT> extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
+
+        private final RequestMetrics.OperationMetrics operation;
+        private final QueryScope queries;
+        private final String traceparent;
+        private final long startNanos = System.nanoTime();
+        // A call can be closed and then cancelled; only the first end counts
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private TimedCall(ServerCall<ReqT, RespT> delegate, RequestMetrics.OperationMetrics operation, String traceparent) {
+            super(delegate);
+            this.operation = operation;
+            this.queries = operation.newQueryScope();
+            this.traceparent = traceparent;
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            finish(outcomeOf(status.getCode()));
+            super.close(status, trailers);
+        }
+
+        private void finish(Outcome outcome) {
+            if (finished.compareAndSet(false, true)) {
+                operation.record(startNanos, outcome, traceparent);
+                queries.finish();
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.hotelgestion.metrics;
+
+import com.example.hotelgestion.exception.BulkheadFullException;
+import com.example.hotelgestion.exception.ReservationConflictException;
+
+import java.time.DateTimeException;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Outcome tag of a request, the same four values for every protocol: refusals by a bulkhead are kept
+ * apart from client mistakes (bad input, conflicts, unknown ids) and from failures of the server itself.
+ */
+public enum Outcome {
+    SUCCESS, CLIENT_ERROR, REJECTED, SERVER_ERROR;
+
+    static final Outcome[] VALUES = values();
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    public String tag() {
+        return tag;
+    }
+
+    public static Outcome of(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof BulkheadFullException) {
+            return REJECTED;
+        }
+        if (cause instanceof ReservationConflictException || cause instanceof IllegalArgumentException
+                || cause instanceof DateTimeException) {
+            return CLIENT_ERROR;
+        }
+        return SERVER_ERROR;
+    }
+
+    public static Outcome ofHttpStatus(int status) {
+        if (status == 429) {
+            return REJECTED;
+        }
+        if (status >= 500) {
+            return SERVER_ERROR;
+        }
+        return status >= 400 ? CLIENT_ERROR : SUCCESS;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.hotelgestion.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exemplars for the request timers, taken from the W3C {@code traceparent} header of the call being recorded.
+ * Spring Boot hands this SpanContext to the Prometheus registry, which asks it for the current trace while a
+ * timer records; the header is only exposed to the registry for the duration of that record, so a slow bucket
+ * links to the caller's trace without the application running a tracer of its own.
+ * Exemplars are exported in the OpenMetrics format, e.g. to Prometheus started with --enable-feature=exemplar-storage.
+ */
+@Component
+public class RequestExemplars implements SpanContext {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    // version "-" 32 hex trace id "-" 16 hex span id "-" 2 hex flags
+    private static final int TRACEPARENT_LENGTH = 55;
+
+    private final ThreadLocal<String> current = new ThreadLocal<>();
+
+    void record(Timer timer, long nanos, String traceparent) {
+        if (!isValid(traceparent)) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        current.set(traceparent);
+        try {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        } finally {
+            // set(null) rather than remove() keeps the thread's map entry for the next call
+            current.set(null);
+        }
+    }
+
+    private static boolean isValid(String traceparent) {
+        return traceparent != null && traceparent.length() >= TRACEPARENT_LENGTH
+                && traceparent.charAt(2) == '-' && traceparent.charAt(35) == '-' && traceparent.charAt(52) == '-';
+    }
+
+    @Override
+    public String getCurrentTraceId() {
+        String traceparent = current.get();
+        return traceparent == null ? null : traceparent.substring(3, 35);
+    }
+
+    @Override
+    public String getCurrentSpanId() {
+        String traceparent = current.get();
+        return traceparent == null ? null : traceparent.substring(36, 52);
+    }
+
+    // Only traces the caller decided to keep are worth linking to
+    @Override
+    public boolean isCurrentSpanSampled() {
+        String traceparent = current.get();
+        return traceparent != null && (Character.digit(traceparent.charAt(54), 16) & 1) == 1;
+    }
+
+    @Override
+    public void markCurrentSpanAsExemplar() {
+        // The span belongs to the caller, there is nothing to mark on this side
+    }
+}
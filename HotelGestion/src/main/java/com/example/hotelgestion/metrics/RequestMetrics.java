@@ -0,0 +1,108 @@
+package com.example.hotelgestion.metrics;
+
+import com.example.hotelgestion.latency.LatencyChannel;
+import com.example.hotelgestion.latency.LatencyJournal;
+import com.example.hotelgestion.sql.QueryScope;
+import com.example.hotelgestion.sql.QueryStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request timing shared by the per-protocol interceptors of this package, plus the matching line in the
+ * {@link LatencyJournal}:
+ * <ul>
+ *     <li>{@code api.requests}: one timer per protocol, operation and {@link Outcome}, with SLO buckets
+ *     (aggregatable across instances, and carrying exemplars);</li>
+ *     <li>{@code api.latency}: one timer per protocol and operation with client-side percentiles. It is a separate
+ *     meter because the Prometheus registry drops percentiles from timers that publish buckets.</li>
+ * </ul>
+ * Operations resolve their timers once; recording a call is then a few array and counter updates, without allocating.
+ * Each operation also carries its SQL statement meters ({@link QueryStatistics}); the interceptors open a
+ * {@link QueryScope} per call so that statements are counted against it.
+ * Buckets and percentiles can be changed with the usual Spring Boot properties, e.g.
+ * {@code management.metrics.distribution.slo.api.requests=50ms,200ms}.
+ */
+@Component
+public class RequestMetrics {
+
+    public static final String METRIC = "api.requests";
+    public static final String LATENCY_METRIC = "api.latency";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+    private static final Duration[] SLOS = {
+            Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25), Duration.ofMillis(50),
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500), Duration.ofSeconds(1),
+            Duration.ofMillis(2500), Duration.ofSeconds(5)};
+
+    private final MeterRegistry meterRegistry;
+    private final LatencyJournal latencyJournal;
+    private final RequestExemplars exemplars;
+    private final QueryStatistics queryStatistics;
+
+    public RequestMetrics(MeterRegistry meterRegistry, LatencyJournal latencyJournal, RequestExemplars exemplars,
+                          QueryStatistics queryStatistics) {
+        this.meterRegistry = meterRegistry;
+        this.latencyJournal = latencyJournal;
+        this.exemplars = exemplars;
+        this.queryStatistics = queryStatistics;
+    }
+
+    /** Registers (or finds) the timers of one operation; callers keep the result instead of calling this per request. */
+    public OperationMetrics operation(LatencyChannel protocol, String operation) {
+        String protocolTag = protocol.name().toLowerCase(Locale.ROOT);
+        Timer[] timers = new Timer[Outcome.VALUES.length];
+        for (Outcome outcome : Outcome.VALUES) {
+            timers[outcome.ordinal()] = Timer.builder(METRIC)
+                    .description("Requests handled by the reservation API, by protocol, operation and outcome")
+                    .tags("protocol", protocolTag, "operation", operation, "outcome", outcome.tag())
+                    .serviceLevelObjectives(SLOS)
+                    .register(meterRegistry);
+        }
+        Timer latency = Timer.builder(LATENCY_METRIC)
+                .description("Latency percentiles of the reservation API computed in the application, by protocol and operation")
+                .tags("protocol", protocolTag, "operation", operation)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry);
+        return new OperationMetrics(protocol, operation, timers, latency, queryStatistics.operation(protocol, operation));
+    }
+
+    /** Timers of one operation. */
+    public final class OperationMetrics {
+
+        private final LatencyChannel protocol;
+        private final String operation;
+        private final Timer[] timers;
+        private final Timer latency;
+        private final QueryStatistics.OperationQueries queries;
+
+        private OperationMetrics(LatencyChannel protocol, String operation, Timer[] timers, Timer latency,
+                                 QueryStatistics.OperationQueries queries) {
+            this.protocol = protocol;
+            this.operation = operation;
+            this.timers = timers;
+            this.latency = latency;
+            this.queries = queries;
+        }
+
+        /** Counts the SQL statements of one call, once bound to the threads running it. */
+        public QueryScope newQueryScope() {
+            return queries.newScope();
+        }
+
+        /**
+         * Records a call started at {@code startNanos} ({@link System#nanoTime()}); {@code traceparent} is the
+         * caller's W3C trace header, if any, and becomes the exemplar of the bucket.
+         */
+        public void record(long startNanos, Outcome outcome, String traceparent) {
+            long nanos = System.nanoTime() - startNanos;
+            exemplars.record(timers[outcome.ordinal()], nanos, traceparent);
+            latency.record(nanos, TimeUnit.NANOSECONDS);
+            latencyJournal.recordNanos(protocol, operation, nanos);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.hotelgestion.metrics;
+
+import com.example.hotelgestion.latency.LatencyChannel;
+import com.example.hotelgestion.sql.QueryScope;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times the handlers of the REST controllers, tagged with the handler method name, and counts their SQL statements. Registered ahead of the
+ * bulkhead interceptor, so calls it refuses are still timed (as {@code rejected}, from the 429 status).
+ */
+@Component
+public class RestMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START = RestMetricsInterceptor.class.getName() + ".start";
+    private static final String QUERIES = RestMetricsInterceptor.class.getName() + ".queries";
+
+    private final RequestMetrics requestMetrics;
+    private final Map<Method, Optional<RequestMetrics.OperationMetrics>> operations = new ConcurrentHashMap<>();
+
+    public RestMetricsInterceptor(RequestMetrics requestMetrics) {
+        this.requestMetrics = requestMetrics;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestMetrics.OperationMetrics operation;
+        if (handler instanceof HandlerMethod handlerMethod && request.getAttribute(START) == null
+                && (operation = operationOf(handlerMethod)) != null) {
+            request.setAttribute(START, System.nanoTime());
+            QueryScope queries = operation.newQueryScope();
+            queries.enter();
+            request.setAttribute(QUERIES, queries);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(START) instanceof Long start && handler instanceof HandlerMethod handlerMethod) {
+            request.removeAttribute(START);
+            if (request.getAttribute(QUERIES) instanceof QueryScope queries) {
+                request.removeAttribute(QUERIES);
+                queries.exit(null);
+                queries.finish();
+            }
+            // An exception that no handler turned into a response still shows the default 200 at this point
+            Outcome outcome = ex != null && response.getStatus() < 400 ? Outcome.of(ex) : Outcome.ofHttpStatus(response.getStatus());
+            operationOf(handlerMethod).record(start, outcome, request.getHeader(RequestExemplars.TRACEPARENT));
+        }
+    }
+
+    private RequestMetrics.OperationMetrics operationOf(HandlerMethod handlerMethod) {
+        Optional<RequestMetrics.OperationMetrics> operation = operations.get(handlerMethod.getMethod());
+        if (operation == null) {
+            operation = operations.computeIfAbsent(handlerMethod.getMethod(), method ->
+                    AnnotatedElementUtils.hasAnnotation(handlerMethod.getBeanType(), RestController.class)
+                            ? Optional.of(requestMetrics.operation(LatencyChannel.REST, method.getName()))
+                            : Optional.empty());
+        }
+        return operation.orElse(null);
+    }
+}
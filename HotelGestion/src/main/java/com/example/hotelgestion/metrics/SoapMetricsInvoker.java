@@ -0,0 +1,90 @@
+package com.example.hotelgestion.metrics;
+
+import com.example.hotelgestion.latency.LatencyChannel;
+import com.example.hotelgestion.pagination.ReservationStream;
+import com.example.hotelgestion.sql.QueryScope;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.service.invoker.Invoker;
+import org.apache.cxf.service.invoker.MethodDispatcher;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.transport.http.AbstractHTTPDestination;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CXF invoker timing SOAP operations, tagged with the service method name, and counting their SQL statements. Wraps the bulkhead invoker,
+ * so refused calls are timed too. A {@link ReservationStream} result is timed until it has been marshalled.
+ */
+public class SoapMetricsInvoker implements Invoker {
+
+    private final Invoker delegate;
+    private final RequestMetrics requestMetrics;
+    private final Map<Method, RequestMetrics.OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    public SoapMetricsInvoker(Invoker delegate, RequestMetrics requestMetrics) {
+        this.delegate = delegate;
+        this.requestMetrics = requestMetrics;
+    }
+
+    @Override
+    public Object invoke(Exchange exchange, Object o) {
+        RequestMetrics.OperationMetrics operation = operationOf(exchange);
+        if (operation == null) {
+            return delegate.invoke(exchange, o);
+        }
+        long start = System.nanoTime();
+        QueryScope queries = operation.newQueryScope();
+        QueryScope previous = queries.enter();
+        boolean streaming = false;
+        try {
+            Object result = delegate.invoke(exchange, o);
+            ReservationStream stream = ReservationStream.in(result);
+            if (stream != null) {
+                // Timed up to the last streamed row; a response abandoned half way counts as failed
+                String traceparent = traceparent(exchange);
+                stream.onClose(completed -> {
+                    operation.record(start, completed ? Outcome.SUCCESS : Outcome.SERVER_ERROR, traceparent);
+                    queries.finish();
+                });
+                streaming = true;
+            } else {
+                operation.record(start, Outcome.SUCCESS, traceparent(exchange));
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // Service exceptions reach us wrapped in a Fault
+            operation.record(start, Outcome.of(e instanceof Fault && e.getCause() != null ? e.getCause() : e), traceparent(exchange));
+            throw e;
+        } finally {
+            queries.exit(previous);
+            if (!streaming) {
+                queries.finish();
+            }
+        }
+    }
+
+    private RequestMetrics.OperationMetrics operationOf(Exchange exchange) {
+        BindingOperationInfo bindingOperation = exchange.getBindingOperationInfo();
+        MethodDispatcher dispatcher = (MethodDispatcher) exchange.getService().get(MethodDispatcher.class.getName());
+        if (bindingOperation == null || dispatcher == null) {
+            return null;
+        }
+        Method method = dispatcher.getMethod(bindingOperation);
+        if (method == null) {
+            return null;
+        }
+        RequestMetrics.OperationMetrics operation = operations.get(method);
+        return operation != null ? operation
+                : operations.computeIfAbsent(method, m -> requestMetrics.operation(LatencyChannel.SOAP, m.getName()));
+    }
+
+    private static String traceparent(Exchange exchange) {
+        return exchange.getInMessage() != null
+                && exchange.getInMessage().get(AbstractHTTPDestination.HTTP_REQUEST) instanceof HttpServletRequest request
+                ? request.getHeader(RequestExemplars.TRACEPARENT) : null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.hotelgestion.pagination;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * One keyset page. {@code nextCursor} is null on the last page.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Builds a page from a query that fetched {@code pageSize + 1} rows: the extra row only tells
+     * whether another page exists and is not returned.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, ToLongFunction<T> idOf) {
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, pageSize));
+        return new CursorPage<>(items, PageCursor.encode(idOf.applyAsLong(items.get(pageSize - 1))));
+    }
+}
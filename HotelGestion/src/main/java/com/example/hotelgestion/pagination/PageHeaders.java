@@ -0,0 +1,29 @@
+package com.example.hotelgestion.pagination;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * REST view of a {@link CursorPage}: an RFC 8288 {@code Link: <...>; rel="next"} header built from the
+ * current request plus the raw cursor in {@code X-Next-Cursor}.
+ */
+public final class PageHeaders {
+
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private PageHeaders() {
+    }
+
+    public static HttpHeaders of(CursorPage<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.nextCursor())
+                    .build()
+                    .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            headers.add(NEXT_CURSOR, page.nextCursor());
+        }
+        return headers;
+    }
+}
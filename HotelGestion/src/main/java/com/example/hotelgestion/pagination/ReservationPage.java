@@ -0,0 +1,30 @@
+package com.example.hotelgestion.pagination;
+
+import com.example.hotelgestion.entity.Reservation;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// SOAP wire type of a reservation page; nextPageToken is absent on the last page
+@Data
+@NoArgsConstructor
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ReservationPage {
+
+    @XmlElement(name = "reservation")
+    private List<Reservation> reservations = new ArrayList<>();
+
+    private String nextPageToken;
+
+    public ReservationPage(CursorPage<Reservation> page) {
+        this.reservations = new ArrayList<>(page.items());
+        this.nextPageToken = page.nextCursor();
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.hotelgestion.pagination;
+
+import com.example.hotelgestion.entity.Reservation;
+import jakarta.xml.bind.annotation.XmlAccessType;
+import jakarta.xml.bind.annotation.XmlAccessorType;
+import jakarta.xml.bind.annotation.XmlElement;
+import jakarta.xml.bind.annotation.XmlRootElement;
+import jakarta.xml.bind.annotation.XmlTransient;
+import jakarta.xml.bind.annotation.XmlType;
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * SOAP wire type of a streamed reservation page. JAXB iterates the reservations while it marshals the response, which
+ * pulls them from the row stream one at a time: only the reservation being written is in memory. The collection can
+ * therefore be iterated once only. nextPageToken, written after the reservations, is absent on the last page.
+ * Work that must last as long as the marshalling (a bulkhead permit, request metrics) is ended from {@link #onClose}.
+ */
+@XmlRootElement
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(propOrder = {"reservations", "nextPageToken"})
+public class ReservationStream {
+
+    @XmlElement(name = "reservation")
+    private Collection<Reservation> reservations;
+
+    @XmlTransient
+    private String nextPageToken;
+
+    @XmlTransient
+    private final List<Consumer<Boolean>> closeListeners = new ArrayList<>();
+
+    @XmlTransient
+    private Stream<Reservation> rows;
+
+    @XmlTransient
+    private boolean closed;
+
+    @XmlTransient
+    private boolean completed;
+
+    // For JAXB
+    public ReservationStream() {
+        this.reservations = new ArrayList<>();
+    }
+
+    /**
+     * {@code rows} must have been read with a limit of {@code pageSize + 1} when pageSize is positive: the extra row
+     * only tells that another page exists. It is closed once the reservations have been iterated.
+     */
+    public ReservationStream(Stream<Reservation> rows, int pageSize) {
+        this.rows = rows;
+        this.reservations = new RowCollection(pageSize);
+    }
+
+    public Collection<Reservation> getReservations() {
+        return reservations;
+    }
+
+    @XmlElement
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * Calls {@code listener} once the rows are closed, with true when every reservation of the page was iterated and
+     * false when the stream was closed before (marshalling stopped half way). Runs at once if already closed.
+     */
+    public void onClose(Consumer<Boolean> listener) {
+        synchronized (this) {
+            if (!closed) {
+                closeListeners.add(listener);
+                return;
+            }
+        }
+        listener.accept(completed);
+    }
+
+    // The stream returned by a service invocation, bare or wrapped in the list of return values; null if there is none
+    public static ReservationStream in(Object result) {
+        if (result instanceof List<?> values && values.size() == 1) {
+            result = values.get(0);
+        }
+        return result instanceof ReservationStream stream ? stream : null;
+    }
+
+    // Releases the rows of a stream that was not iterated to the end; nothing happens once closed
+    public void close() {
+        close(false);
+    }
+
+    private void close(boolean completed) {
+        List<Consumer<Boolean>> listeners;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            this.completed = completed;
+            listeners = List.copyOf(closeListeners);
+            closeListeners.clear();
+        }
+        try {
+            if (rows != null) {
+                rows.close();
+            }
+        } finally {
+            listeners.forEach(listener -> listener.accept(completed));
+        }
+    }
+
+    /**
+     * The page, read from the cursor as it is iterated. It can be iterated once; size() and isEmpty() read the rows
+     * not iterated yet ahead, and size() holds the rest of the page in memory to count it.
+     */
+    private final class RowCollection extends AbstractCollection<Reservation> {
+
+        private final int pageSize;
+        // Rows taken from the cursor and not handed to the iterator yet
+        private final ArrayDeque<Reservation> readAhead = new ArrayDeque<>();
+        private Iterator<Reservation> source;
+        private int count;
+        private long lastId;
+        private boolean exhausted;
+        private boolean iterated;
+
+        private RowCollection(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public Iterator<Reservation> iterator() {
+            if (iterated) {
+                throw new IllegalStateException("Streamed reservations can only be iterated once");
+            }
+            iterated = true;
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return !readAhead.isEmpty() || fetch();
+                }
+
+                @Override
+                public Reservation next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return readAhead.poll();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            while (fetch()) {
+                // Counted by fetch
+            }
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return count == 0 && !fetch();
+        }
+
+        // Does not read the rows, so logging the response leaves it intact
+        @Override
+        public String toString() {
+            return "ReservationStream[" + (exhausted ? count + " reservations" : "streaming") + "]";
+        }
+
+        // Reads the next row of the page ahead; at the end of the page sets the token and closes the rows
+        private boolean fetch() {
+            if (exhausted) {
+                return false;
+            }
+            if (source == null) {
+                source = rows.iterator();
+            }
+            boolean more = source.hasNext();
+            if (more && (pageSize <= 0 || count < pageSize)) {
+                Reservation reservation = source.next();
+                count++;
+                lastId = reservation.getId();
+                readAhead.add(reservation);
+                return true;
+            }
+            exhausted = true;
+            if (more) {
+                nextPageToken = PageCursor.encode(lastId);
+            }
+            close(true);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.hotelgestion.protobuf;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.grpc.ReservationList;
+import com.example.hotelgestion.grpc.ReservationResponse;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reservation entities to and from the protobuf messages of reservation.proto, for the REST API.
+ * Protobuf has no null: unset fields are left at their default and read back as null.
+ */
+public final class ReservationProtoMapper {
+
+    private ReservationProtoMapper() {
+    }
+
+    public static ReservationResponse toMessage(Reservation reservation) {
+        ReservationResponse.Builder message = ReservationResponse.newBuilder();
+        if (reservation.getId() != null) {
+            message.setId(reservation.getId());
+        }
+        if (reservation.getDateDebut() != null) {
+            message.setDateDebut(reservation.getDateDebut().toString());
+        }
+        if (reservation.getDateFin() != null) {
+            message.setDateFin(reservation.getDateFin().toString());
+        }
+        if (reservation.getPreferences() != null) {
+            message.setPreferences(reservation.getPreferences());
+        }
+        if (reservation.getClient() != null) {
+            message.setClient(toMessage(reservation.getClient()));
+        }
+        if (reservation.getChambre() != null) {
+            message.setChambre(toMessage(reservation.getChambre()));
+        }
+        return message.build();
+    }
+
+    public static ReservationList toMessage(List<Reservation> reservations) {
+        ReservationList.Builder message = ReservationList.newBuilder();
+        for (Reservation reservation : reservations) {
+            message.addReservations(toMessage(reservation));
+        }
+        return message.build();
+    }
+
+    private static com.example.hotelgestion.grpc.Client toMessage(Client client) {
+        com.example.hotelgestion.grpc.Client.Builder message = com.example.hotelgestion.grpc.Client.newBuilder();
+        if (client.getId() != null) {
+            message.setId(client.getId());
+        }
+        if (client.getNom() != null) {
+            message.setNom(client.getNom());
+        }
+        if (client.getPrenom() != null) {
+            message.setPrenom(client.getPrenom());
+        }
+        if (client.getEmail() != null) {
+            message.setEmail(client.getEmail());
+        }
+        if (client.getTelephone() != null) {
+            message.setTelephone(client.getTelephone());
+        }
+        return message.build();
+    }
+
+    private static com.example.hotelgestion.grpc.Chambre toMessage(Chambre chambre) {
+        com.example.hotelgestion.grpc.Chambre.Builder message = com.example.hotelgestion.grpc.Chambre.newBuilder();
+        if (chambre.getId() != null) {
+            message.setId(chambre.getId());
+        }
+        if (chambre.getType() != null) {
+            message.setType(chambre.getType().name());
+        }
+        if (chambre.getPrix() != null) {
+            message.setPrix(chambre.getPrix());
+        }
+        if (chambre.getDisponible() != null) {
+            message.setDisponible(chambre.getDisponible());
+        }
+        return message.build();
+    }
+
+    // Request bodies only carry references: client and chambre are read back as id-only entities
+    public static Reservation fromMessage(ReservationResponse message) {
+        Reservation reservation = new Reservation();
+        reservation.setId(message.getId() != 0 ? message.getId() : null);
+        reservation.setDateDebut(message.getDateDebut().isEmpty() ? null : LocalDate.parse(message.getDateDebut()));
+        reservation.setDateFin(message.getDateFin().isEmpty() ? null : LocalDate.parse(message.getDateFin()));
+        reservation.setPreferences(message.getPreferences().isEmpty() ? null : message.getPreferences());
+        if (message.hasClient()) {
+            Client client = new Client();
+            client.setId(message.getClient().getId());
+            reservation.setClient(client);
+        }
+        if (message.hasChambre()) {
+            Chambre chambre = new Chambre();
+            chambre.setId(message.getChambre().getId());
+            reservation.setChambre(chambre);
+        }
+        return reservation;
+    }
+
+    public static List<Reservation> fromMessage(ReservationList message) {
+        List<Reservation> reservations = new ArrayList<>(message.getReservationsCount());
+        for (ReservationResponse reservation : message.getReservationsList()) {
+            reservations.add(fromMessage(reservation));
+        }
+        return reservations;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.hotelgestion.protobuf;
+
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.grpc.ReservationList;
+import com.example.hotelgestion.grpc.ReservationResponse;
+import com.google.protobuf.Message;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@code application/x-protobuf} for the REST API, reusing the gRPC messages: a Reservation is written as
+ * ReservationResponse and a list of reservations as ReservationList, and request bodies are read from the
+ * same messages. Registered as a bean, so Spring Boot puts it next to the JSON, XML, CBOR and Smile converters
+ * and the Accept / Content-Type headers pick the format.
+ */
+@Component
+public class ReservationProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    // Same header as Spring's ProtobufHttpMessageConverter, so generic protobuf clients know what to parse
+    private static final String MESSAGE_HEADER = "X-Protobuf-Message";
+
+    public ReservationProtobufHttpMessageConverter() {
+        super(PROTOBUF, new MediaType("application", "protobuf"));
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Reservation.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return isReservationType(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return (type != null ? isReservationType(type) : supports(clazz)) && canWrite(mediaType);
+    }
+
+    // Asked with the raw value class (e.g. ArrayList) once canWrite accepted the generic type
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    private static boolean isReservationType(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        if (Reservation.class == resolved.resolve()) {
+            return true;
+        }
+        return resolved.asCollection() != ResolvableType.NONE
+                && Reservation.class == resolved.asCollection().resolveGeneric(0);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        try {
+            if (Collection.class.isAssignableFrom(ResolvableType.forType(type).toClass())) {
+                return ReservationProtoMapper.fromMessage(ReservationList.parseFrom(inputMessage.getBody()));
+            }
+            return ReservationProtoMapper.fromMessage(ReservationResponse.parseFrom(inputMessage.getBody()));
+        } catch (DateTimeParseException e) {
+            throw new HttpMessageNotReadableException("Invalid date: " + e.getParsedString(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Message message = value instanceof Reservation reservation
+                ? ReservationProtoMapper.toMessage(reservation)
+                : ReservationProtoMapper.toMessage((List<Reservation>) value);
+        outputMessage.getHeaders().set(MESSAGE_HEADER, message.getDescriptorForType().getFullName());
+        outputMessage.getHeaders().setContentLength(message.getSerializedSize());
+        message.writeTo(outputMessage.getBody());
+    }
+}
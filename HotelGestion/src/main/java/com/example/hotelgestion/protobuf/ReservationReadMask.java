@@ -0,0 +1,106 @@
+package com.example.hotelgestion.protobuf;
+
+import com.google.protobuf.FieldMask;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of the v2 reservation messages a caller asked for with its readMask (reservation_v2.proto), resolved once
+ * per call. An empty mask means every field. {@code client} and {@code chambre} select all the fields of the
+ * referenced client or room, {@code client.nom} only one of them; either implies the reservation's clientId or chambreId.
+ */
+public final class ReservationReadMask {
+
+    public enum Field {
+        ID("id"), DATE_DEBUT("dateDebut"), DATE_FIN("dateFin"), PREFERENCES("preferences"),
+        CLIENT_ID("clientId"), CHAMBRE_ID("chambreId"),
+        CLIENT_NOM("client.nom"), CLIENT_PRENOM("client.prenom"), CLIENT_EMAIL("client.email"),
+        CLIENT_TELEPHONE("client.telephone"),
+        CHAMBRE_TYPE("chambre.type"), CHAMBRE_PRIX("chambre.prix"), CHAMBRE_DISPONIBLE("chambre.disponible");
+
+        private final String path;
+
+        Field(String path) {
+            this.path = path;
+        }
+    }
+
+    private static final Set<Field> CLIENT = EnumSet.of(Field.CLIENT_NOM, Field.CLIENT_PRENOM, Field.CLIENT_EMAIL,
+            Field.CLIENT_TELEPHONE);
+    private static final Set<Field> CHAMBRE = EnumSet.of(Field.CHAMBRE_TYPE, Field.CHAMBRE_PRIX, Field.CHAMBRE_DISPONIBLE);
+
+    public static final ReservationReadMask ALL = new ReservationReadMask(EnumSet.allOf(Field.class), true, true);
+
+    private final Set<Field> fields;
+    private final boolean clients;
+    private final boolean chambres;
+
+    private ReservationReadMask(Set<Field> fields, boolean clients, boolean chambres) {
+        this.fields = fields;
+        this.clients = clients;
+        this.chambres = chambres;
+    }
+
+    // Throws IllegalArgumentException on an unknown path
+    public static ReservationReadMask of(FieldMask mask) {
+        if (mask == null || mask.getPathsCount() == 0) {
+            return ALL;
+        }
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        boolean clients = false;
+        boolean chambres = false;
+        for (String path : mask.getPathsList()) {
+            switch (path) {
+                case "client", "client.id" -> {
+                    clients = true;
+                    fields.add(Field.CLIENT_ID);
+                    if (path.equals("client")) {
+                        fields.addAll(CLIENT);
+                    }
+                }
+                case "chambre", "chambre.id" -> {
+                    chambres = true;
+                    fields.add(Field.CHAMBRE_ID);
+                    if (path.equals("chambre")) {
+                        fields.addAll(CHAMBRE);
+                    }
+                }
+                default -> {
+                    Field field = field(path);
+                    fields.add(field);
+                    if (CLIENT.contains(field)) {
+                        clients = true;
+                        fields.add(Field.CLIENT_ID);
+                    } else if (CHAMBRE.contains(field)) {
+                        chambres = true;
+                        fields.add(Field.CHAMBRE_ID);
+                    }
+                }
+            }
+        }
+        return new ReservationReadMask(fields, clients, chambres);
+    }
+
+    private static Field field(String path) {
+        for (Field field : Field.values()) {
+            if (field.path.equals(path)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown readMask path " + path);
+    }
+
+    public boolean has(Field field) {
+        return fields.contains(field);
+    }
+
+    // Whether the response carries the referenced clients (rooms), so whether they have to be read at all
+    public boolean clients() {
+        return clients;
+    }
+
+    public boolean chambres() {
+        return chambres;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.hotelgestion.protobuf;
+
+import com.example.hotelgestion.dto.ReservationView;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.grpc.v2.ReservationPage;
+import com.example.hotelgestion.grpc.v2.RoomType;
+import com.example.hotelgestion.protobuf.ReservationReadMask.Field;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reservations, clients and rooms to the compact v2 gRPC messages (reservation_v2.proto), restricted to a read mask.
+ * Dates become epoch days: no formatting on the way out, no parsing on the way in.
+ */
+public final class ReservationV2Mapper {
+
+    private static final RoomType[] ROOM_TYPES = new RoomType[TypeChambre.values().length];
+
+    static {
+        for (TypeChambre type : TypeChambre.values()) {
+            ROOM_TYPES[type.ordinal()] = RoomType.valueOf(type.name());
+        }
+    }
+
+    private ReservationV2Mapper() {
+    }
+
+    /**
+     * The reservations and, when the mask asks for them, each of their clients and rooms once; {@code clients} and
+     * {@code chambres} look up the referenced ids and are only called then.
+     */
+    public static ReservationPage.Builder toPage(List<ReservationView> reservations,
+                                                 Function<Set<Long>, Iterable<Client>> clients,
+                                                 Function<Set<Long>, Iterable<Chambre>> chambres,
+                                                 ReservationReadMask mask) {
+        ReservationPage.Builder page = ReservationPage.newBuilder();
+        Set<Long> clientIds = new LinkedHashSet<>();
+        Set<Long> chambreIds = new LinkedHashSet<>();
+        for (ReservationView reservation : reservations) {
+            page.addReservations(toMessage(reservation, mask));
+            if (reservation.clientId() != null) {
+                clientIds.add(reservation.clientId());
+            }
+            if (reservation.chambreId() != null) {
+                chambreIds.add(reservation.chambreId());
+            }
+        }
+        if (mask.clients() && !clientIds.isEmpty()) {
+            for (Client client : clients.apply(clientIds)) {
+                page.addClients(toMessage(client, mask));
+            }
+        }
+        if (mask.chambres() && !chambreIds.isEmpty()) {
+            for (Chambre chambre : chambres.apply(chambreIds)) {
+                page.addChambres(toMessage(chambre, mask));
+            }
+        }
+        return page;
+    }
+
+    public static com.example.hotelgestion.grpc.v2.Reservation toMessage(ReservationView reservation, ReservationReadMask mask) {
+        com.example.hotelgestion.grpc.v2.Reservation.Builder message = com.example.hotelgestion.grpc.v2.Reservation.newBuilder();
+        if (reservation.id() != null && mask.has(Field.ID)) {
+            message.setId(reservation.id());
+        }
+        if (reservation.dateDebut() != null && mask.has(Field.DATE_DEBUT)) {
+            message.setDateDebut((int) reservation.dateDebut().toEpochDay());
+        }
+        if (reservation.dateFin() != null && mask.has(Field.DATE_FIN)) {
+            message.setDateFin((int) reservation.dateFin().toEpochDay());
+        }
+        if (reservation.clientId() != null && mask.has(Field.CLIENT_ID)) {
+            message.setClientId(reservation.clientId());
+        }
+        if (reservation.chambreId() != null && mask.has(Field.CHAMBRE_ID)) {
+            message.setChambreId(reservation.chambreId());
+        }
+        if (reservation.preferences() != null && mask.has(Field.PREFERENCES)) {
+            message.setPreferences(reservation.preferences());
+        }
+        return message.build();
+    }
+
+    public static com.example.hotelgestion.grpc.v2.Client toMessage(Client client, ReservationReadMask mask) {
+        com.example.hotelgestion.grpc.v2.Client.Builder message = com.example.hotelgestion.grpc.v2.Client.newBuilder();
+        if (client.getId() != null) {
+            message.setId(client.getId());
+        }
+        if (client.getNom() != null && mask.has(Field.CLIENT_NOM)) {
+            message.setNom(client.getNom());
+        }
+        if (client.getPrenom() != null && mask.has(Field.CLIENT_PRENOM)) {
+            message.setPrenom(client.getPrenom());
+        }
+        if (client.getEmail() != null && mask.has(Field.CLIENT_EMAIL)) {
+            message.setEmail(client.getEmail());
+        }
+        if (client.getTelephone() != null && mask.has(Field.CLIENT_TELEPHONE)) {
+            message.setTelephone(client.getTelephone());
+        }
+        return message.build();
+    }
+
+    public static com.example.hotelgestion.grpc.v2.Chambre toMessage(Chambre chambre, ReservationReadMask mask) {
+        com.example.hotelgestion.grpc.v2.Chambre.Builder message = com.example.hotelgestion.grpc.v2.Chambre.newBuilder();
+        if (chambre.getId() != null) {
+            message.setId(chambre.getId());
+        }
+        if (chambre.getType() != null && mask.has(Field.CHAMBRE_TYPE)) {
+            message.setType(ROOM_TYPES[chambre.getType().ordinal()]);
+        }
+        if (chambre.getPrix() != null && mask.has(Field.CHAMBRE_PRIX)) {
+            message.setPrix(chambre.getPrix());
+        }
+        if (chambre.getDisponible() != null && mask.has(Field.CHAMBRE_DISPONIBLE)) {
+            message.setDisponible(chambre.getDisponible());
+        }
+        return message.build();
+    }
+
+    // ROOM_TYPE_UNSPECIFIED stands for any type
+    public static TypeChambre toTypeChambre(RoomType type) {
+        if (type == RoomType.ROOM_TYPE_UNSPECIFIED) {
+            return null;
+        }
+        if (type == RoomType.UNRECOGNIZED) {
+            throw new IllegalArgumentException("Unknown room type");
+        }
+        return TypeChambre.valueOf(type.name());
+    }
+
+    public static LocalDate toDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+}
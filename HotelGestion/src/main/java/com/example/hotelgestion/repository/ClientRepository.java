@@ -1,10 +1,14 @@
 package com.example.hotelgestion.repository;
 
 import com.example.hotelgestion.entity.Client;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
 
+    List<Client> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -0,0 +1,61 @@
+package com.example.hotelgestion.repository;
+
+import com.example.hotelgestion.entity.Reservation;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC batch insert for bulk reservation imports. Hibernate cannot batch inserts of IDENTITY ids,
+ * so this sends one batch per call and reads the generated ids back from it; with the MySQL driver's
+ * rewriteBatchedStatements the batch becomes a single multi-row INSERT. Runs in the caller's transaction.
+ */
+@Repository
+public class ReservationBatchRepository {
+
+    private static final String INSERT = "INSERT INTO reservation (date_debut, date_fin, preferences, client_id, chambre_id) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReservationBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Inserts every reservation (client and chambre must be set) and sets the generated ids on them
+    public void insertAll(List<Reservation> reservations) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Reservation reservation = reservations.get(i);
+                        statement.setObject(1, reservation.getDateDebut());
+                        statement.setObject(2, reservation.getDateFin());
+                        statement.setString(3, reservation.getPreferences());
+                        statement.setLong(4, reservation.getClient().getId());
+                        statement.setLong(5, reservation.getChambre().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return reservations.size();
+                    }
+                }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != reservations.size()) {
+            throw new IllegalStateException("Expected " + reservations.size() + " generated ids, got " + keys.size());
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            reservations.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+}
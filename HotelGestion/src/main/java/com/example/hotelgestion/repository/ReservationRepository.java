@@ -1,13 +1,25 @@
 package com.example.hotelgestion.repository;
 
+import com.example.hotelgestion.dto.ReservationStats;
+import com.example.hotelgestion.dto.ReservationSummary;
+import com.example.hotelgestion.dto.ReservationView;
 import com.example.hotelgestion.entity.Chambre;
 import com.example.hotelgestion.entity.Client;
 import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.entity.TypeChambre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
@@ -15,6 +27,93 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
 
     List<Reservation> findByChambre(Chambre chambre);
 
-    @Query("SELECT COUNT(r) FROM Reservation r WHERE r.client = ?1")
-    int countByClient(Client client);
+    @EntityGraph(attributePaths = {"client", "chambre"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Reservation> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Read-only fetch-join variants: associations come in the same select instead of one select per row
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.client LEFT JOIN FETCH r.chambre")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Reservation> findAllWithClientAndChambre();
+
+    // Filtered on the foreign key: a condition on the fetched client (r.client = :client) reads every reservation
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.client LEFT JOIN FETCH r.chambre WHERE r.client.id = :clientId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Reservation> findWithAssociationsByClientId(@Param("clientId") Long clientId);
+
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.client LEFT JOIN FETCH r.chambre WHERE r.chambre.id = :chambreId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Reservation> findWithAssociationsByChambreId(@Param("chambreId") Long chambreId);
+
+    // Seek page in id order, optionally restricted to reservations overlapping [from, to)
+    @Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.client LEFT JOIN FETCH r.chambre WHERE r.id > :afterId "
+            + "AND (:from IS NULL OR r.dateFin > :from) AND (:to IS NULL OR r.dateDebut < :to) ORDER BY r.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Reservation> findPage(@Param("afterId") Long afterId, @Param("from") LocalDate from,
+                               @Param("to") LocalDate to, Limit limit);
+
+    // Association-free reads: r.client.id / r.chambre.id resolve to the foreign key columns, no join
+    String VIEW = "SELECT new com.example.hotelgestion.dto.ReservationView("
+            + "r.id, r.dateDebut, r.dateFin, r.preferences, r.client.id, r.chambre.id) FROM Reservation r ";
+
+    @Query(VIEW)
+    List<ReservationView> findAllViews();
+
+    @Query(VIEW + "WHERE r.id = :id")
+    Optional<ReservationView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW + "WHERE r.client.id = :clientId")
+    List<ReservationView> findViewsByClientId(@Param("clientId") Long clientId);
+
+    @Query(VIEW + "WHERE r.chambre.id = :chambreId")
+    List<ReservationView> findViewsByChambreId(@Param("chambreId") Long chambreId);
+
+    @Query(VIEW + "WHERE r.id > :afterId "
+            + "AND (:from IS NULL OR r.dateFin > :from) AND (:to IS NULL OR r.dateDebut < :to) ORDER BY r.id")
+    List<ReservationView> findViewPage(@Param("afterId") Long afterId, @Param("from") LocalDate from,
+                                       @Param("to") LocalDate to, Limit limit);
+
+    @Query("SELECT new com.example.hotelgestion.dto.ReservationSummary(r.id, r.dateDebut, r.dateFin, "
+            + "c.id, c.nom, c.prenom, ch.id, ch.type, ch.prix) "
+            + "FROM Reservation r LEFT JOIN r.client c LEFT JOIN r.chambre ch WHERE r.id > :afterId "
+            + "AND (:from IS NULL OR r.dateFin > :from) AND (:to IS NULL OR r.dateDebut < :to) ORDER BY r.id")
+    List<ReservationSummary> findSummaryPage(@Param("afterId") Long afterId, @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to, Limit limit);
+
+    // Stay length in nights, computed by the database (DATEDIFF / TIMESTAMPDIFF depending on the dialect)
+    String NIGHTS = "((r.dateFin - r.dateDebut) by day)";
+
+    // Single aggregate row over the dated reservations of an optional client, room and room type.
+    // Bucket bounds match ReservationStats.BUCKET_LOWER_BOUNDS; the first bucket also takes legacy zero-night rows.
+    @Query("SELECT new com.example.hotelgestion.dto.ReservationStats(COUNT(r), AVG(" + NIGHTS + "), "
+            + "MIN(" + NIGHTS + "), MAX(" + NIGHTS + "), "
+            + "SUM(CASE WHEN " + NIGHTS + " <= 1 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN " + NIGHTS + " = 2 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN " + NIGHTS + " = 3 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN " + NIGHTS + " BETWEEN 4 AND 7 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN " + NIGHTS + " BETWEEN 8 AND 14 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN " + NIGHTS + " BETWEEN 15 AND 30 THEN 1 ELSE 0 END), "
+            + "SUM(CASE WHEN " + NIGHTS + " > 30 THEN 1 ELSE 0 END)) "
+            + "FROM Reservation r LEFT JOIN r.chambre ch "
+            + "WHERE r.dateDebut IS NOT NULL AND r.dateFin IS NOT NULL "
+            + "AND (:clientId IS NULL OR r.client.id = :clientId) "
+            + "AND (:chambreId IS NULL OR ch.id = :chambreId) "
+            + "AND (:type IS NULL OR ch.type = :type)")
+    ReservationStats computeStats(@Param("clientId") Long clientId, @Param("chambreId") Long chambreId,
+                                  @Param("type") TypeChambre type);
+
+    // client id, count, sum of nights and sum of squared nights per client, for reconciling ReservationStatsStore
+    @Query("SELECT r.client.id, COUNT(r), SUM(" + NIGHTS + "), SUM(" + NIGHTS + " * " + NIGHTS + ") FROM Reservation r "
+            + "WHERE r.dateDebut IS NOT NULL AND r.dateFin IS NOT NULL GROUP BY r.client.id")
+    List<Object[]> sumNightsByClient();
+
+    // id, client id, dateDebut, dateFin of every dated reservation, used to (re)build ReservationStatsStore
+    @Query("SELECT r.id, r.client.id, r.dateDebut, r.dateFin FROM Reservation r "
+            + "WHERE r.dateDebut IS NOT NULL AND r.dateFin IS NOT NULL")
+    List<Object[]> findAllStays();
+
+    // id, chambre id, dateDebut, dateFin of every dated reservation, used to build the room availability index
+    @Query("SELECT r.id, r.chambre.id, r.dateDebut, r.dateFin FROM Reservation r "
+            + "WHERE r.chambre IS NOT NULL AND r.dateDebut IS NOT NULL AND r.dateFin IS NOT NULL")
+    List<Object[]> findAllBookings();
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.example.hotelgestion.repository;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.entity.TypeChambre;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reservations with their client and chambre read row by row from a JDBC cursor, for responses written while
+ * they are read. Rows are mapped to new detached entities outside any persistence context, so memory does not grow
+ * with the number of rows. On MySQL this read alone uses Connector/J row streaming (fetch size
+ * {@link Integer#MIN_VALUE}) rather than {@code useCursorFetch=true} on the URL, which would turn every other
+ * statement into a server-side prepared statement. The stream holds a connection until it is closed, and on MySQL
+ * that connection runs nothing else meanwhile.
+ */
+@Repository
+public class ReservationStreamRepository {
+
+    private static final int FETCH_SIZE = 500;
+    // Connector/J streams a forward-only, read-only result one row at a time with this fetch size
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final String SELECT = "SELECT r.id, r.date_debut, r.date_fin, r.preferences, "
+            + "c.id, c.nom, c.prenom, c.email, c.telephone, ch.id, ch.type, ch.prix, ch.disponible "
+            + "FROM reservation r LEFT JOIN client c ON c.id = r.client_id LEFT JOIN chambre ch ON ch.id = r.chambre_id "
+            + "WHERE r.id > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReservationStreamRepository(DataSource dataSource, @Value("${spring.datasource.url:}") String url) {
+        // Own template: the fetch size must not apply to the application's other queries
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(url.startsWith("jdbc:mysql:") ? MYSQL_STREAMING_FETCH_SIZE : FETCH_SIZE);
+    }
+
+    // In id order after afterId, optionally overlapping [from, to); limit <= 0 means no limit
+    public Stream<Reservation> streamAfter(long afterId, LocalDate from, LocalDate to, int limit) {
+        StringBuilder sql = new StringBuilder(SELECT);
+        List<Object> arguments = new ArrayList<>();
+        arguments.add(afterId);
+        if (from != null) {
+            sql.append(" AND r.date_fin > ?");
+            arguments.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND r.date_debut < ?");
+            arguments.add(Date.valueOf(to));
+        }
+        sql.append(" ORDER BY r.id");
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            arguments.add(limit);
+        }
+        return jdbcTemplate.queryForStream(sql.toString(), (rs, rowNum) -> mapRow(rs), arguments.toArray());
+    }
+
+    private static Reservation mapRow(ResultSet rs) throws SQLException {
+        Reservation reservation = new Reservation();
+        reservation.setId(rs.getLong(1));
+        reservation.setDateDebut(toLocalDate(rs.getDate(2)));
+        reservation.setDateFin(toLocalDate(rs.getDate(3)));
+        reservation.setPreferences(rs.getString(4));
+        long clientId = rs.getLong(5);
+        if (!rs.wasNull()) {
+            Client client = new Client();
+            client.setId(clientId);
+            client.setNom(rs.getString(6));
+            client.setPrenom(rs.getString(7));
+            client.setEmail(rs.getString(8));
+            client.setTelephone(rs.getString(9));
+            reservation.setClient(client);
+        }
+        long chambreId = rs.getLong(10);
+        if (!rs.wasNull()) {
+            Chambre chambre = new Chambre();
+            chambre.setId(chambreId);
+            String type = rs.getString(11);
+            chambre.setType(type != null ? TypeChambre.valueOf(type) : null);
+            chambre.setPrix(rs.getObject(12, Double.class));
+            chambre.setDisponible(rs.getObject(13, Boolean.class));
+            reservation.setChambre(chambre);
+        }
+        return reservation;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.hotelgestion.service;
 
 import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.pagination.CursorPage;
+import com.example.hotelgestion.pagination.PageCursor;
 import com.example.hotelgestion.repository.ClientRepository;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -18,12 +21,19 @@ public class ClientService {
         return clientRepository.save(client);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public List<Client> obtenirTousLesClients() {
         return clientRepository.findAll();
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public CursorPage<Client> obtenirPageDeClients(String cursor, Integer pageSize) {
+        int size = PageCursor.pageSize(pageSize);
+        List<Client> rows = clientRepository.findByIdGreaterThanOrderByIdAsc(PageCursor.decode(cursor), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Client::getId);
+    }
+
+    @Transactional(readOnly = true)
     public Client obtenirClientParId(Long id) {
         return clientRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Client non trouvé"));
@@ -0,0 +1,77 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on Client and Chambre that evicts the cached lookup whenever a row is created, updated or
+ * deleted, whichever service or repository did it (ClientService.creerClient/supprimerClient, room updates).
+ * The entry is evicted right away and again once the transaction completes, so a reader that cached the
+ * old row before the commit does not keep it until the TTL. The reservation versions move too, since both
+ * entities are embedded in reservation responses, and room changes reach the room search once committed.
+ * Instantiated by Hibernate through Spring.
+ */
+public class ReferenceDataCacheListener {
+
+    private final CacheManager cacheManager;
+    private final ReservationVersions reservationVersions;
+    // Absent from the JPA test slices
+    private final ObjectProvider<RoomOccupancyIndex> roomOccupancyIndex;
+
+    public ReferenceDataCacheListener(CacheManager cacheManager, ReservationVersions reservationVersions,
+                                      ObjectProvider<RoomOccupancyIndex> roomOccupancyIndex) {
+        this.cacheManager = cacheManager;
+        this.reservationVersions = reservationVersions;
+        this.roomOccupancyIndex = roomOccupancyIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void saved(Object entity) {
+        evict(entity);
+        if (entity instanceof Chambre chambre) {
+            roomOccupancyIndex.ifAvailable(index -> index.roomSaved(chambre));
+        }
+    }
+
+    @PostRemove
+    public void removed(Object entity) {
+        evict(entity);
+        if (entity instanceof Chambre chambre) {
+            roomOccupancyIndex.ifAvailable(index -> index.roomRemoved(chambre.getId()));
+        }
+    }
+
+    private void evict(Object entity) {
+        if (entity instanceof Client client) {
+            evict(ReferenceLookupService.CLIENTS, client.getId());
+        } else if (entity instanceof Chambre chambre) {
+            evict(ReferenceLookupService.CHAMBRES, chambre.getId());
+        }
+        reservationVersions.referenceDataChanged();
+    }
+
+    private void evict(String cacheName, Long id) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || id == null) {
+            return;
+        }
+        cache.evict(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(id);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.repository.ChambreRepository;
+import com.example.hotelgestion.repository.ClientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Client and Chambre lookups for the reservation write path, served from the in-process "clients" and
+ * "chambres" caches (Caffeine, bounded by size and TTL, see spring.cache.caffeine.spec) instead of a
+ * findById round trip per write. Unknown ids are not cached. Entries are evicted by {@link ReferenceDataCacheListener}.
+ */
+@Service
+public class ReferenceLookupService {
+
+    public static final String CLIENTS = "clients";
+    public static final String CHAMBRES = "chambres";
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ChambreRepository chambreRepository;
+
+    @Cacheable(cacheNames = CLIENTS, unless = "#result == null")
+    public Optional<Client> findClient(Long id) {
+        return clientRepository.findById(id);
+    }
+
+    @Cacheable(cacheNames = CHAMBRES, unless = "#result == null")
+    public Optional<Chambre> findChambre(Long id) {
+        return chambreRepository.findById(id);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.dto.ReservationResult;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.exception.ReservationConflictException;
+import com.example.hotelgestion.repository.ReservationBatchRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bulk reservation import shared by every protocol. Items are validated, checked against the room index
+ * and inserted chunk by chunk, each chunk as one JDBC batch in its own transaction, so a large import costs
+ * a few round trips per chunk and a failing chunk does not undo the ones before it.
+ * Every submitted item gets a {@link ReservationResult}, in submission order.
+ */
+@Service
+public class ReservationBulkService {
+
+    private static final Logger LOGGER = Logger.getLogger(ReservationBulkService.class.getName());
+
+    private final ReservationBatchRepository reservationBatchRepository;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final ReservationStatsStore reservationStatsStore;
+    private final ReferenceLookupService referenceLookupService;
+    private final ReservationVersions reservationVersions;
+    private final ReservationEventBus reservationEventBus;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ReservationBulkService(ReservationBatchRepository reservationBatchRepository,
+                                  RoomAvailabilityIndex roomAvailabilityIndex,
+                                  ReservationStatsStore reservationStatsStore,
+                                  ReferenceLookupService referenceLookupService,
+                                  ReservationVersions reservationVersions,
+                                  ReservationEventBus reservationEventBus,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${reservation.bulk.chunk-size:500}") int chunkSize) {
+        this.reservationBatchRepository = reservationBatchRepository;
+        this.roomAvailabilityIndex = roomAvailabilityIndex;
+        this.reservationStatsStore = reservationStatsStore;
+        this.referenceLookupService = referenceLookupService;
+        this.reservationVersions = reservationVersions;
+        this.reservationEventBus = reservationEventBus;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    // Bulk item built from ids only, for protocols that do not send client/chambre objects
+    public static Reservation newReservation(LocalDate dateDebut, LocalDate dateFin, Long clientId, Long chambreId,
+                                             String preferences) {
+        Reservation reservation = new Reservation();
+        reservation.setDateDebut(dateDebut);
+        reservation.setDateFin(dateFin);
+        reservation.setPreferences(preferences);
+        Client client = new Client();
+        client.setId(clientId);
+        reservation.setClient(client);
+        Chambre chambre = new Chambre();
+        chambre.setId(chambreId);
+        reservation.setChambre(chambre);
+        return reservation;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // Only client.id and chambre.id of each reservation are read; the rows are resolved here
+    public List<ReservationResult> createReservations(List<Reservation> reservations) {
+        ReservationResult[] results = new ReservationResult[reservations.size()];
+        for (int from = 0; from < reservations.size(); from += chunkSize) {
+            createChunk(reservations.subList(from, Math.min(reservations.size(), from + chunkSize)), from, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private void createChunk(List<Reservation> chunk, int offset, ReservationResult[] results) {
+        List<Reservation> valid = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String error = resolve(chunk.get(i));
+            if (error != null) {
+                results[offset + i] = ReservationResult.rejected(offset + i, ReservationResult.Status.INVALID, error);
+            } else {
+                valid.add(chunk.get(i));
+                positions.add(offset + i);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        List<Integer> conflicts;
+        try {
+            conflicts = transactionTemplate.execute(status -> {
+                List<Integer> refused = roomAvailabilityIndex.bookAll(valid, reservationBatchRepository::insertAll);
+                List<Reservation> inserted = new ArrayList<>(valid);
+                for (int i = refused.size() - 1; i >= 0; i--) {
+                    inserted.remove((int) refused.get(i));
+                }
+                reservationStatsStore.recordAll(inserted);
+                reservationVersions.reservationsChanged(inserted.stream().map(Reservation::getId).toList());
+                reservationEventBus.createdAll(inserted);
+                return refused;
+            });
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Bulk insert of " + valid.size() + " reservations failed", e);
+            for (int i = 0; i < valid.size(); i++) {
+                results[positions.get(i)] = ReservationResult.rejected(positions.get(i), ReservationResult.Status.FAILED, e.getMessage());
+            }
+            return;
+        }
+
+        for (int refused : conflicts) {
+            Reservation reservation = valid.get(refused);
+            int position = positions.get(refused);
+            results[position] = ReservationResult.rejected(position, ReservationResult.Status.CONFLICT,
+                    new ReservationConflictException(reservation.getChambre().getId(), reservation.getDateDebut(),
+                            reservation.getDateFin()).getMessage());
+        }
+        for (int i = 0; i < valid.size(); i++) {
+            if (results[positions.get(i)] == null) {
+                results[positions.get(i)] = ReservationResult.created(positions.get(i), valid.get(i).getId());
+            }
+        }
+    }
+
+    // Checks one item and swaps its client/chambre for the loaded rows; returns the reason it is invalid, if any
+    private String resolve(Reservation reservation) {
+        if (reservation.getDateDebut() == null || reservation.getDateFin() == null) {
+            return "dateDebut and dateFin are required";
+        }
+        if (!reservation.getDateFin().isAfter(reservation.getDateDebut())) {
+            return "dateFin must be after dateDebut";
+        }
+        if (reservation.getClient() == null || reservation.getClient().getId() == null) {
+            return "client is required";
+        }
+        if (reservation.getChambre() == null || reservation.getChambre().getId() == null) {
+            return "chambre is required";
+        }
+        Optional<Client> client = referenceLookupService.findClient(reservation.getClient().getId());
+        if (client.isEmpty()) {
+            return "Client " + reservation.getClient().getId() + " not found";
+        }
+        Optional<Chambre> chambre = referenceLookupService.findChambre(reservation.getChambre().getId());
+        if (chambre.isEmpty()) {
+            return "Chambre " + reservation.getChambre().getId() + " not found";
+        }
+        reservation.setClient(client.get());
+        reservation.setChambre(chambre.get());
+        return null;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.dto.ReservationEvent;
+import com.example.hotelgestion.dto.ReservationView;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.exception.BulkheadFullException;
+import com.example.hotelgestion.exception.SlowConsumerException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process change feed of committed reservation writes, behind the gRPC watchReservations stream and the GraphQL
+ * reservationChanges subscription. Events are published after commit, in commit order, into a bounded buffer per
+ * subscriber; each subscriber is drained on a dispatcher thread as fast as its transport accepts, so writers never
+ * wait on subscribers. A subscriber whose buffer overflows is evicted with a {@link SlowConsumerException}: it
+ * reloads and subscribes again instead of slowing everyone down or holding unbounded memory. So is a subscriber
+ * whose drain the dispatcher cannot take, which only happens once it is shut down or saturated.
+ */
+@Component
+public class ReservationEventBus {
+
+    private static final Logger LOGGER = Logger.getLogger(ReservationEventBus.class.getName());
+
+    /** Transport side of a subscription; the bus calls it from one thread at a time. */
+    public interface Sink {
+
+        // Whether the transport takes another event now (gRPC isReady, Reactor demand)
+        boolean ready();
+
+        void send(ReservationEvent event);
+
+        // Called once, instead of any further send
+        void evicted(SlowConsumerException e);
+    }
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher;
+    private final Counter evictions;
+    // A lock rather than synchronized, so virtual threads committing writes are not pinned while they wait
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private long sequence;
+
+    public ReservationEventBus(@Value("${reservation.events.buffer-size:1024}") int bufferSize,
+                               @Value("${reservation.events.max-subscribers:256}") int maxSubscribers,
+                               MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        // A subscription has at most one drain queued or running, so one thread per subscriber is enough; the queue
+        // holds the drains submitted while a thread is still finishing its previous one
+        AtomicInteger threads = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxSubscribers, maxSubscribers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxSubscribers), runnable -> {
+            Thread thread = new Thread(runnable, "reservation-events-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        this.dispatcher = executor;
+        Gauge.builder("reservation.events.subscribers", subscriptions, Set::size)
+                .description("Open change feed subscriptions")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("reservation.events.evictions")
+                .description("Change feed subscribers disconnected for falling behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a subscription delivering events committed from now on. Throws {@link BulkheadFullException} when
+     * reservation.events.max-subscribers are already open.
+     */
+    public Subscription subscribe(Sink sink) {
+        Subscription subscription = new Subscription(sink);
+        subscriptions.add(subscription);
+        if (subscriptions.size() > maxSubscribers) {
+            subscriptions.remove(subscription);
+            throw new BulkheadFullException("change feed", maxSubscribers + " subscribers");
+        }
+        return subscription;
+    }
+
+    public void created(Reservation reservation) {
+        publish(ReservationEvent.Type.CREATED, reservation.getId(), ReservationView.of(reservation));
+    }
+
+    public void updated(Reservation reservation) {
+        publish(ReservationEvent.Type.UPDATED, reservation.getId(), ReservationView.of(reservation));
+    }
+
+    public void deleted(Long id) {
+        publish(ReservationEvent.Type.DELETED, id, null);
+    }
+
+    public void createdAll(Collection<Reservation> reservations) {
+        List<ReservationView> views = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            views.add(ReservationView.of(reservation));
+        }
+        afterCommit(() -> {
+            for (ReservationView view : views) {
+                dispatch(ReservationEvent.Type.CREATED, view.id(), view);
+            }
+        });
+    }
+
+    private void publish(ReservationEvent.Type type, Long id, ReservationView reservation) {
+        afterCommit(() -> dispatch(type, id, reservation));
+    }
+
+    // Serialized so every subscriber sees events in the same order as their sequence numbers
+    private void dispatch(ReservationEvent.Type type, Long id, ReservationView reservation) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        dispatchLock.lock();
+        try {
+            ReservationEvent event = new ReservationEvent(++sequence, type, id, reservation);
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(event);
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+    }
+
+    private static void afterCommit(Runnable dispatch) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch.run();
+            }
+        });
+    }
+
+    public final class Subscription {
+
+        private final Sink sink;
+        private final ArrayBlockingQueue<ReservationEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+        // Drain requests; only the caller moving it from 0 drains (or submits the drain), the others make it loop
+        // once more: a burst of events submits one drain, which runs until no request is left
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile boolean closed;
+        private volatile SlowConsumerException eviction;
+
+        private Subscription(Sink sink) {
+            this.sink = sink;
+        }
+
+        /** Sends buffered events while the sink is ready; transports call it when they become ready again. */
+        public void drain() {
+            if (pending.getAndIncrement() == 0) {
+                drainLoop();
+            }
+        }
+
+        // Run by the caller that moved pending from 0
+        private void drainLoop() {
+            do {
+                try {
+                    if (eviction != null) {
+                        if (!closed) {
+                            closed = true;
+                            buffer.clear();
+                            sink.evicted(eviction);
+                        }
+                    } else {
+                        while (!closed && sink.ready()) {
+                            ReservationEvent event = buffer.poll();
+                            if (event == null) {
+                                break;
+                            }
+                            sink.send(event);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Change feed delivery failed, closing the subscription", e);
+                    cancel();
+                }
+            } while (pending.decrementAndGet() != 0);
+        }
+
+        /** Stops delivery; transports call it when the client goes away. */
+        public void cancel() {
+            closed = true;
+            subscriptions.remove(this);
+            buffer.clear();
+        }
+
+        private void offer(ReservationEvent event) {
+            if (!buffer.offer(event)) {
+                evict(new SlowConsumerException(bufferSize));
+            }
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    dispatcher.execute(this::drainLoop);
+                } catch (RejectedExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Change feed dispatcher refused a drain, disconnecting the subscriber");
+                    evict(new SlowConsumerException("Change feed is overloaded and the subscriber was disconnected; "
+                            + "reload and subscribe again"));
+                    // This caller owns the drain now: it only tells the sink it is evicted
+                    drainLoop();
+                }
+            }
+        }
+
+        // Called under the dispatch lock
+        private void evict(SlowConsumerException reason) {
+            if (eviction == null) {
+                subscriptions.remove(this);
+                eviction = reason;
+                evictions.increment();
+            }
+        }
+    }
+}
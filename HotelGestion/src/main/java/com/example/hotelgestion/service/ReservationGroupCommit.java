@@ -0,0 +1,265 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.exception.BulkheadFullException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Optional group commit of reservation writes (reservation.group-commit.enabled). Request threads queue their
+ * write and wait; a single writer thread runs up to max-batch-size queued writes, or whatever arrived within
+ * max-delay-ms of the first one, in one transaction, so concurrent writes share one commit (one fsync on MySQL).
+ * A write failing before the database refused anything (conflict, validation) only fails its caller: its unflushed
+ * changes are dropped and the batch goes on. When the database refuses a write, or the commit fails, the batch is
+ * rolled back: that write's caller gets its error and the other writes are run again, each in its own transaction.
+ * A caller waits at most timeout-ms; a write given up before the writer reached it is not run. Once the writer stops
+ * (shutdown, or it died) new writes are refused and the queued ones fail.
+ */
+@Component
+public class ReservationGroupCommit {
+
+    private static final Logger LOGGER = Logger.getLogger(ReservationGroupCommit.class.getName());
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long timeoutMs;
+    private final BlockingQueue<Write<?>> queue;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final DistributionSummary batchSize;
+    private final Timer batchCommit;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public ReservationGroupCommit(@Value("${reservation.group-commit.enabled:false}") boolean enabled,
+                                  @Value("${reservation.group-commit.max-batch-size:64}") int maxBatchSize,
+                                  @Value("${reservation.group-commit.max-delay-ms:5}") long maxDelayMs,
+                                  @Value("${reservation.group-commit.queue-capacity:4096}") int queueCapacity,
+                                  @Value("${reservation.group-commit.timeout-ms:10000}") long timeoutMs,
+                                  PlatformTransactionManager transactionManager,
+                                  EntityManager entityManager,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMs));
+        this.timeoutMs = Math.max(1, timeoutMs);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.batchSize = DistributionSummary.builder("reservation.group_commit.batch.size")
+                .description("Reservation writes committed together")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchCommit = Timer.builder("reservation.group_commit.batch.duration")
+                .description("Time to run and commit one batch of reservation writes")
+                .register(meterRegistry);
+        Gauge.builder("reservation.group_commit.queue.depth", queue, BlockingQueue::size)
+                .description("Reservation writes waiting for the group commit writer")
+                .register(meterRegistry);
+        this.writer = new Thread(this::run, "reservation-group-commit");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues {@code write} for the next batch and waits for its commit; returns its result or rethrows its
+     * exception. {@code write} may run twice (the second time alone) and must start from the caller's state
+     * each time. Throws {@link BulkheadFullException} when queue-capacity writes are already waiting, and
+     * IllegalStateException when the writer has stopped or the write was not committed within timeout-ms.
+     */
+    public <T> T execute(Supplier<T> write) {
+        Write<T> queued = new Write<>(write);
+        if (!running) {
+            throw stopped();
+        }
+        if (!queue.offer(queued)) {
+            throw new BulkheadFullException("reservation write", "group commit queue full");
+        }
+        // The writer fails what it finds queued once it stopped; a write queued after that is taken back here
+        if (!running && queue.remove(queued)) {
+            throw stopped();
+        }
+        try {
+            return queued.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Not run if the writer has not reached it yet; otherwise it may still be committed
+            queued.result.completeExceptionally(e);
+            throw new IllegalStateException("Reservation write not confirmed within " + timeoutMs
+                    + " ms; it may still be committed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued.result.completeExceptionally(e);
+            throw new IllegalStateException("Interrupted while waiting for the reservation write", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        writer.interrupt();
+    }
+
+    private void run() {
+        List<Write<?>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running) {
+                try {
+                    batch.add(queue.take());
+                    long deadline = System.nanoTime() + maxDelayNanos;
+                    while (batch.size() < maxBatchSize) {
+                        Write<?> next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    // Callers that gave up waiting were told their write failed
+                    batch.removeIf(write -> write.result.isDone());
+                    if (!batch.isEmpty()) {
+                        commit(batch);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    batch.forEach(write -> write.result.completeExceptionally(stopped()));
+                    break;
+                } catch (Throwable e) {
+                    LOGGER.log(Level.SEVERE, "Group commit writer failed", e);
+                    batch.forEach(write -> write.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        } finally {
+            running = false;
+            Write<?> left;
+            while ((left = queue.poll()) != null) {
+                left.result.completeExceptionally(stopped());
+            }
+        }
+    }
+
+    private static IllegalStateException stopped() {
+        return new IllegalStateException("Reservation group commit is stopped");
+    }
+
+    private void commit(List<Write<?>> batch) {
+        batchSize.record(batch.size());
+        long start = System.nanoTime();
+        Write<?> failed = null;
+        boolean committed;
+        try {
+            failed = transactionTemplate.execute(status -> {
+                for (Write<?> write : batch) {
+                    // Earlier writes are sent first, so that clearing the persistence context only drops this one's
+                    // changes (e.g. a reservation it modified before a conflict was found)
+                    entityManager.flush();
+                    if (!write.run()) {
+                        if (status.isRollbackOnly()) {
+                            // The database refused it: roll back without an UnexpectedRollbackException
+                            status.setRollbackOnly();
+                            return write;
+                        }
+                        entityManager.clear();
+                    }
+                }
+                return null;
+            });
+            committed = failed == null;
+        } catch (Throwable e) {
+            LOGGER.log(Level.WARNING, "Group commit of " + batch.size() + " reservation writes failed, "
+                    + "running them one by one", e);
+            committed = false;
+        }
+        if (!committed) {
+            // The failed write keeps its own error; the others were rolled back with it (or never ran)
+            for (Write<?> write : batch) {
+                if (write != failed) {
+                    runAlone(write);
+                }
+            }
+        }
+        batchCommit.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batch.forEach(Write::complete);
+    }
+
+    private void runAlone(Write<?> write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!write.run()) {
+                    status.setRollbackOnly();
+                }
+            });
+        } catch (Throwable e) {
+            if (write.failure == null) {
+                write.failure = e;
+            }
+        }
+    }
+
+    private static final class Write<T> {
+
+        private final Supplier<T> operation;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private Throwable failure;
+
+        private Write(Supplier<T> operation) {
+            this.operation = operation;
+        }
+
+        // Keeps the outcome for the caller; false when the write threw
+        private boolean run() {
+            value = null;
+            failure = null;
+            try {
+                value = operation.get();
+                return true;
+            } catch (Throwable e) {
+                failure = e;
+                return false;
+            }
+        }
+
+        private void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+    }
+}
@@ -1,78 +1,207 @@
 package com.example.hotelgestion.service;
 
 
+import com.example.hotelgestion.dto.ReservationStats;
+import com.example.hotelgestion.dto.ReservationSummary;
+import com.example.hotelgestion.dto.ReservationTotals;
+import com.example.hotelgestion.dto.ReservationView;
+import com.example.hotelgestion.entity.Chambre;
 import com.example.hotelgestion.entity.Client;
 import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.pagination.CursorPage;
+import com.example.hotelgestion.pagination.PageCursor;
 import com.example.hotelgestion.repository.ReservationRepository;
-import jakarta.transaction.Transactional;
+import com.example.hotelgestion.repository.ReservationStreamRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class ReservationService {
     private final ReservationRepository reservationRepository;
+    private final RoomAvailabilityIndex roomAvailabilityIndex;
+    private final ReservationStatsStore reservationStatsStore;
+    private final ReservationVersions reservationVersions;
+    private final ReservationStreamRepository reservationStreamRepository;
+    private final ReservationEventBus reservationEventBus;
+    private final ReservationGroupCommit reservationGroupCommit;
+    private final TransactionTemplate transactionTemplate;
 
 
-    public ReservationService(ReservationRepository reservationRepository) {
+    public ReservationService(ReservationRepository reservationRepository, RoomAvailabilityIndex roomAvailabilityIndex,
+                              ReservationStatsStore reservationStatsStore, ReservationVersions reservationVersions,
+                              ReservationStreamRepository reservationStreamRepository,
+                              ReservationEventBus reservationEventBus, ReservationGroupCommit reservationGroupCommit,
+                              PlatformTransactionManager transactionManager) {
         this.reservationRepository = reservationRepository;
+        this.reservationStreamRepository = reservationStreamRepository;
+        this.reservationEventBus = reservationEventBus;
+        this.reservationGroupCommit = reservationGroupCommit;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.roomAvailabilityIndex = roomAvailabilityIndex;
+        this.reservationStatsStore = reservationStatsStore;
+        this.reservationVersions = reservationVersions;
     }
 
-    @Transactional
+    // Also used to save an already persisted reservation; the room index then treats it as an update
     public Reservation createReservation(Reservation reservation) {
-        return reservationRepository.save(reservation);
+        Long id = reservation.getId();
+        return write(() -> {
+            // Hibernate sets the id on save; a write run again after its batch rolled back starts over
+            reservation.setId(id);
+            return saveReservation(reservation);
+        });
     }
 
-    @Transactional
+    private Reservation saveReservation(Reservation reservation) {
+        boolean created = reservation.getId() == null;
+        Reservation saved = roomAvailabilityIndex.book(reservation, () -> reservationRepository.save(reservation));
+        reservationStatsStore.record(saved);
+        reservationVersions.reservationChanged(saved.getId());
+        if (created) {
+            reservationEventBus.created(saved);
+        } else {
+            reservationEventBus.updated(saved);
+        }
+        return saved;
+    }
+
+    // Read-only transactions: Hibernate skips snapshots, dirty checking and the flush at commit
+    @Transactional(readOnly = true)
     public Optional<Reservation> getReservation(Long id) {
         return reservationRepository.findById(id);
     }
-    @Transactional
+    @Transactional(readOnly = true)
     public List<Reservation> obtenirToutesLesReservations() {
-        return reservationRepository.findAll();
+        return reservationRepository.findAllWithClientAndChambre();
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public List<Reservation> getReservationsByClient(Client client) {
+        return reservationRepository.findWithAssociationsByClientId(client.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Reservation> getReservationsByChambre(Chambre chambre) {
+        return reservationRepository.findWithAssociationsByChambreId(chambre.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ReservationSummary> getReservationSummaryPage(String cursor, Integer pageSize, LocalDate from, LocalDate to) {
+        int size = PageCursor.pageSize(pageSize);
+        List<ReservationSummary> rows = reservationRepository.findSummaryPage(PageCursor.decode(cursor), from, to, Limit.of(size + 1));
+        return CursorPage.of(rows, size, ReservationSummary::id);
+    }
+
+    // One keyset page in id order, used by streaming reads so no call ever loads the whole table
+    @Transactional(readOnly = true)
+    public List<Reservation> getReservationsAfter(Long afterId, int limit) {
+        return reservationRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Reservation> getReservationPage(String cursor, Integer pageSize, LocalDate from, LocalDate to) {
+        int size = PageCursor.pageSize(pageSize);
+        List<Reservation> rows = reservationRepository.findPage(PageCursor.decode(cursor), from, to, Limit.of(size + 1));
+        return CursorPage.of(rows, size, Reservation::getId);
+    }
+
+    /**
+     * Reservations after the cursor in id order, read from a database cursor as the stream is consumed; at most
+     * {@code limit} rows, or all of them when limit is null or not positive. Not transactional: the stream holds its
+     * own connection, and the caller must close it.
+     */
+    public Stream<Reservation> streamReservations(String cursor, Integer limit, LocalDate from, LocalDate to) {
+        return reservationStreamRepository.streamAfter(PageCursor.decode(cursor), from, to, limit != null ? limit : 0);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ReservationView> getReservationViewPage(String cursor, Integer pageSize, LocalDate from, LocalDate to) {
+        int size = PageCursor.pageSize(pageSize);
+        List<ReservationView> rows = reservationRepository.findViewPage(PageCursor.decode(cursor), from, to, Limit.of(size + 1));
+        return CursorPage.of(rows, size, ReservationView::id);
+    }
+
+    // Client and chambre are kept when not set on updatedReservation; a new chambre is checked for overlaps like the dates
     public Reservation updateReservation(Long id, Reservation updatedReservation) {
+        return write(() -> applyUpdate(id, updatedReservation));
+    }
+
+    private Reservation applyUpdate(Long id, Reservation updatedReservation) {
         Optional<Reservation> existingReservation = reservationRepository.findById(id);
         if (existingReservation.isPresent()) {
             Reservation reservation = existingReservation.get();
+            if (updatedReservation.getClient() != null) {
+                reservation.setClient(updatedReservation.getClient());
+            }
+            if (updatedReservation.getChambre() != null) {
+                reservation.setChambre(updatedReservation.getChambre());
+            }
             reservation.setDateDebut(updatedReservation.getDateDebut());
             reservation.setDateFin(updatedReservation.getDateFin());
             reservation.setPreferences(updatedReservation.getPreferences());
-            return reservationRepository.save(reservation);
+            Reservation saved = roomAvailabilityIndex.book(reservation, () -> reservationRepository.save(reservation));
+            reservationStatsStore.record(saved);
+            reservationVersions.reservationChanged(id);
+            reservationEventBus.updated(saved);
+            return saved;
         }
         return null;
     }
 
+    // Writes share a group commit when it is enabled, unless the caller already runs a transaction
+    private <T> T write(Supplier<T> write) {
+        if (reservationGroupCommit.isEnabled() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return reservationGroupCommit.execute(write);
+        }
+        return transactionTemplate.execute(status -> write.get());
+    }
+
     @Transactional
     public boolean deleteReservation(Long id) {
         Optional<Reservation> existingReservation = reservationRepository.findById(id);
         if (existingReservation.isPresent()) {
             reservationRepository.deleteById(id);
+            roomAvailabilityIndex.release(id);
+            reservationStatsStore.remove(id);
+            reservationVersions.reservationDeleted(id);
+            reservationEventBus.deleted(id);
             return true;
         }
         return false;
     }
 
-    // Calculate average duration of all reservations
-    public double getAverageDuration() {
-        List<Reservation> reservations = reservationRepository.findAll();
-        double totalDuration = 0;
-        for (Reservation reservation : reservations) {
-            totalDuration += reservation.getDateFin().toEpochDay() - reservation.getDateDebut().toEpochDay();
-        }
-        return reservations.isEmpty() ? 0 : totalDuration / reservations.size();
+    // count / average / min / max nights and the nights histogram in one aggregate query; all filters are optional
+    @Transactional(readOnly = true)
+    public ReservationStats getReservationStats(Long clientId, Long chambreId, TypeChambre type) {
+        return reservationRepository.computeStats(clientId, chambreId, type);
     }
 
-    // Calculate average duration of reservations for a specific client
-    public double getAverageDurationByClient(Client client) {
-        List<Reservation> reservations = reservationRepository.findByClient(client);
-        double totalDuration = 0;
-        for (Reservation reservation : reservations) {
-            totalDuration += reservation.getDateFin().toEpochDay() - reservation.getDateDebut().toEpochDay();
-        }
-        return reservations.isEmpty() ? 0 : totalDuration / reservations.size();
+    // Version tokens for conditional reads; taken before the data is read
+    public String getListVersion() {
+        return reservationVersions.listVersion();
+    }
+
+    public String getReservationVersion(Long id) {
+        return reservationVersions.reservationVersion(id);
+    }
+
+    // Global (clientId == null) or per-client running totals, read from memory in constant time
+    public ReservationTotals getReservationTotals(Long clientId) {
+        return clientId == null ? reservationStatsStore.totals() : reservationStatsStore.totals(clientId);
+    }
+
+    public ReservationStatsStore.ConsistencyReport checkReservationTotals() {
+        return reservationStatsStore.check();
     }
-}
\ No newline at end of file
+}
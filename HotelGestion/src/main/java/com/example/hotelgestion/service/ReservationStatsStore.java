@@ -0,0 +1,290 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.dto.ReservationTotals;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.repository.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Global and per-client reservation totals (count, sum of nights, sum of squared nights) kept current
+ * in memory, so stats reads are constant time. Each committed write swaps the reservation's contribution
+ * in a per-reservation map and applies the difference to LongAdder accumulators. A scheduled pass compares
+ * the accumulators with the database aggregates and rebuilds them from the table when they drifted.
+ */
+@Component
+public class ReservationStatsStore {
+
+    private static final Logger LOGGER = Logger.getLogger(ReservationStatsStore.class.getName());
+    private static final int REBUILD_ATTEMPTS = 3;
+
+    record Stay(Long clientId, long nights) {
+    }
+
+    public record ConsistencyReport(boolean consistent, ReservationTotals expected, ReservationTotals actual,
+                                    int mismatchedClients) {
+    }
+
+    static final class Accumulator {
+        final LongAdder count = new LongAdder();
+        final LongAdder nights = new LongAdder();
+        final LongAdder squares = new LongAdder();
+
+        void add(long stayNights, int sign) {
+            count.add(sign);
+            nights.add(sign * stayNights);
+            squares.add(sign * stayNights * stayNights);
+        }
+
+        boolean matches(long expectedCount, long expectedNights, long expectedSquares) {
+            return count.sum() == expectedCount && nights.sum() == expectedNights && squares.sum() == expectedSquares;
+        }
+
+        // The three sums are read one after the other, so a concurrent write may be half visible
+        ReservationTotals totals() {
+            return ReservationTotals.of(count.sum(), nights.sum(), squares.sum());
+        }
+    }
+
+    private final ReservationRepository reservationRepository;
+    private final boolean checkOnly;
+    private final Map<Long, Stay> stays = new ConcurrentHashMap<>();
+    private final Map<Long, Accumulator> clients = new ConcurrentHashMap<>();
+    private final Accumulator global = new Accumulator();
+
+    // Reconciliation only trusts a database read when no write was pending or applied while it ran
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong();
+
+    private final Counter consistentPasses;
+    private final Counter correctedPasses;
+    private final Counter skippedPasses;
+
+    public ReservationStatsStore(ReservationRepository reservationRepository,
+                                 @Value("${reservation.stats.consistency-check:false}") boolean checkOnly,
+                                 MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.checkOnly = checkOnly;
+        this.consistentPasses = reconcileCounter(meterRegistry, "consistent");
+        this.correctedPasses = reconcileCounter(meterRegistry, checkOnly ? "drift" : "corrected");
+        this.skippedPasses = reconcileCounter(meterRegistry, "skipped");
+    }
+
+    private static Counter reconcileCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("reservation.stats.reconcile")
+                .description("Reconciliation passes of the in-memory reservation statistics")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    public ReservationTotals totals() {
+        return global.totals();
+    }
+
+    public ReservationTotals totals(Long clientId) {
+        Accumulator accumulator = clients.get(clientId);
+        return accumulator != null ? accumulator.totals() : ReservationTotals.of(0, 0, 0);
+    }
+
+    // Called with the saved reservation; its contribution is replaced once the transaction has committed
+    public void record(Reservation reservation) {
+        Stay stay = stayOf(reservation);
+        Long reservationId = reservation.getId();
+        afterCommit(() -> apply(reservationId, stay));
+    }
+
+    // Bulk variant of record, with a single transaction callback for the whole batch
+    public void recordAll(List<Reservation> reservations) {
+        Long[] reservationIds = new Long[reservations.size()];
+        Stay[] stays = new Stay[reservations.size()];
+        for (int i = 0; i < reservationIds.length; i++) {
+            reservationIds[i] = reservations.get(i).getId();
+            stays[i] = stayOf(reservations.get(i));
+        }
+        afterCommit(() -> {
+            for (int i = 0; i < reservationIds.length; i++) {
+                apply(reservationIds[i], stays[i]);
+            }
+        });
+    }
+
+    public void remove(Long reservationId) {
+        afterCommit(() -> apply(reservationId, null));
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        inFlight.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        update.run();
+                    }
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    // The map swap is atomic per reservation, so concurrent writes to the same reservation still net out
+    private void apply(Long reservationId, Stay next) {
+        Stay previous = next != null ? stays.put(reservationId, next) : stays.remove(reservationId);
+        if (previous != null) {
+            add(previous, -1);
+        }
+        if (next != null) {
+            add(next, 1);
+        }
+        version.incrementAndGet();
+    }
+
+    private void add(Stay stay, int sign) {
+        global.add(stay.nights(), sign);
+        if (stay.clientId() != null) {
+            clients.computeIfAbsent(stay.clientId(), id -> new Accumulator()).add(stay.nights(), sign);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${reservation.stats.reconcile-interval-ms:600000}",
+            fixedDelayString = "${reservation.stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        ConsistencyReport report = check();
+        if (report == null) {
+            skippedPasses.increment();
+            return;
+        }
+        if (report.consistent()) {
+            consistentPasses.increment();
+            return;
+        }
+        LOGGER.warning("Reservation statistics drifted from the database: expected " + report.expected()
+                + ", found " + report.actual() + " (" + report.mismatchedClients() + " clients differ)");
+        correctedPasses.increment();
+        if (!checkOnly && !rebuild()) {
+            LOGGER.warning("Could not rebuild reservation statistics while writes were in flight, retrying next pass");
+        }
+    }
+
+    /**
+     * Compares the accumulators with per-client aggregates recomputed by the database.
+     * Returns null when writes were in flight during the read, since the two sides cannot be compared then.
+     */
+    public ConsistencyReport check() {
+        long before = version.get();
+        if (inFlight.get() != 0) {
+            return null;
+        }
+        List<Object[]> rows = reservationRepository.sumNightsByClient();
+        if (inFlight.get() != 0 || version.get() != before) {
+            return null;
+        }
+
+        long count = 0;
+        long nights = 0;
+        long squares = 0;
+        int mismatchedClients = 0;
+        Set<Long> clientIds = new HashSet<>();
+        for (Object[] row : rows) {
+            long clientCount = ((Number) row[1]).longValue();
+            long clientNights = row[2] != null ? ((Number) row[2]).longValue() : 0;
+            long clientSquares = row[3] != null ? ((Number) row[3]).longValue() : 0;
+            count += clientCount;
+            nights += clientNights;
+            squares += clientSquares;
+            if (row[0] != null) {
+                clientIds.add((Long) row[0]);
+                Accumulator accumulator = clients.get((Long) row[0]);
+                if (accumulator == null || !accumulator.matches(clientCount, clientNights, clientSquares)) {
+                    mismatchedClients++;
+                }
+            }
+        }
+        for (Map.Entry<Long, Accumulator> entry : clients.entrySet()) {
+            if (!clientIds.contains(entry.getKey()) && !entry.getValue().matches(0, 0, 0)) {
+                mismatchedClients++;
+            }
+        }
+
+        boolean consistent = mismatchedClients == 0 && global.matches(count, nights, squares);
+        return new ConsistencyReport(consistent, ReservationTotals.of(count, nights, squares), global.totals(),
+                mismatchedClients);
+    }
+
+    // Replays the table into the store; a write racing the pass makes it retry from a fresh read
+    private boolean rebuild() {
+        for (int attempt = 0; attempt < REBUILD_ATTEMPTS; attempt++) {
+            long before = version.get();
+            if (inFlight.get() != 0) {
+                continue;
+            }
+            List<Object[]> rows = reservationRepository.findAllStays();
+            if (inFlight.get() != 0 || version.get() != before) {
+                continue;
+            }
+            Map<Long, Stay> expected = new HashMap<>(rows.size() * 4 / 3 + 1);
+            for (Object[] row : rows) {
+                expected.put((Long) row[0], stayOf((Long) row[1], (LocalDate) row[2], (LocalDate) row[3]));
+            }
+            long applied = 0;
+            for (Map.Entry<Long, Stay> entry : expected.entrySet()) {
+                if (!Objects.equals(stays.get(entry.getKey()), entry.getValue())) {
+                    apply(entry.getKey(), entry.getValue());
+                    applied++;
+                }
+            }
+            for (Long reservationId : stays.keySet()) {
+                if (!expected.containsKey(reservationId)) {
+                    apply(reservationId, null);
+                    applied++;
+                }
+            }
+            if (version.get() == before + applied) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Undated reservations are not counted
+    private static Stay stayOf(Reservation reservation) {
+        if (reservation.getDateDebut() == null || reservation.getDateFin() == null) {
+            return null;
+        }
+        return stayOf(reservation.getClient() != null ? reservation.getClient().getId() : null,
+                reservation.getDateDebut(), reservation.getDateFin());
+    }
+
+    private static Stay stayOf(Long clientId, LocalDate dateDebut, LocalDate dateFin) {
+        return new Stay(clientId, dateFin.toEpochDay() - dateDebut.toEpochDay());
+    }
+}
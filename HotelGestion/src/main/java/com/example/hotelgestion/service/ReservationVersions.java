@@ -0,0 +1,108 @@
+package com.example.hotelgestion.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters behind conditional reads. Every committed reservation write bumps the global version
+ * and stamps the reservation with it; Client and Chambre writes bump the global and the reference data
+ * version, since both are embedded in reservation responses. Tokens carry a random per-process epoch,
+ * so a restart never revalidates a token from the previous run.
+ * Counters move after commit: a reader takes the token before querying, so at worst it tags fresh data
+ * with an old token and simply reloads once more.
+ */
+@Component
+public class ReservationVersions {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong global = new AtomicLong();
+    private final AtomicLong referenceData = new AtomicLong();
+    // Only reservations written since start have an entry; deleted ones lose theirs
+    private final Map<Long, Long> reservations = new ConcurrentHashMap<>();
+    // Version of the reservations without an entry. Raised past the version of every deleted reservation,
+    // so its old token never matches again
+    private final AtomicLong removed = new AtomicLong();
+
+    // Changes whenever anything a reservation list shows may have changed
+    public String listVersion() {
+        return epoch + "-" + global.get();
+    }
+
+    public String reservationVersion(Long reservationId) {
+        Long version = reservations.get(reservationId);
+        return epoch + "-" + (version != null ? version : removed.get()) + "." + referenceData.get();
+    }
+
+    public void reservationChanged(Long reservationId) {
+        afterCommit(() -> reservations.put(reservationId, global.incrementAndGet()));
+    }
+
+    // Drops the entry once the delete has committed; the tokens of reservations never written change once more
+    public void reservationDeleted(Long reservationId) {
+        afterCommit(() -> {
+            long version = global.incrementAndGet();
+            removed.accumulateAndGet(version, Math::max);
+            reservations.remove(reservationId);
+        });
+    }
+
+    public void reservationsChanged(Collection<Long> reservationIds) {
+        afterCommit(() -> {
+            long version = global.incrementAndGet();
+            for (Long reservationId : reservationIds) {
+                reservations.put(reservationId, version);
+            }
+        });
+    }
+
+    public void referenceDataChanged() {
+        afterCommit(() -> {
+            referenceData.incrementAndGet();
+            global.incrementAndGet();
+        });
+    }
+
+    /**
+     * Version token of one page of a list: the list version bound to the arguments that select and shape the page,
+     * so a token only matches again for the same page of an unchanged list (the REST ETag gets this from the URL).
+     */
+    public static String pageVersion(String listVersion, Object... pageArguments) {
+        long hash = 1125899906842597L;
+        for (Object argument : pageArguments) {
+            String value = argument != null ? argument.toString() : "\u0000";
+            for (int i = 0; i < value.length(); i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+            hash = 31 * hash + '\u001F';
+        }
+        return listVersion + "-" + Long.toString(hash & Long.MAX_VALUE, 36);
+    }
+
+    // Strong ETag for a version token; the Accept header is part of it since each media type is its own representation
+    public static String etag(String version, String accept) {
+        if (accept == null || accept.isEmpty() || "*/*".equals(accept)) {
+            return "\"" + version + "\"";
+        }
+        return "\"" + version + "-" + Integer.toHexString(accept.hashCode()) + "\"";
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.exception.ReservationConflictException;
+import com.example.hotelgestion.repository.ReservationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * In-memory booking index per room, used to refuse overlapping reservations without scanning the table.
+ * Each room keeps its bookings as half-open day intervals [dateDebut, dateFin) in a tree ordered by start,
+ * so an overlap check is a single O(log n) lookup. Writes for a room are serialized with striped locks;
+ * the index entry is written before the lock is released and rolled back if the transaction fails.
+ * Every change of a room's schedule is passed on to the room search ({@link RoomOccupancyIndex}) under the same lock.
+ * Rooms whose existing reservations already overlap when loaded are flagged, and their lookups walk the whole schedule.
+ */
+@Component
+public class RoomAvailabilityIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(RoomAvailabilityIndex.class.getName());
+    private static final int STRIPES = 64;
+
+    record Booking(long reservationId, long chambreId, long startDay, long endDay) {
+    }
+
+    private static final Comparator<Booking> BY_START = Comparator.comparingLong(Booking::startDay)
+            .thenComparingLong(Booking::reservationId);
+
+    private final ReservationRepository reservationRepository;
+    private final RoomOccupancyIndex roomOccupancyIndex;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<Long, NavigableSet<Booking>> rooms = new ConcurrentHashMap<>();
+    private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();
+    // Rooms with overlapping bookings written before the index existed; they stay flagged until restart
+    private final Set<Long> overlappingRooms = ConcurrentHashMap.newKeySet();
+
+    public RoomAvailabilityIndex(ReservationRepository reservationRepository, RoomOccupancyIndex roomOccupancyIndex) {
+        this.reservationRepository = reservationRepository;
+        this.roomOccupancyIndex = roomOccupancyIndex;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    // Bookings already indexed are left as they are, so this can run again after rows were inserted behind the index
+    @PostConstruct
+    public void load() {
+        int overlaps = 0;
+        for (Object[] row : reservationRepository.findAllBookings()) {
+            Booking booking = new Booking((Long) row[0], (Long) row[1],
+                    ((LocalDate) row[2]).toEpochDay(), ((LocalDate) row[3]).toEpochDay());
+            if (findConflict(booking.chambreId(), booking.startDay(), booking.endDay(), booking.reservationId()) != null) {
+                overlaps++;
+                overlappingRooms.add(booking.chambreId());
+            }
+            add(booking);
+        }
+        if (overlaps > 0) {
+            LOGGER.warning(overlaps + " existing reservations overlap another booking of the same room, "
+                    + overlappingRooms.size() + " rooms are checked against their whole schedule");
+        }
+    }
+
+    public boolean isAvailable(long chambreId, LocalDate dateDebut, LocalDate dateFin) {
+        int stripe = stripe(chambreId);
+        lock(stripe, stripe);
+        try {
+            return findConflict(chambreId, dateDebut.toEpochDay(), dateFin.toEpochDay(), null) == null;
+        } finally {
+            unlock(stripe, stripe);
+        }
+    }
+
+    /**
+     * Checks the room of {@code reservation} for overlaps, runs {@code writer} (the actual save) while the
+     * room is locked and records the resulting booking. Rooms are only locked when a room and both dates are set.
+     */
+    public Reservation book(Reservation reservation, Supplier<Reservation> writer) {
+        Booking previous = reservation.getId() != null ? bookings.get(reservation.getId()) : null;
+        if (reservation.getChambre() == null || reservation.getChambre().getId() == null
+                || reservation.getDateDebut() == null || reservation.getDateFin() == null) {
+            Reservation saved = writer.get();
+            if (previous != null) {
+                release(previous.reservationId());
+            }
+            return saved;
+        }
+        if (!reservation.getDateFin().isAfter(reservation.getDateDebut())) {
+            throw new IllegalArgumentException("dateFin must be after dateDebut");
+        }
+
+        long chambreId = reservation.getChambre().getId();
+        long startDay = reservation.getDateDebut().toEpochDay();
+        long endDay = reservation.getDateFin().toEpochDay();
+        int first = stripe(chambreId);
+        int second = previous != null ? stripe(previous.chambreId()) : first;
+        lock(first, second);
+        try {
+            if (findConflict(chambreId, startDay, endDay, reservation.getId()) != null) {
+                throw new ReservationConflictException(chambreId, reservation.getDateDebut(), reservation.getDateFin());
+            }
+            Reservation saved = writer.get();
+            Booking booking = new Booking(saved.getId(), chambreId, startDay, endDay);
+            replace(previous, booking);
+            restoreOnRollback(booking, previous);
+            return saved;
+        } finally {
+            unlock(first, second);
+        }
+    }
+
+    /**
+     * Batch variant of {@link #book}: locks the rooms of every reservation, keeps the ones that overlap
+     * neither the index nor an earlier reservation of the same batch, hands those to {@code writer} (which
+     * must set their ids) and records them. Reservations must have a room and valid dates.
+     * Returns the positions of the reservations refused for a conflict.
+     */
+    public List<Integer> bookAll(List<Reservation> reservations, Consumer<List<Reservation>> writer) {
+        int[] stripes = reservations.stream().mapToInt(r -> stripe(r.getChambre().getId())).distinct().sorted().toArray();
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        try {
+            List<Integer> conflicts = new ArrayList<>();
+            List<Reservation> accepted = new ArrayList<>();
+            List<Booking> pending = new ArrayList<>();
+            for (int i = 0; i < reservations.size(); i++) {
+                Reservation reservation = reservations.get(i);
+                long chambreId = reservation.getChambre().getId();
+                long startDay = reservation.getDateDebut().toEpochDay();
+                long endDay = reservation.getDateFin().toEpochDay();
+                if (findConflict(chambreId, startDay, endDay, null) != null) {
+                    conflicts.add(i);
+                    continue;
+                }
+                // Placeholder id, only in the room schedule, so later reservations of the batch see this one
+                Booking placeholder = new Booking(-1L - i, chambreId, startDay, endDay);
+                rooms.computeIfAbsent(chambreId, id -> new TreeSet<>(BY_START)).add(placeholder);
+                pending.add(placeholder);
+                accepted.add(reservation);
+            }
+
+            List<Booking> booked = new ArrayList<>(pending.size());
+            try {
+                if (!accepted.isEmpty()) {
+                    writer.accept(accepted);
+                }
+                for (int i = 0; i < pending.size(); i++) {
+                    Booking placeholder = pending.get(i);
+                    booked.add(new Booking(accepted.get(i).getId(), placeholder.chambreId(), placeholder.startDay(), placeholder.endDay()));
+                }
+            } finally {
+                for (Booking placeholder : pending) {
+                    rooms.get(placeholder.chambreId()).remove(placeholder);
+                }
+            }
+            booked.forEach(this::add);
+            releaseOnRollback(booked);
+            return conflicts;
+        } finally {
+            for (int stripe : stripes) {
+                locks[stripe].unlock();
+            }
+        }
+    }
+
+    // Moves the room search horizon to the new day, one room at a time under its lock
+    @Scheduled(cron = "${room-search.roll-cron:0 0 0 * * *}")
+    public void rollOccupancy() {
+        if (!roomOccupancyIndex.advanceTo(LocalDate.now().toEpochDay())) {
+            return;
+        }
+        for (Map.Entry<Long, NavigableSet<Booking>> room : rooms.entrySet()) {
+            int stripe = stripe(room.getKey());
+            lock(stripe, stripe);
+            try {
+                roomOccupancyIndex.roll(room.getKey(), room.getValue(), overlappingRooms.contains(room.getKey()));
+            } finally {
+                unlock(stripe, stripe);
+            }
+        }
+    }
+
+    // Deleted bookings stay in the index until the delete has committed
+    public void release(Long reservationId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseNow(reservationId);
+                }
+            });
+        } else {
+            releaseNow(reservationId);
+        }
+    }
+
+    private void releaseNow(Long reservationId) {
+        Booking booking = bookings.get(reservationId);
+        if (booking == null) {
+            return;
+        }
+        int stripe = stripe(booking.chambreId());
+        lock(stripe, stripe);
+        try {
+            replace(booking, null);
+        } finally {
+            unlock(stripe, stripe);
+        }
+    }
+
+    private void restoreOnRollback(Booking current, Booking previous) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                int first = stripe(current.chambreId());
+                int second = previous != null ? stripe(previous.chambreId()) : first;
+                lock(first, second);
+                try {
+                    replace(current, previous);
+                } finally {
+                    unlock(first, second);
+                }
+            }
+        });
+    }
+
+    private void releaseOnRollback(List<Booking> booked) {
+        if (booked.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                for (Booking booking : booked) {
+                    int stripe = stripe(booking.chambreId());
+                    lock(stripe, stripe);
+                    try {
+                        replace(booking, null);
+                    } finally {
+                        unlock(stripe, stripe);
+                    }
+                }
+            }
+        });
+    }
+
+    // Caller holds the locks of both rooms involved
+    private void replace(Booking removed, Booking added) {
+        if (removed != null) {
+            NavigableSet<Booking> schedule = rooms.get(removed.chambreId());
+            if (schedule != null) {
+                schedule.remove(removed);
+                roomOccupancyIndex.update(removed.chambreId(), schedule, overlappingRooms.contains(removed.chambreId()),
+                        removed.startDay(), removed.endDay());
+            }
+            bookings.remove(removed.reservationId(), removed);
+        }
+        if (added != null) {
+            add(added);
+        }
+    }
+
+    private void add(Booking booking) {
+        NavigableSet<Booking> schedule = rooms.computeIfAbsent(booking.chambreId(), id -> new TreeSet<>(BY_START));
+        schedule.add(booking);
+        bookings.put(booking.reservationId(), booking);
+        roomOccupancyIndex.update(booking.chambreId(), schedule, overlappingRooms.contains(booking.chambreId()),
+                booking.startDay(), booking.endDay());
+    }
+
+    /**
+     * Bookings of a room never overlap each other, so the only candidate is the booking with the
+     * greatest start before {@code endDay} (skipping the reservation being updated). In a room flagged
+     * with overlaps a shorter booking can hide a longer one, so every booking starting before endDay is checked.
+     */
+    private Booking findConflict(long chambreId, long startDay, long endDay, Long ignoredReservationId) {
+        NavigableSet<Booking> schedule = rooms.get(chambreId);
+        if (schedule == null) {
+            return null;
+        }
+        boolean overlapping = overlappingRooms.contains(chambreId);
+        Booking probe = new Booking(Long.MIN_VALUE, chambreId, endDay, 0);
+        for (Booking candidate = schedule.lower(probe); candidate != null; candidate = schedule.lower(candidate)) {
+            if (ignoredReservationId != null && candidate.reservationId() == ignoredReservationId) {
+                continue;
+            }
+            if (candidate.endDay() > startDay) {
+                return candidate;
+            }
+            if (!overlapping) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private int stripe(long chambreId) {
+        return Long.hashCode(chambreId * 0x9E3779B97F4A7C15L) & (STRIPES - 1);
+    }
+
+    // Always acquires the lower stripe first so two writers moving reservations between rooms cannot deadlock
+    private void lock(int first, int second) {
+        locks[Math.min(first, second)].lock();
+        if (first != second) {
+            locks[Math.max(first, second)].lock();
+        }
+    }
+
+    private void unlock(int first, int second) {
+        locks[first].unlock();
+        if (first != second) {
+            locks[second].unlock();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.repository.ChambreRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Room search without reading reservations. Each room has a bitset of its booked nights over a rolling horizon
+ * starting today (bit i is the night of originDay + i), and the rooms are kept grouped by type and sorted by price.
+ * A search walks the rooms of the type up to the price limit and keeps those whose bitset does not intersect
+ * the requested nights. Bitsets are never modified once published: {@link RoomAvailabilityIndex} recomputes the
+ * nights a booking change touches under the room's lock and swaps in a new bitset, so searches take no lock.
+ * Room writes reach the catalogue once committed.
+ */
+@Component
+public class RoomOccupancyIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(RoomOccupancyIndex.class.getName());
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 1000;
+
+    public record Room(long id, TypeChambre type, Double prix, Boolean disponible) {
+
+        static Room of(Chambre chambre) {
+            return new Room(chambre.getId(), chambre.getType(), chambre.getPrix(), chambre.getDisponible());
+        }
+
+        Chambre toChambre() {
+            Chambre chambre = new Chambre();
+            chambre.setId(id);
+            chambre.setType(type);
+            chambre.setPrix(prix);
+            chambre.setDisponible(disponible);
+            return chambre;
+        }
+    }
+
+    // Rooms without a price come last and never match a price limit
+    private static final Comparator<Room> BY_PRIX = Comparator.comparing(Room::prix, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(Room::id);
+
+    private record Catalogue(Map<TypeChambre, List<Room>> byType, List<Room> all) {
+
+        static Catalogue of(Collection<Room> rooms) {
+            List<Room> all = new ArrayList<>(rooms);
+            all.sort(BY_PRIX);
+            Map<TypeChambre, List<Room>> byType = new EnumMap<>(TypeChambre.class);
+            for (Room room : all) {
+                if (room.type() != null) {
+                    byType.computeIfAbsent(room.type(), type -> new ArrayList<>()).add(room);
+                }
+            }
+            byType.replaceAll((type, group) -> List.copyOf(group));
+            return new Catalogue(byType, List.copyOf(all));
+        }
+    }
+
+    // Rooms keep their own origin while the horizon moves forward, one room at a time
+    private record Occupancy(long originDay, BitSet nights) {
+    }
+
+    private final ChambreRepository chambreRepository;
+    private final int horizonDays;
+    private final Map<Long, Occupancy> occupancy = new ConcurrentHashMap<>();
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    private volatile Catalogue catalogue = Catalogue.of(List.of());
+    private volatile long originDay;
+
+    public RoomOccupancyIndex(ChambreRepository chambreRepository,
+                              @Value("${room-search.horizon-days:730}") int horizonDays) {
+        this.chambreRepository = chambreRepository;
+        this.horizonDays = horizonDays;
+        this.originDay = LocalDate.now().toEpochDay();
+    }
+
+    @PostConstruct
+    public void loadRooms() {
+        for (Chambre chambre : chambreRepository.findAll()) {
+            rooms.put(chambre.getId(), Room.of(chambre));
+        }
+        publish();
+        LOGGER.info("Room search covers " + rooms.size() + " rooms over " + horizonDays + " days");
+    }
+
+    /**
+     * Rooms of {@code type} (any type when null) priced at most {@code prixMax} (when set) that are free every night
+     * of [dateDebut, dateFin), cheapest first. Rooms flagged not disponible are left out. Both dates must lie within
+     * the horizon.
+     */
+    public List<Chambre> search(TypeChambre type, Double prixMax, LocalDate dateDebut, LocalDate dateFin, Integer limit) {
+        if (dateDebut == null || dateFin == null) {
+            throw new IllegalArgumentException("dateDebut and dateFin are required");
+        }
+        if (!dateFin.isAfter(dateDebut)) {
+            throw new IllegalArgumentException("dateFin must be after dateDebut");
+        }
+        long origin = originDay;
+        long startDay = dateDebut.toEpochDay();
+        long endDay = dateFin.toEpochDay();
+        if (startDay < origin || endDay > origin + horizonDays) {
+            throw new IllegalArgumentException("Room search covers " + LocalDate.ofEpochDay(origin) + " to "
+                    + LocalDate.ofEpochDay(origin + horizonDays));
+        }
+        int max = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        Catalogue current = catalogue;
+        List<Room> candidates = type != null ? current.byType().getOrDefault(type, List.of()) : current.all();
+        BitSet requested = nights(origin, startDay, endDay);
+        List<Chambre> result = new ArrayList<>();
+        for (Room room : candidates) {
+            if (prixMax != null && (room.prix() == null || room.prix() > prixMax)) {
+                break;
+            }
+            if (Boolean.FALSE.equals(room.disponible())) {
+                continue;
+            }
+            Occupancy booked = occupancy.get(room.id());
+            if (booked == null || !booked.nights().intersects(booked.originDay() == origin
+                    ? requested : nights(booked.originDay(), startDay, endDay))) {
+                result.add(room.toChambre());
+                if (result.size() == max) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    public void roomSaved(Chambre chambre) {
+        if (chambre.getId() == null) {
+            return;
+        }
+        Room room = Room.of(chambre);
+        afterCommit(() -> {
+            rooms.put(room.id(), room);
+            publish();
+        });
+    }
+
+    public void roomRemoved(Long chambreId) {
+        if (chambreId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            rooms.remove(chambreId);
+            publish();
+        });
+    }
+
+    /**
+     * Recomputes the nights [startDay, endDay) of a room from its schedule. Caller holds the room's lock in
+     * {@link RoomAvailabilityIndex}. A room seen for the first time is computed over the whole horizon.
+     * {@code overlapping} is set for a room whose schedule holds overlapping bookings.
+     */
+    void update(long chambreId, NavigableSet<RoomAvailabilityIndex.Booking> schedule, boolean overlapping,
+                long startDay, long endDay) {
+        occupancy.compute(chambreId, (id, current) -> {
+            if (current == null) {
+                return compute(schedule, overlapping, originDay);
+            }
+            long origin = current.originDay();
+            if (Math.max(startDay, origin) >= Math.min(endDay, origin + horizonDays)) {
+                return current;
+            }
+            BitSet nights = (BitSet) current.nights().clone();
+            nights.clear((int) (Math.max(startDay, origin) - origin), (int) (Math.min(endDay, origin + horizonDays) - origin));
+            mark(nights, origin, schedule, overlapping, startDay, endDay);
+            return new Occupancy(origin, nights);
+        });
+    }
+
+    // Starts a new day: returns false when the horizon already starts at or after today
+    boolean advanceTo(long today) {
+        if (today <= originDay) {
+            return false;
+        }
+        originDay = today;
+        return true;
+    }
+
+    /**
+     * Moves a room to the current origin: the bitset is shifted and only the nights entering the horizon are read
+     * from the schedule. Caller holds the room's lock. Until its turn comes a room answers for its previous window,
+     * in which the last night of the new horizon counts as free.
+     */
+    void roll(long chambreId, NavigableSet<RoomAvailabilityIndex.Booking> schedule, boolean overlapping) {
+        long origin = originDay;
+        occupancy.compute(chambreId, (id, current) -> {
+            if (current == null) {
+                return compute(schedule, overlapping, origin);
+            }
+            if (current.originDay() >= origin) {
+                return current;
+            }
+            int shift = (int) Math.min(origin - current.originDay(), horizonDays);
+            BitSet nights = current.nights().get(shift, horizonDays);
+            mark(nights, origin, schedule, overlapping, origin + horizonDays - shift, origin + horizonDays);
+            return new Occupancy(origin, nights);
+        });
+    }
+
+    private Occupancy compute(NavigableSet<RoomAvailabilityIndex.Booking> schedule, boolean overlapping, long origin) {
+        BitSet nights = new BitSet(horizonDays);
+        mark(nights, origin, schedule, overlapping, origin, origin + horizonDays);
+        return new Occupancy(origin, nights);
+    }
+
+    // Sets the nights of [startDay, endDay) covered by a booking. When bookings of a room do not overlap each other
+    // the walk back from endDay stops at the first booking ending before startDay; otherwise an earlier, longer
+    // booking may still reach startDay, so every booking starting before endDay is read
+    private void mark(BitSet nights, long origin, NavigableSet<RoomAvailabilityIndex.Booking> schedule,
+                      boolean overlapping, long startDay, long endDay) {
+        if (schedule == null) {
+            return;
+        }
+        RoomAvailabilityIndex.Booking probe = new RoomAvailabilityIndex.Booking(Long.MIN_VALUE, 0, endDay, 0);
+        for (RoomAvailabilityIndex.Booking booking = schedule.lower(probe);
+             booking != null && (overlapping || booking.endDay() > startDay); booking = schedule.lower(booking)) {
+            long from = Math.max(Math.max(booking.startDay(), startDay), origin);
+            long to = Math.min(Math.min(booking.endDay(), endDay), origin + horizonDays);
+            if (from < to) {
+                nights.set((int) (from - origin), (int) (to - origin));
+            }
+        }
+    }
+
+    private BitSet nights(long origin, long startDay, long endDay) {
+        BitSet nights = new BitSet(horizonDays);
+        long from = Math.max(startDay, origin);
+        long to = Math.min(endDay, origin + horizonDays);
+        if (from < to) {
+            nights.set((int) (from - origin), (int) (to - origin));
+        }
+        return nights;
+    }
+
+    private synchronized void publish() {
+        catalogue = Catalogue.of(rooms.values());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.hotelgestion.sql;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SQL statements of one call. The protocol hooks bind it to the thread running the call ({@link #enter()} /
+ * {@link #exit(QueryScope)}, possibly several times when the call hops threads, as gRPC callbacks do) and
+ * {@link #finish()} it once, which records the statement count.
+ */
+public final class QueryScope {
+
+    private final QueryStatistics statistics;
+    private final QueryStatistics.OperationQueries operation;
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicBoolean finished = new AtomicBoolean();
+
+    QueryScope(QueryStatistics statistics, QueryStatistics.OperationQueries operation) {
+        this.statistics = statistics;
+        this.operation = operation;
+    }
+
+    /** Binds this scope to the current thread; returns the scope it replaces, for {@link #exit}. */
+    public QueryScope enter() {
+        QueryScope previous = statistics.current();
+        statistics.bind(this);
+        return previous != null && previous.active() ? previous : null;
+    }
+
+    // Only restores when this scope is still the bound one, so an exit on another thread is harmless
+    public void exit(QueryScope previous) {
+        if (statistics.current() == this) {
+            statistics.bind(previous);
+        }
+    }
+
+    public void finish() {
+        if (finished.compareAndSet(false, true)) {
+            operation.finished(statements.get());
+        }
+    }
+
+    public int statements() {
+        return statements.get();
+    }
+
+    boolean active() {
+        return !finished.get();
+    }
+
+    QueryStatistics.OperationQueries operation() {
+        return operation;
+    }
+
+    void statementExecuted() {
+        statements.incrementAndGet();
+    }
+}
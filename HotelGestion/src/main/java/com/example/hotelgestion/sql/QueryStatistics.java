@@ -0,0 +1,265 @@
+package com.example.hotelgestion.sql;
+
+import com.example.hotelgestion.latency.LatencyChannel;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * SQL statement statistics fed by {@link QueryStatsDataSource}:
+ * <ul>
+ *     <li>per statement shape (the SQL with literals and IN lists folded): executions, time, rows and the operations
+ *     issuing it, listed by the {@code querystats} actuator endpoint;</li>
+ *     <li>{@code sql.statements}: one timer per protocol, operation and statement kind (select, insert, ...);</li>
+ *     <li>{@code sql.statements.per.request}: statements issued by each call, per protocol and operation, where an
+ *     N+1 shows up as a jump of the mean;</li>
+ *     <li>a sampled slow-query log (logger {@code com.example.hotelgestion.sql.slow}), shapes only, no values.</li>
+ * </ul>
+ * Statements are attributed to the {@link QueryScope} bound to the executing thread by the request metrics of each
+ * protocol; the others (startup, schedulers, the group commit writer) are tagged {@code none}.
+ */
+@Component
+public class QueryStatistics {
+
+    private static final Logger SLOW_LOG = Logger.getLogger("com.example.hotelgestion.sql.slow");
+
+    public static final String METRIC = "sql.statements";
+    public static final String PER_REQUEST_METRIC = "sql.statements.per.request";
+
+    private static final String OTHER_SHAPE = "(other statements)";
+    private static final int MAX_SHAPE_CACHE = 4096;
+    private static final int MAX_OPERATIONS_PER_SHAPE = 16;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    enum Kind {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        static final Kind[] VALUES = values();
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final int maxShapes;
+    private final long slowNanos;
+    private final double slowSampleRate;
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Map<String, String> shapeCache = new ConcurrentHashMap<>();
+    private final ThreadLocal<QueryScope> current = new ThreadLocal<>();
+    private final OperationQueries unscoped;
+
+    public QueryStatistics(MeterRegistry meterRegistry,
+                           @Value("${sql.stats.max-shapes:500}") int maxShapes,
+                           @Value("${sql.slow-query.threshold-ms:100}") long slowThresholdMs,
+                           @Value("${sql.slow-query.sample-rate:1.0}") double slowSampleRate) {
+        this.meterRegistry = meterRegistry;
+        this.maxShapes = maxShapes;
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.slowSampleRate = slowSampleRate;
+        this.unscoped = new OperationQueries("none", "none", false);
+    }
+
+    /** Registers (or finds) the meters of one operation; callers keep the result, like request timers. */
+    public OperationQueries operation(LatencyChannel protocol, String operation) {
+        return new OperationQueries(protocol.name().toLowerCase(Locale.ROOT), operation, true);
+    }
+
+    /** Shapes by total time, slowest first. */
+    public List<ShapeSummary> top(int limit) {
+        List<ShapeSummary> summaries = new ArrayList<>(shapes.size());
+        shapes.values().forEach(stats -> summaries.add(stats.summary()));
+        summaries.sort(Comparator.comparingDouble(ShapeSummary::totalMs).reversed());
+        return summaries.subList(0, Math.min(Math.max(0, limit), summaries.size()));
+    }
+
+    public int shapeCount() {
+        return shapes.size();
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    // Called by the JDBC proxies: once per prepared SQL, then per execution / fetched result
+
+    ShapeStats shapeOf(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String shape = shapeCache.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapeCache.size() < MAX_SHAPE_CACHE) {
+                shapeCache.put(sql, shape);
+            }
+        }
+        ShapeStats stats = shapes.get(shape);
+        if (stats == null) {
+            // Past max-shapes (e.g. SQL built with inlined values) new shapes share one line
+            String key = shapes.size() < maxShapes ? shape : OTHER_SHAPE;
+            stats = shapes.computeIfAbsent(key, ShapeStats::new);
+        }
+        return stats;
+    }
+
+    void executed(ShapeStats stats, long nanos, long rows, boolean failed) {
+        QueryScope scope = current.get();
+        OperationQueries operation = scope != null && scope.active() ? scope.operation() : unscoped;
+        if (operation != unscoped) {
+            scope.statementExecuted();
+        }
+        Kind kind = stats != null ? stats.kind : Kind.OTHER;
+        operation.timers[kind.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        if (stats != null) {
+            stats.executed(nanos, rows, failed, operation.key);
+            // Statements prepared before a reset still hold their shape's previous statistics
+            shapes.putIfAbsent(stats.shape, stats);
+        }
+        if (nanos >= slowNanos && (slowSampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < slowSampleRate)) {
+            SLOW_LOG.warning(String.format("Slow SQL (%d ms, %s rows%s, %s): %s", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    rows < 0 ? "?" : Long.toString(rows), failed ? ", failed" : "", operation.key,
+                    stats != null ? stats.shape : "(unknown)"));
+        }
+    }
+
+    void fetched(ShapeStats stats, long rows) {
+        if (stats != null) {
+            stats.rows.add(rows);
+        }
+    }
+
+    QueryScope current() {
+        return current.get();
+    }
+
+    void bind(QueryScope scope) {
+        if (scope == null) {
+            current.remove();
+        } else {
+            current.set(scope);
+        }
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?, ...)");
+        return SPACES.matcher(shape).replaceAll(" ").trim();
+    }
+
+    static Kind kindOf(String shape) {
+        int end = shape.indexOf(' ');
+        String verb = (end < 0 ? shape : shape.substring(0, end)).toLowerCase(Locale.ROOT);
+        return switch (verb) {
+            case "select", "with" -> Kind.SELECT;
+            case "insert" -> Kind.INSERT;
+            case "update" -> Kind.UPDATE;
+            case "delete" -> Kind.DELETE;
+            default -> Kind.OTHER;
+        };
+    }
+
+    /** Meters of one protocol and operation. */
+    public final class OperationQueries {
+
+        private final String key;
+        private final Timer[] timers = new Timer[Kind.VALUES.length];
+        private final DistributionSummary perRequest;
+
+        private OperationQueries(String protocol, String operation, boolean perRequest) {
+            this.key = protocol + " " + operation;
+            for (Kind kind : Kind.VALUES) {
+                timers[kind.ordinal()] = Timer.builder(METRIC)
+                        .description("SQL statements executed, by protocol, operation and statement kind")
+                        .tags("protocol", protocol, "operation", operation, "kind", kind.tag)
+                        .register(meterRegistry);
+            }
+            this.perRequest = perRequest ? DistributionSummary.builder(PER_REQUEST_METRIC)
+                    .description("SQL statements issued by one call, by protocol and operation")
+                    .tags("protocol", protocol, "operation", operation)
+                    .register(meterRegistry) : null;
+        }
+
+        /** A new scope for one call, not bound to any thread yet. */
+        public QueryScope newScope() {
+            return new QueryScope(QueryStatistics.this, this);
+        }
+
+        void finished(int statements) {
+            perRequest.record(statements);
+        }
+    }
+
+    /** Statistics of one statement shape. */
+    static final class ShapeStats {
+
+        private final String shape;
+        private final Kind kind;
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final Map<String, LongAdder> operations = new ConcurrentHashMap<>();
+
+        private ShapeStats(String shape) {
+            this.shape = shape;
+            this.kind = kindOf(shape);
+        }
+
+        private void executed(long nanos, long rowCount, boolean failed, String operation) {
+            executions.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+            LongAdder calls = operations.get(operation);
+            if (calls == null && operations.size() < MAX_OPERATIONS_PER_SHAPE) {
+                calls = operations.computeIfAbsent(operation, key -> new LongAdder());
+            }
+            if (calls != null) {
+                calls.increment();
+            }
+        }
+
+        private ShapeSummary summary() {
+            long count = executions.sum();
+            double totalMs = totalNanos.sum() / 1e6;
+            long rowCount = rows.sum();
+            Map<String, Long> byOperation = new TreeMap<>();
+            operations.forEach((operation, calls) -> byOperation.put(operation, calls.sum()));
+            return new ShapeSummary(shape, kind.tag, count, failures.sum(), totalMs, count == 0 ? 0 : totalMs / count,
+                    maxNanos.get() / 1e6, rowCount, count == 0 ? 0 : (double) rowCount / count, byOperation);
+        }
+    }
+
+    /** One line of the querystats endpoint. */
+    public record ShapeSummary(String shape, String kind, long executions, long failures, double totalMs,
+                               double meanMs, double maxMs, long rows, double rowsPerExecution,
+                               Map<String, Long> operations) {
+    }
+}
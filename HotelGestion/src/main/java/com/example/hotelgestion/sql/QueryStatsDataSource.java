@@ -0,0 +1,166 @@
+package com.example.hotelgestion.sql;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Data source handing out connections whose statements report to {@link QueryStatistics}: each execution is
+ * timed, and its row count is the update count, or the rows read from its result set once the caller has
+ * finished with it. A {@link DelegatingDataSource}, so the pool behind it is still found for pool metrics.
+ * Connections and statements are proxies, called a few times per statement; result sets, called for every column
+ * of every row, are a {@link CountingResultSet}.
+ */
+public class QueryStatsDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<QueryStatistics> statisticsProvider;
+    private volatile QueryStatistics statistics;
+
+    public QueryStatsDataSource(DataSource target, ObjectProvider<QueryStatistics> statisticsProvider) {
+        super(target);
+        this.statisticsProvider = statisticsProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        // Resolved on first use: the data source is created before the meter registry
+        QueryStatistics resolved = statistics;
+        if (resolved == null) {
+            resolved = statisticsProvider.getIfAvailable();
+            if (resolved == null) {
+                return connection;
+            }
+            statistics = resolved;
+        }
+        return proxy(Connection.class, new ConnectionHandler(connection, resolved));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(QueryStatsDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record ConnectionHandler(Connection target, QueryStatistics statistics) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = QueryStatsDataSource.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, statistics, statistics.shapeOf((String) args[0])));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, statistics, statistics.shapeOf((String) args[0])));
+                case "createStatement" -> proxy(Statement.class, new StatementHandler((Statement) result, statistics, null));
+                default -> result;
+            };
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final QueryStatistics statistics;
+        private final QueryStatistics.ShapeStats prepared;
+        // Shape of the last execution, for a result set obtained afterwards with getResultSet
+        private QueryStatistics.ShapeStats last;
+
+        private StatementHandler(Statement target, QueryStatistics statistics, QueryStatistics.ShapeStats prepared) {
+            this.target = target;
+            this.statistics = statistics;
+            this.prepared = prepared;
+            this.last = prepared;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(name, method, args);
+            }
+            Object result = QueryStatsDataSource.invoke(target, method, args);
+            if (name.equals("getResultSet") && result instanceof ResultSet resultSet) {
+                return new CountingResultSet(resultSet, statistics, last);
+            }
+            return result;
+        }
+
+        private Object execute(String name, Method method, Object[] args) throws Throwable {
+            // Plain statements carry their SQL on each call
+            QueryStatistics.ShapeStats shape = args != null && args.length > 0 && args[0] instanceof String sql
+                    ? statistics.shapeOf(sql) : prepared;
+            last = shape;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = QueryStatsDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                statistics.executed(shape, System.nanoTime() - start, -1, true);
+                throw e;
+            }
+            long nanos = System.nanoTime() - start;
+            statistics.executed(shape, nanos, rowsOf(result), false);
+            if (name.equals("executeQuery") && result instanceof ResultSet resultSet) {
+                return new CountingResultSet(resultSet, statistics, shape);
+            }
+            return result;
+        }
+
+        // Update counts; -1 for queries, whose rows are counted as they are read
+        private static long rowsOf(Object result) {
+            if (result instanceof Number count) {
+                return count.longValue();
+            }
+            if (result instanceof int[] counts) {
+                return sum(counts);
+            }
+            if (result instanceof long[] counts) {
+                return sum(counts);
+            }
+            return -1;
+        }
+
+        // Drivers report Statement.SUCCESS_NO_INFO (-2) for batched rows they do not count
+        private static long sum(int[] counts) {
+            long rows = 0;
+            for (int count : counts) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+
+        private static long sum(long[] counts) {
+            long rows = 0;
+            for (long count : counts) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.hotelgestion.sql;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's data sources in a {@link QueryStatsDataSource}, unless sql.stats.enabled is false.
+ * JPA, the JDBC repositories and the streamed reads all go through it.
+ */
+@Component
+public class QueryStatsDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<QueryStatistics> statistics;
+    private final boolean enabled;
+
+    public QueryStatsDataSourcePostProcessor(ObjectProvider<QueryStatistics> statistics, Environment environment) {
+        this.statistics = statistics;
+        this.enabled = environment.getProperty("sql.stats.enabled", Boolean.class, true);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DataSource dataSource && !(bean instanceof QueryStatsDataSource)) {
+            return new QueryStatsDataSource(dataSource, statistics);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.hotelgestion.sql;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/querystats}: the statement shapes taking the most database time since startup (or the last
+ * reset, with a DELETE), with their executions, rows and calling operations. {@code ?limit=} defaults to 20.
+ */
+@Component
+@Endpoint(id = "querystats")
+public class QueryStatsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final QueryStatistics statistics;
+
+    public QueryStatsEndpoint(QueryStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public record QueryStatsReport(int shapes, List<QueryStatistics.ShapeSummary> top) {
+    }
+
+    @ReadOperation
+    public QueryStatsReport top(@Nullable Integer limit) {
+        return new QueryStatsReport(statistics.shapeCount(), statistics.top(limit != null ? limit : DEFAULT_LIMIT));
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
@@ -0,0 +1,55 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Reservations by client and by room (lists, stats, availability), dates included so that the stay and booking reads
+ * are served from the index. MySQL drops the foreign key indexes these make redundant.
+ * A Java migration so that it skips the indexes that already exist: a database that ddl-auto=update kept in line
+ * with the entity has them, and is baselined at version 1 like any other. MySQL has no CREATE INDEX IF NOT EXISTS.
+ */
+public class V2__reservation_indexes extends BaseJavaMigration {
+
+    private static final String TABLE = "reservation";
+    private static final String[][] INDEXES = {
+            {"idx_reservation_client_dates", "client_id, date_debut, date_fin"},
+            {"idx_reservation_chambre_dates", "chambre_id, date_debut, date_fin"}};
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        Set<String> existing = indexesOf(connection);
+        try (Statement statement = connection.createStatement()) {
+            for (String[] index : INDEXES) {
+                if (!existing.contains(index[0])) {
+                    statement.execute("create index " + index[0] + " on " + TABLE + " (" + index[1] + ")");
+                }
+            }
+        }
+    }
+
+    private static Set<String> indexesOf(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String table = metaData.storesUpperCaseIdentifiers() ? TABLE.toUpperCase(Locale.ROOT) : TABLE;
+        Set<String> names = new HashSet<>();
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, true)) {
+            while (indexes.next()) {
+                String name = indexes.getString("INDEX_NAME");
+                if (name != null) {
+                    names.add(name.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,41 @@
+-- Schema as created by spring.jpa.hibernate.ddl-auto=update up to now (MySQL 8, InnoDB tables by default).
+-- Databases created that way are baselined at this version (spring.flyway.baseline-version=1).
+-- ${long_text}: the @Lob text type, longtext on MySQL (spring.flyway.placeholders.long_text)
+
+create table client (
+    id bigint not null auto_increment,
+    email varchar(255),
+    nom varchar(255),
+    prenom varchar(255),
+    telephone varchar(255),
+    primary key (id)
+);
+
+create table chambre (
+    id bigint not null auto_increment,
+    type enum ('SIMPLE','DOUBLE','TRIPLE','SUITE'),
+    prix float(53),
+    disponible bit,
+    primary key (id)
+);
+
+create table reservation (
+    id bigint not null auto_increment,
+    date_debut date,
+    date_fin date,
+    preferences ${long_text},
+    client_id bigint,
+    chambre_id bigint,
+    primary key (id),
+    constraint fk_reservation_client foreign key (client_id) references client (id),
+    constraint fk_reservation_chambre foreign key (chambre_id) references chambre (id)
+);
+
+create table utilisateur (
+    id bigint not null auto_increment,
+    nom_utilisateur varchar(255) not null,
+    mot_de_passe varchar(255) not null,
+    role enum ('ADMIN','CLIENT') not null,
+    primary key (id),
+    constraint uk_utilisateur_nom_utilisateur unique (nom_utilisateur)
+);
@@ -0,0 +1,245 @@
+package com.example.hotelgestion;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.repository.ChambreRepository;
+import com.example.hotelgestion.repository.ClientRepository;
+import com.example.hotelgestion.repository.ReservationBatchRepository;
+import com.example.hotelgestion.repository.ReservationRepository;
+import com.example.hotelgestion.repository.ReservationStreamRepository;
+import com.example.hotelgestion.service.ReservationVersions;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs every query method declared by the repositories, Spring Data and plain JDBC ones, on a seeded database built
+ * by the Flyway migrations, and EXPLAINs each statement it sends: a table scan fails the test, except in the queries
+ * that read a whole table by design. A new repository method must be added to the cases below, with its expected
+ * access path, or to the methods left out because they only write.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:plans;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=true",
+        "spring.flyway.placeholders.long_text=clob",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.hotelgestion.RepositoryQueryPlanTests$CapturedStatements"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ReservationVersions.class)
+class RepositoryQueryPlanTests {
+
+    private static final int CLIENTS = 50;
+    private static final int CHAMBRES = 50;
+    private static final int RESERVATIONS = 2000;
+
+    // H2 plans name the index of each table access in a comment: /* public.reservation.tableScan */ is a full scan, as
+    // is an index read without a condition (/* public.PRIMARY_KEY_A */)
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* [\\w.]+\\.tableScan \\*/|/\\* [\\w.]+ \\*/");
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private ChambreRepository chambreRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private DataSource dataSource;
+
+    private enum Access { INDEX, WHOLE_TABLE }
+
+    private record Case(Access access, Runnable query) {
+    }
+
+    @Test
+    void repositoryQueriesUseAnIndex() {
+        seed();
+        Client client = clientRepository.findById(1L).orElseThrow();
+        Chambre chambre = chambreRepository.findById(1L).orElseThrow();
+        LocalDate from = LocalDate.of(2025, 3, 1);
+        LocalDate to = LocalDate.of(2025, 4, 1);
+        ReservationStreamRepository streamRepository = new ReservationStreamRepository(capturing(dataSource), "jdbc:h2:mem:plans");
+
+        Map<String, Case> cases = new LinkedHashMap<>();
+        cases.put("ClientRepository.findByIdGreaterThanOrderByIdAsc", new Case(Access.INDEX,
+                () -> clientRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(10))));
+        cases.put("ReservationRepository.findByClient", new Case(Access.INDEX,
+                () -> reservationRepository.findByClient(client)));
+        cases.put("ReservationRepository.findByChambre", new Case(Access.INDEX,
+                () -> reservationRepository.findByChambre(chambre)));
+        cases.put("ReservationRepository.findByIdGreaterThanOrderByIdAsc", new Case(Access.INDEX,
+                () -> reservationRepository.findByIdGreaterThanOrderByIdAsc(100L, Limit.of(10))));
+        cases.put("ReservationRepository.findAllWithClientAndChambre", new Case(Access.WHOLE_TABLE,
+                () -> reservationRepository.findAllWithClientAndChambre()));
+        cases.put("ReservationRepository.findWithAssociationsByClientId", new Case(Access.INDEX,
+                () -> reservationRepository.findWithAssociationsByClientId(client.getId())));
+        cases.put("ReservationRepository.findWithAssociationsByChambreId", new Case(Access.INDEX,
+                () -> reservationRepository.findWithAssociationsByChambreId(chambre.getId())));
+        cases.put("ReservationRepository.findPage", new Case(Access.INDEX,
+                () -> reservationRepository.findPage(100L, from, to, Limit.of(10))));
+        cases.put("ReservationRepository.findAllViews", new Case(Access.WHOLE_TABLE,
+                () -> reservationRepository.findAllViews()));
+        cases.put("ReservationRepository.findViewById", new Case(Access.INDEX,
+                () -> reservationRepository.findViewById(100L)));
+        cases.put("ReservationRepository.findViewsByClientId", new Case(Access.INDEX,
+                () -> reservationRepository.findViewsByClientId(client.getId())));
+        cases.put("ReservationRepository.findViewsByChambreId", new Case(Access.INDEX,
+                () -> reservationRepository.findViewsByChambreId(chambre.getId())));
+        cases.put("ReservationRepository.findViewPage", new Case(Access.INDEX,
+                () -> reservationRepository.findViewPage(100L, from, to, Limit.of(10))));
+        cases.put("ReservationRepository.findSummaryPage", new Case(Access.INDEX,
+                () -> reservationRepository.findSummaryPage(100L, from, to, Limit.of(10))));
+        // Optional filters written as (:x IS NULL OR ...): MySQL folds them once the values are bound, H2 does not
+        cases.put("ReservationRepository.computeStats", new Case(Access.WHOLE_TABLE,
+                () -> reservationRepository.computeStats(null, null, null)));
+        cases.put("ReservationRepository.sumNightsByClient", new Case(Access.WHOLE_TABLE,
+                () -> reservationRepository.sumNightsByClient()));
+        cases.put("ReservationRepository.findAllStays", new Case(Access.WHOLE_TABLE,
+                () -> reservationRepository.findAllStays()));
+        cases.put("ReservationRepository.findAllBookings", new Case(Access.WHOLE_TABLE,
+                () -> reservationRepository.findAllBookings()));
+        cases.put("ReservationStreamRepository.streamAfter", new Case(Access.INDEX, () -> {
+            try (Stream<Reservation> rows = streamRepository.streamAfter(100L, from, to, 10)) {
+                rows.forEach(reservation -> {
+                });
+            }
+        }));
+        // Inserts only: no read whose access path could regress
+        Set<String> writesOnly = Set.of("ReservationBatchRepository.insertAll");
+
+        TreeSet<String> declared = new TreeSet<>();
+        for (Class<?> repository : List.of(ClientRepository.class, ChambreRepository.class, ReservationRepository.class,
+                ReservationStreamRepository.class, ReservationBatchRepository.class)) {
+            for (Method method : repository.getDeclaredMethods()) {
+                if (!method.isSynthetic() && !method.isDefault() && Modifier.isPublic(method.getModifiers())) {
+                    declared.add(repository.getSimpleName() + "." + method.getName());
+                }
+            }
+        }
+        TreeSet<String> covered = new TreeSet<>(cases.keySet());
+        covered.addAll(writesOnly);
+        assertEquals(declared, covered, "Repository methods without a query plan case");
+
+        List<String> scans = new ArrayList<>();
+        cases.forEach((method, queryCase) -> {
+            List<String> statements = statementsOf(queryCase.query());
+            if (statements.isEmpty()) {
+                scans.add(method + ": no statement captured");
+            }
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (queryCase.access() == Access.INDEX && TABLE_SCAN.matcher(plan).find()) {
+                    scans.add(method + ": " + plan);
+                }
+            }
+        });
+        assertTrue(scans.isEmpty(), () -> "Queries reading a whole table:\n" + String.join("\n", scans));
+    }
+
+    private void seed() {
+        List<Object[]> clients = new ArrayList<>();
+        for (int i = 1; i <= CLIENTS; i++) {
+            clients.add(new Object[]{"Nom" + i, "Prenom" + i, "client" + i + "@example.com", "0600000" + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO client (nom, prenom, email, telephone) VALUES (?, ?, ?, ?)", clients);
+        List<Object[]> chambres = new ArrayList<>();
+        for (int i = 1; i <= CHAMBRES; i++) {
+            chambres.add(new Object[]{TypeChambre.values()[i % TypeChambre.values().length].name(), 80.0 + i, true});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO chambre (type, prix, disponible) VALUES (?, ?, ?)", chambres);
+        List<Object[]> reservations = new ArrayList<>();
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < RESERVATIONS; i++) {
+            LocalDate debut = start.plusDays(i % 365);
+            reservations.add(new Object[]{Date.valueOf(debut), Date.valueOf(debut.plusDays(1 + i % 7)),
+                    1 + i % CLIENTS, 1 + (i * 7) % CHAMBRES});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO reservation (date_debut, date_fin, client_id, chambre_id) VALUES (?, ?, ?, ?)",
+                reservations);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private List<String> statementsOf(Runnable query) {
+        entityManager.flush();
+        entityManager.clear();
+        CapturedStatements.STATEMENTS.get().clear();
+        query.run();
+        List<String> statements = new ArrayList<>(CapturedStatements.STATEMENTS.get());
+        CapturedStatements.STATEMENTS.get().clear();
+        return statements;
+    }
+
+    // The JDBC repositories' statements, captured like the ones Hibernate prepares
+    private static DataSource capturing(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection target = super.getConnection();
+                return (Connection) Proxy.newProxyInstance(RepositoryQueryPlanTests.class.getClassLoader(),
+                        new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                            if (method.getName().equals("prepareStatement")) {
+                                CapturedStatements.STATEMENTS.get().add((String) args[0]);
+                            }
+                            try {
+                                return method.invoke(target, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        };
+    }
+
+    // Parameters stay unbound: the plan is the one of the prepared statement
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    /** Collects the SQL Hibernate prepares on the test thread. */
+    public static class CapturedStatements implements StatementInspector {
+
+        static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get().add(sql);
+            return sql;
+        }
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.example.hotelgestion;
+
+import com.example.hotelgestion.service.ReservationVersions;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Flyway migrations on an H2 database, then lets Hibernate validate the entities against
+ * the resulting schema: an entity change without its migration fails the build instead of the fast profile's boot.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:migrations;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.flyway.enabled=true",
+        "spring.flyway.placeholders.long_text=clob",
+        "spring.jpa.hibernate.ddl-auto=validate"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// Needed by the entity listeners
+@Import(ReservationVersions.class)
+class SchemaMigrationTests {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    void migrationsMatchEntities() {
+        assertEquals(0, flyway.info().pending().length);
+        assertNull(flyway.validateWithResult().errorDetails);
+    }
+
+    // The fast profile's first boot on a database created by ddl-auto=update, which may already have the indexes of V2
+    @Test
+    void databaseCreatedByHibernateIsBaselinedAndMigrated() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:baseline;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        Map<String, String> placeholders = Map.of("long_text", "clob");
+        // The V1 schema without history, plus one of the indexes the entity declares
+        Flyway.configure().dataSource(dataSource).placeholders(placeholders).target("1").load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table \"flyway_schema_history\"");
+        jdbcTemplate.execute("create index idx_reservation_client_dates on reservation (client_id, date_debut, date_fin)");
+
+        Flyway firstBoot = Flyway.configure().dataSource(dataSource).placeholders(placeholders)
+                .baselineOnMigrate(true).baselineVersion("1").load();
+        assertEquals(1, firstBoot.migrate().migrationsExecuted);
+        assertEquals("2", firstBoot.info().current().getVersion().getVersion());
+        assertEquals(Set.of("idx_reservation_client_dates", "idx_reservation_chambre_dates"), reservationIndexes(dataSource));
+    }
+
+    private static Set<String> reservationIndexes(JdbcDataSource dataSource) throws SQLException {
+        Set<String> names = new TreeSet<>();
+        try (Connection connection = dataSource.getConnection();
+             ResultSet indexes = connection.getMetaData().getIndexInfo(null, null, "reservation", false, true)) {
+            while (indexes.next()) {
+                String name = indexes.getString("INDEX_NAME");
+                if (name.startsWith("idx_reservation")) {
+                    names.add(name);
+                }
+            }
+        }
+        assertTrue(names.size() <= 2);
+        return names;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.hotelgestion.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result model of one benchmark run plus its JSON and HTML renderings.
+ * Latencies are in microseconds. Allocation is measured JVM-wide (client and server share the JVM).
+ * Each run is also kept as execution-&lt;mode&gt;.json; once both a platform and a virtual thread run exist,
+ * execution-modes.html puts them side by side.
+ */
+record BenchmarkReport(Instant startedAt, String executionMode, BenchmarkSettings settings, List<ProtocolResult> protocols,
+                       List<FormatResult> formats) {
+
+    private static final String[] MODES = {"platform", "virtual"};
+
+    record OperationResult(long count, long errors, double meanMicros, double p50Micros,
+                           double p99Micros, double p999Micros, double maxMicros) {
+    }
+
+    record ProtocolResult(String protocol, long operations, long errors, double durationSeconds,
+                          double throughputPerSecond, double allocatedBytesPerOperation,
+                          Map<Operation, OperationResult> byOperation) {
+    }
+
+    // Payload per REST media type or gRPC contract; deserializeMicros is -1 when the format cannot be read back
+    record FormatResult(String format, String mediaType, int singleBytes, int listSize, int listBytes,
+                        double serializeMicros, double deserializeMicros) {
+    }
+
+    void write() throws IOException {
+        Files.createDirectories(settings.outputDirectory());
+        ObjectMapper mapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(settings.outputDirectory().resolve("protocol-benchmark.json").toFile(), this);
+        mapper.writeValue(settings.outputDirectory().resolve("execution-" + executionMode + ".json").toFile(), this);
+        try (Writer writer = Files.newBufferedWriter(settings.outputDirectory().resolve("protocol-benchmark.html"), StandardCharsets.UTF_8)) {
+            writer.write(toHtml());
+        }
+
+        JsonNode[] runs = new JsonNode[MODES.length];
+        for (int i = 0; i < MODES.length; i++) {
+            Path run = settings.outputDirectory().resolve("execution-" + MODES[i] + ".json");
+            if (!Files.exists(run)) {
+                return;
+            }
+            runs[i] = mapper.readTree(run.toFile());
+        }
+        try (Writer writer = Files.newBufferedWriter(settings.outputDirectory().resolve("execution-modes.html"), StandardCharsets.UTF_8)) {
+            writer.write(toModeComparisonHtml(runs));
+        }
+    }
+
+    // Platform vs virtual threads, matched by protocol and operation; runs should share the same settings
+    private static String toModeComparisonHtml(JsonNode[] runs) {
+        StringBuilder html = new StringBuilder()
+                .append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>HotelGestion execution modes</title>")
+                .append("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child{text-align:left}</style>")
+                .append("</head><body><h1>Platform vs virtual threads</h1>");
+        for (int i = 0; i < MODES.length; i++) {
+            JsonNode settings = runs[i].path("settings");
+            html.append("<p>").append(MODES[i]).append(": started ").append(runs[i].path("startedAt").asText())
+                    .append(" &middot; concurrency ").append(settings.path("concurrency").asInt())
+                    .append(" &middot; ").append(settings.path("operations").asInt()).append(" operations per protocol</p>");
+        }
+
+        html.append("<h2>Throughput (ops/s)</h2><table><tr><th>Protocol</th>");
+        for (String mode : MODES) {
+            html.append("<th>").append(mode).append("</th><th>").append(mode).append(" errors</th>");
+        }
+        html.append("</tr>");
+        for (JsonNode protocol : runs[0].path("protocols")) {
+            String name = protocol.path("protocol").asText();
+            html.append("<tr><td>").append(name).append("</td>");
+            for (JsonNode run : runs) {
+                JsonNode result = findProtocol(run, name);
+                html.append("<td>").append(format(result.path("throughputPerSecond").asDouble()))
+                        .append("</td><td>").append(result.path("errors").asLong()).append("</td>");
+            }
+            html.append("</tr>");
+        }
+        html.append("</table>");
+
+        html.append("<h2>Latency p50 / p99 (&micro;s)</h2><table><tr><th>Protocol</th><th>Operation</th>");
+        for (String mode : MODES) {
+            html.append("<th>").append(mode).append(" p50</th><th>").append(mode).append(" p99</th>");
+        }
+        html.append("</tr>");
+        for (JsonNode protocol : runs[0].path("protocols")) {
+            String name = protocol.path("protocol").asText();
+            protocol.path("byOperation").fieldNames().forEachRemaining(operation -> {
+                html.append("<tr><td>").append(name).append("</td><td>").append(operation.toLowerCase(Locale.ROOT)).append("</td>");
+                for (JsonNode run : runs) {
+                    JsonNode stats = findProtocol(run, name).path("byOperation").path(operation);
+                    html.append("<td>").append(format(stats.path("p50Micros").asDouble()))
+                            .append("</td><td>").append(format(stats.path("p99Micros").asDouble())).append("</td>");
+                }
+                html.append("</tr>");
+            });
+        }
+        return html.append("</table></body></html>").toString();
+    }
+
+    private static JsonNode findProtocol(JsonNode run, String name) {
+        for (JsonNode protocol : run.path("protocols")) {
+            if (name.equals(protocol.path("protocol").asText())) {
+                return protocol;
+            }
+        }
+        return MissingNode.getInstance();
+    }
+
+    private String toHtml() {
+        StringBuilder html = new StringBuilder()
+                .append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>HotelGestion protocol benchmark</title>")
+                .append("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child{text-align:left}</style>")
+                .append("</head><body><h1>HotelGestion protocol benchmark</h1>")
+                .append("<p>Started ").append(startedAt)
+                .append(" &middot; ").append(executionMode).append(" threads")
+                .append(" &middot; dataset ").append(settings.datasetSize())
+                .append(" reservations &middot; concurrency ").append(settings.concurrency())
+                .append(" &middot; ").append(settings.operations()).append(" operations per protocol")
+                .append(" &middot; mix ").append(settings.mix()).append("</p>");
+
+        html.append("<h2>Summary</h2><table><tr><th>Protocol</th><th>Ops</th><th>Errors</th><th>Throughput (ops/s)</th>")
+                .append("<th>Allocation (bytes/op)</th></tr>");
+        for (ProtocolResult result : protocols) {
+            html.append("<tr><td>").append(result.protocol()).append("</td><td>").append(result.operations())
+                    .append("</td><td>").append(result.errors())
+                    .append("</td><td>").append(format(result.throughputPerSecond()))
+                    .append("</td><td>").append(format(result.allocatedBytesPerOperation())).append("</td></tr>");
+        }
+        html.append("</table>");
+
+        html.append("<h2>Latency by operation (&micro;s)</h2><table><tr><th>Protocol</th><th>Operation</th><th>Count</th>")
+                .append("<th>Errors</th><th>Mean</th><th>p50</th><th>p99</th><th>p99.9</th><th>Max</th></tr>");
+        for (ProtocolResult result : protocols) {
+            result.byOperation().forEach((operation, stats) -> html.append("<tr><td>").append(result.protocol())
+                    .append("</td><td>").append(operation.name().toLowerCase(Locale.ROOT))
+                    .append("</td><td>").append(stats.count())
+                    .append("</td><td>").append(stats.errors())
+                    .append("</td><td>").append(format(stats.meanMicros()))
+                    .append("</td><td>").append(format(stats.p50Micros()))
+                    .append("</td><td>").append(format(stats.p99Micros()))
+                    .append("</td><td>").append(format(stats.p999Micros()))
+                    .append("</td><td>").append(format(stats.maxMicros())).append("</td></tr>"));
+        }
+        html.append("</table>");
+
+        html.append("<h2>Payload formats (REST media types, gRPC contracts)</h2><table><tr><th>Format</th><th>Media type</th><th>1 reservation (bytes)</th>")
+                .append("<th>List (bytes)</th><th>Bytes / reservation</th><th>Serialize CPU (&micro;s/list)</th>")
+                .append("<th>Deserialize CPU (&micro;s/list)</th></tr>");
+        for (FormatResult result : formats) {
+            html.append("<tr><td>").append(result.format()).append("</td><td>").append(result.mediaType())
+                    .append("</td><td>").append(result.singleBytes())
+                    .append("</td><td>").append(result.listBytes()).append(" (").append(result.listSize()).append(")")
+                    .append("</td><td>").append(format((double) result.listBytes() / result.listSize()))
+                    .append("</td><td>").append(format(result.serializeMicros()))
+                    .append("</td><td>").append(result.deserializeMicros() < 0 ? "n/a" : format(result.deserializeMicros()))
+                    .append("</td></tr>");
+        }
+        return html.append("</table></body></html>").toString();
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.hotelgestion.benchmark;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Benchmark knobs, all read from system properties so they can be passed on the Maven command line:
+ * {@code mvn test -Pbenchmark -Dbench.dataset=100000 -Dbench.concurrency=64}.
+ */
+record BenchmarkSettings(int datasetSize,
+                         int clients,
+                         int chambres,
+                         int concurrency,
+                         int operations,
+                         int warmupOperations,
+                         List<String> protocols,
+                         Map<Operation, Integer> mix,
+                         List<String> formats,
+                         int formatSample,
+                         int formatIterations,
+                         Path outputDirectory) {
+
+    static BenchmarkSettings fromSystemProperties() {
+        return new BenchmarkSettings(
+                Integer.getInteger("bench.dataset", 1_000),
+                Integer.getInteger("bench.clients", 100),
+                Integer.getInteger("bench.chambres", 200),
+                Integer.getInteger("bench.concurrency", 16),
+                Integer.getInteger("bench.operations", 5_000),
+                Integer.getInteger("bench.warmup", 500),
+                Arrays.asList(System.getProperty("bench.protocols", "rest,soap,graphql,grpc").split(",")),
+                parseMix(System.getProperty("bench.mix", "create=20,get=50,update=15,delete=10,list=5")),
+                Arrays.asList(System.getProperty("bench.formats", "json,xml,cbor,smile,protobuf,grpc-v1,grpc-v2,grpc-v2-masked,grpc-v2-gzip").split(",")),
+                Integer.getInteger("bench.format.sample", 100),
+                Integer.getInteger("bench.format.iterations", 500),
+                Paths.get(System.getProperty("bench.output", "target/benchmark")));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            mix.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+
+    // Expands the weighted mix into a lookup table so workers pick an operation with one random index
+    Operation[] operationTable() {
+        List<Operation> table = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                table.add(operation);
+            }
+        });
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("bench.mix must contain at least one positive weight");
+        }
+        return table.toArray(new Operation[0]);
+    }
+}
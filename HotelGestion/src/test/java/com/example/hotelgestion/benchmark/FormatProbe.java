@@ -0,0 +1,267 @@
+package com.example.hotelgestion.benchmark;
+
+import com.example.hotelgestion.controller.ReservationGrpcController;
+import com.example.hotelgestion.dto.ReservationView;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.grpc.ReservationList;
+import com.example.hotelgestion.grpc.ReservationResponse;
+import com.example.hotelgestion.grpc.v2.ReservationPage;
+import com.example.hotelgestion.protobuf.ReservationProtobufHttpMessageConverter;
+import com.example.hotelgestion.protobuf.ReservationReadMask;
+import com.example.hotelgestion.protobuf.ReservationV2Mapper;
+import com.google.protobuf.FieldMask;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload size and serialization CPU of each REST media type, measured with the application's own message
+ * converters on a sample of seeded reservations, so the numbers match what the REST endpoints send; and of the
+ * gRPC contracts side by side, measured with the services' own mappers and reading back to dates as a client would:
+ * grpc-v1, grpc-v2 (every field), grpc-v2-masked (a read mask for the fields v1 sends) and grpc-v2-gzip (every
+ * field, as sent to a client accepting gzip).
+ * CPU is thread CPU time, averaged per list (de)serialization after a warm-up of a quarter of the iterations.
+ */
+final class FormatProbe {
+
+    private static final Map<String, MediaType> MEDIA_TYPES = Map.of(
+            "json", MediaType.APPLICATION_JSON,
+            "xml", MediaType.APPLICATION_XML,
+            "cbor", new MediaType("application", "cbor"),
+            "smile", new MediaType("application", "x-jackson-smile"),
+            "protobuf", ReservationProtobufHttpMessageConverter.PROTOBUF);
+
+    // What v1's mapToReservationResponse fills in
+    private static final ReservationReadMask V1_FIELDS = ReservationReadMask.of(FieldMask.newBuilder()
+            .addAllPaths(List.of("id", "dateDebut", "dateFin", "preferences", "client.nom", "chambreId")).build());
+
+    private static final Type LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, Reservation.class).getType();
+
+    private final List<HttpMessageConverter<?>> converters;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    FormatProbe(List<HttpMessageConverter<?>> converters) {
+        this.converters = converters;
+    }
+
+    List<BenchmarkReport.FormatResult> measure(List<Reservation> sample, BenchmarkSettings settings) throws IOException {
+        List<BenchmarkReport.FormatResult> results = new ArrayList<>();
+        for (String format : settings.formats()) {
+            Codec codec = codecFor(format.trim().toLowerCase(Locale.ROOT));
+            byte[] single = codec.write(List.of(sample.get(0)));
+            byte[] list = codec.write(sample);
+
+            int warmup = Math.max(1, settings.formatIterations() / 4);
+            for (int i = 0; i < warmup; i++) {
+                codec.write(sample);
+            }
+            long start = threads.getCurrentThreadCpuTime();
+            for (int i = 0; i < settings.formatIterations(); i++) {
+                codec.write(sample);
+            }
+            double serializeMicros = (threads.getCurrentThreadCpuTime() - start) / 1_000.0 / settings.formatIterations();
+
+            double deserializeMicros = -1;
+            if (codec.canRead()) {
+                for (int i = 0; i < warmup; i++) {
+                    codec.read(list);
+                }
+                start = threads.getCurrentThreadCpuTime();
+                for (int i = 0; i < settings.formatIterations(); i++) {
+                    codec.read(list);
+                }
+                deserializeMicros = (threads.getCurrentThreadCpuTime() - start) / 1_000.0 / settings.formatIterations();
+            }
+            results.add(new BenchmarkReport.FormatResult(format.trim(), codec.mediaType(), single.length,
+                    sample.size(), list.length, serializeMicros, deserializeMicros));
+        }
+        return results;
+    }
+
+    private Codec codecFor(String format) {
+        switch (format) {
+            case "grpc-v1":
+                return new GrpcV1Codec();
+            case "grpc-v2":
+                return new GrpcV2Codec(ReservationReadMask.ALL, false);
+            case "grpc-v2-masked":
+                return new GrpcV2Codec(V1_FIELDS, false);
+            case "grpc-v2-gzip":
+                return new GrpcV2Codec(ReservationReadMask.ALL, true);
+            default:
+                MediaType mediaType = MEDIA_TYPES.get(format);
+                if (mediaType == null) {
+                    throw new IllegalArgumentException("Unknown format " + format);
+                }
+                return new ConverterCodec(converterFor(mediaType), mediaType);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private GenericHttpMessageConverter<Object> converterFor(MediaType mediaType) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof GenericHttpMessageConverter<?> generic
+                    && generic.canWrite(LIST_TYPE, ArrayList.class, mediaType)) {
+                return (GenericHttpMessageConverter<Object>) generic;
+            }
+        }
+        throw new IllegalStateException("No message converter writes " + mediaType);
+    }
+
+    private interface Codec {
+
+        String mediaType();
+
+        byte[] write(List<Reservation> reservations) throws IOException;
+
+        boolean canRead();
+
+        void read(byte[] body) throws IOException;
+    }
+
+    private record ConverterCodec(GenericHttpMessageConverter<Object> converter, MediaType type) implements Codec {
+
+        @Override
+        public String mediaType() {
+            return type.toString();
+        }
+
+        @Override
+        public byte[] write(List<Reservation> reservations) throws IOException {
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            converter.write(reservations, LIST_TYPE, type, output);
+            return output.getBodyAsBytes();
+        }
+
+        @Override
+        public boolean canRead() {
+            return converter.canRead(LIST_TYPE, null, type);
+        }
+
+        @Override
+        public void read(byte[] body) throws IOException {
+            converter.read(LIST_TYPE, null, new MockHttpInputMessage(body));
+        }
+    }
+
+    // getAllReservations' message: ISO date strings, client and room repeated in every reservation
+    private static final class GrpcV1Codec implements Codec {
+
+        @Override
+        public String mediaType() {
+            return "application/grpc+proto (reservation.proto)";
+        }
+
+        @Override
+        public byte[] write(List<Reservation> reservations) {
+            ReservationList.Builder message = ReservationList.newBuilder();
+            for (Reservation reservation : reservations) {
+                message.addReservations(ReservationGrpcController.mapToReservationResponse(reservation));
+            }
+            return message.build().toByteArray();
+        }
+
+        @Override
+        public boolean canRead() {
+            return true;
+        }
+
+        @Override
+        public void read(byte[] body) throws IOException {
+            for (ReservationResponse reservation : ReservationList.parseFrom(body).getReservationsList()) {
+                LocalDate.parse(reservation.getDateDebut());
+                LocalDate.parse(reservation.getDateFin());
+            }
+        }
+    }
+
+    // listReservations' v2 page: epoch days, each client and room once
+    private static final class GrpcV2Codec implements Codec {
+
+        private final ReservationReadMask mask;
+        private final boolean gzip;
+
+        private GrpcV2Codec(ReservationReadMask mask, boolean gzip) {
+            this.mask = mask;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public String mediaType() {
+            return "application/grpc+proto (reservation_v2.proto" + (mask != ReservationReadMask.ALL ? ", v1 fields" : "")
+                    + (gzip ? ", grpc-encoding gzip)" : ")");
+        }
+
+        @Override
+        public byte[] write(List<Reservation> reservations) throws IOException {
+            Map<Long, Client> clients = new HashMap<>();
+            Map<Long, Chambre> chambres = new HashMap<>();
+            List<ReservationView> views = new ArrayList<>(reservations.size());
+            for (Reservation reservation : reservations) {
+                views.add(ReservationView.of(reservation));
+                clients.put(reservation.getClient().getId(), reservation.getClient());
+                chambres.put(reservation.getChambre().getId(), reservation.getChambre());
+            }
+            byte[] body = ReservationV2Mapper.toPage(views, ids -> lookup(clients, ids), ids -> lookup(chambres, ids),
+                    mask).build().toByteArray();
+            if (!gzip) {
+                return body;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 2);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(body);
+            }
+            return compressed.toByteArray();
+        }
+
+        @Override
+        public boolean canRead() {
+            return true;
+        }
+
+        @Override
+        public void read(byte[] body) throws IOException {
+            ReservationPage page;
+            if (gzip) {
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                    page = ReservationPage.parseFrom(in);
+                }
+            } else {
+                page = ReservationPage.parseFrom(body);
+            }
+            for (com.example.hotelgestion.grpc.v2.Reservation reservation : page.getReservationsList()) {
+                ReservationV2Mapper.toDate(reservation.getDateDebut());
+                ReservationV2Mapper.toDate(reservation.getDateFin());
+            }
+        }
+
+        private static <T> List<T> lookup(Map<Long, T> entities, Set<Long> ids) {
+            List<T> found = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                found.add(entities.get(id));
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.hotelgestion.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+
+class GraphQlProtocolClient extends HttpProtocolClient {
+
+    private static final String RESERVATION_FIELDS = "id dateDebut dateFin preferences client { id nom } chambre { id }";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    GraphQlProtocolClient(int port) {
+        super("http://localhost:" + port + "/graphql");
+    }
+
+    @Override
+    public String name() {
+        return "graphql";
+    }
+
+    @Override
+    public long create(Sample sample) throws Exception {
+        ObjectNode variables = sampleVariables(sample);
+        JsonNode data = execute("mutation($dateDebut: String!, $dateFin: String!, $clientId: ID!, $chambreId: ID!, $preferences: String) {"
+                + " saveReservation(dateDebut: $dateDebut, dateFin: $dateFin, clientId: $clientId, chambreId: $chambreId, preferences: $preferences) { id } }", variables);
+        return data.get("saveReservation").get("id").asLong();
+    }
+
+    @Override
+    public void get(long id) throws Exception {
+        ObjectNode variables = objectMapper.createObjectNode().put("id", id);
+        execute("query($id: ID!) { reservationById(id: $id) { " + RESERVATION_FIELDS + " } }", variables);
+    }
+
+    @Override
+    public void update(long id, Sample sample) throws Exception {
+        ObjectNode variables = sampleVariables(sample).put("id", id);
+        execute("mutation($id: ID!, $dateDebut: String!, $dateFin: String!, $clientId: ID!, $chambreId: ID!, $preferences: String) {"
+                + " updateReservation(id: $id, dateDebut: $dateDebut, dateFin: $dateFin, clientId: $clientId, chambreId: $chambreId, preferences: $preferences) { id } }", variables);
+    }
+
+    @Override
+    public void delete(long id) throws Exception {
+        ObjectNode variables = objectMapper.createObjectNode().put("id", id);
+        execute("mutation($id: ID!) { deleteReservation(id: $id) }", variables);
+    }
+
+    @Override
+    public void list() throws Exception {
+        execute("{ allReservations { " + RESERVATION_FIELDS + " } }", objectMapper.createObjectNode());
+    }
+
+    private ObjectNode sampleVariables(Sample sample) {
+        return objectMapper.createObjectNode()
+                .put("dateDebut", sample.dateDebut().toString())
+                .put("dateFin", sample.dateFin().toString())
+                .put("clientId", sample.clientId())
+                .put("chambreId", sample.chambreId())
+                .put("preferences", sample.preferences());
+    }
+
+    private JsonNode execute(String query, ObjectNode variables) throws Exception {
+        ObjectNode request = objectMapper.createObjectNode().put("query", query);
+        request.set("variables", variables);
+        JsonNode response = objectMapper.readTree(send("POST", "", "application/json", objectMapper.writeValueAsString(request)));
+        JsonNode errors = response.get("errors");
+        if (errors != null && !errors.isEmpty()) {
+            throw new IOException("GraphQL errors: " + errors);
+        }
+        return response.get("data");
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.hotelgestion.benchmark;
+
+import com.example.hotelgestion.grpc.Chambre;
+import com.example.hotelgestion.grpc.Client;
+import com.example.hotelgestion.grpc.CreateReservationRequest;
+import com.example.hotelgestion.grpc.Empty;
+import com.example.hotelgestion.grpc.ReservationId;
+import com.example.hotelgestion.grpc.ReservationResponse;
+import com.example.hotelgestion.grpc.ReservationServiceGrpc;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+class GrpcProtocolClient implements ProtocolClient {
+
+    private final ManagedChannel channel;
+    private final ReservationServiceGrpc.ReservationServiceBlockingStub stub;
+
+    GrpcProtocolClient(int port) {
+        this.channel = ManagedChannelBuilder.forAddress("localhost", port)
+                .usePlaintext()
+                .maxInboundMessageSize(64 * 1024 * 1024)
+                .build();
+        this.stub = ReservationServiceGrpc.newBlockingStub(channel);
+    }
+
+    @Override
+    public String name() {
+        return "grpc";
+    }
+
+    @Override
+    public long create(Sample sample) {
+        return stub.createReservation(CreateReservationRequest.newBuilder()
+                .setDateDebut(sample.dateDebut().toString())
+                .setDateFin(sample.dateFin().toString())
+                .setClientId(sample.clientId())
+                .setChambreId(sample.chambreId())
+                .setPreferences(sample.preferences())
+                .build()).getId();
+    }
+
+    @Override
+    public void get(long id) {
+        stub.getReservation(ReservationId.newBuilder().setId(id).build());
+    }
+
+    @Override
+    public void update(long id, Sample sample) {
+        stub.updateReservation(ReservationResponse.newBuilder()
+                .setId(id)
+                .setDateDebut(sample.dateDebut().toString())
+                .setDateFin(sample.dateFin().toString())
+                .setClient(Client.newBuilder().setId(sample.clientId()).build())
+                .setChambre(Chambre.newBuilder().setId(sample.chambreId()).build())
+                .setPreferences(sample.preferences())
+                .build());
+    }
+
+    @Override
+    public void delete(long id) {
+        stub.deleteReservation(ReservationId.newBuilder().setId(id).build());
+    }
+
+    @Override
+    public void list() {
+        stub.getAllReservations(Empty.getDefaultInstance());
+    }
+
+    @Override
+    public void close() {
+        channel.shutdown();
+        try {
+            channel.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
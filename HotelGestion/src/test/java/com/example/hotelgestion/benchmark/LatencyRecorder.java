@@ -0,0 +1,74 @@
+package com.example.hotelgestion.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-worker latency samples, one growable array per operation. Workers never share a recorder,
+ * so recording is a plain array store; recorders are merged once the run is over.
+ */
+final class LatencyRecorder {
+
+    private final long[][] samples = new long[Operation.values().length][];
+    private final int[] counts = new int[Operation.values().length];
+    private final int[] errors = new int[Operation.values().length];
+
+    LatencyRecorder(int expectedPerOperation) {
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new long[Math.max(16, expectedPerOperation)];
+        }
+    }
+
+    void record(Operation operation, long nanos) {
+        int index = operation.ordinal();
+        if (counts[index] == samples[index].length) {
+            samples[index] = Arrays.copyOf(samples[index], samples[index].length * 2);
+        }
+        samples[index][counts[index]++] = nanos;
+    }
+
+    void error(Operation operation) {
+        errors[operation.ordinal()]++;
+    }
+
+    static BenchmarkReport.OperationResult merge(List<LatencyRecorder> recorders, Operation operation) {
+        int index = operation.ordinal();
+        int total = 0;
+        long errorCount = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.counts[index];
+            errorCount += recorder.errors[index];
+        }
+        long[] merged = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.samples[index], 0, merged, offset, recorder.counts[index]);
+            offset += recorder.counts[index];
+        }
+        Arrays.sort(merged);
+        double sum = 0;
+        for (long value : merged) {
+            sum += value;
+        }
+        return new BenchmarkReport.OperationResult(
+                total,
+                errorCount,
+                total == 0 ? 0 : micros(sum / total),
+                micros(percentile(merged, 0.50)),
+                micros(percentile(merged, 0.99)),
+                micros(percentile(merged, 0.999)),
+                total == 0 ? 0 : micros(merged[total - 1]));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.min(sorted.length - 1, Math.max(0, rank))];
+    }
+
+    private static double micros(double nanos) {
+        return nanos / 1_000.0;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.hotelgestion.benchmark;
+
+enum Operation {
+    CREATE, GET, UPDATE, DELETE, LIST
+}
@@ -0,0 +1,259 @@
+package com.example.hotelgestion.benchmark;
+
+import com.example.hotelgestion.config.ExecutionMode;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.repository.ChambreRepository;
+import com.example.hotelgestion.repository.ClientRepository;
+import com.example.hotelgestion.service.ReservationService;
+import com.example.hotelgestion.service.ReservationStatsStore;
+import com.example.hotelgestion.service.RoomAvailabilityIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+/**
+ * Cross-protocol load benchmark. Boots the whole application on an embedded H2 database,
+ * seeds {@code bench.dataset} reservations and drives the same create/get/update/delete/list mix
+ * through REST, SOAP, GraphQL and gRPC. It also measures payload size and serialization CPU of each REST
+ * media type. The seeded stays of a room never overlap, and the in-memory booking index and statistics are reloaded
+ * once they are inserted: creates and updates landing on a booked room are refused with a conflict, as in production,
+ * and count as errors. Results land in {@code target/benchmark/protocol-benchmark.{json,html}}.
+ * Only runs with {@code mvn test -Pbenchmark}; see {@link BenchmarkSettings} for the knobs.
+ * Run it once with {@code -Dspring.threads.virtual.enabled=true} (Java 21+) and once without, at a high
+ * {@code bench.concurrency}, to get the platform vs virtual thread comparison in execution-modes.html.
+ */
+@Tag("benchmark")
+@ActiveProfiles("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ProtocolBenchmark {
+
+    private static final Logger LOGGER = Logger.getLogger(ProtocolBenchmark.class.getName());
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+    private static final int SEED_BATCH = 5_000;
+
+    @LocalServerPort
+    private int httpPort;
+
+    @Value("${grpc.server.port}")
+    private int grpcPort;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private ChambreRepository chambreRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ExecutionMode executionMode;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private HttpMessageConverters httpMessageConverters;
+
+    @Autowired
+    private RoomAvailabilityIndex roomAvailabilityIndex;
+
+    @Autowired
+    private ReservationStatsStore reservationStatsStore;
+
+    private long[] clientIds;
+    private long[] chambreIds;
+    private long firstReservationId;
+    private long lastReservationId;
+
+    @Test
+    void compareProtocols() throws Exception {
+        BenchmarkSettings settings = BenchmarkSettings.fromSystemProperties();
+        Instant startedAt = Instant.now();
+        seed(settings);
+        List<Reservation> sample = reservationService.getReservationPage(null, settings.formatSample(), null, null).items();
+        List<BenchmarkReport.FormatResult> formats = new FormatProbe(httpMessageConverters.getConverters()).measure(sample, settings);
+
+        List<BenchmarkReport.ProtocolResult> results = new ArrayList<>();
+        for (String protocol : settings.protocols()) {
+            try (ProtocolClient client = newClient(protocol.trim())) {
+                run(client, settings, settings.warmupOperations());
+                results.add(run(client, settings, settings.operations()));
+                LOGGER.info(() -> "Finished " + client.name() + " benchmark");
+            }
+        }
+        new BenchmarkReport(startedAt, executionMode.name(), settings, results, formats).write();
+    }
+
+    private ProtocolClient newClient(String protocol) {
+        return switch (protocol) {
+            case "rest" -> new RestProtocolClient(httpPort);
+            case "soap" -> new SoapProtocolClient(httpPort);
+            case "graphql" -> new GraphQlProtocolClient(httpPort);
+            case "grpc" -> new GrpcProtocolClient(grpcPort);
+            default -> throw new IllegalArgumentException("Unknown protocol " + protocol);
+        };
+    }
+
+    private void seed(BenchmarkSettings settings) {
+        clientIds = new long[settings.clients()];
+        for (int i = 0; i < clientIds.length; i++) {
+            Client client = new Client();
+            client.setNom("Nom" + i);
+            client.setPrenom("Prenom" + i);
+            client.setEmail("client" + i + "@example.com");
+            client.setTelephone("0600000" + i);
+            clientIds[i] = clientRepository.save(client).getId();
+        }
+        chambreIds = new long[settings.chambres()];
+        TypeChambre[] types = TypeChambre.values();
+        for (int i = 0; i < chambreIds.length; i++) {
+            Chambre chambre = new Chambre();
+            chambre.setType(types[i % types.length]);
+            chambre.setPrix(50.0 + 10 * (i % 20));
+            chambre.setDisponible(true);
+            chambreIds[i] = chambreRepository.save(chambre).getId();
+        }
+
+        // Each room's stays follow one another from FIRST_DAY, with a few free nights in between
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate[] nextFree = new LocalDate[chambreIds.length];
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH);
+        for (int i = 0; i < settings.datasetSize(); i++) {
+            int room = random.nextInt(chambreIds.length);
+            LocalDate dateDebut = (nextFree[room] != null ? nextFree[room] : FIRST_DAY).plusDays(random.nextInt(8));
+            LocalDate dateFin = dateDebut.plusDays(1 + random.nextInt(14));
+            nextFree[room] = dateFin;
+            batch.add(new Object[]{Date.valueOf(dateDebut), Date.valueOf(dateFin), "benchmark",
+                    clientIds[random.nextInt(clientIds.length)], chambreIds[room]});
+            if (batch.size() == SEED_BATCH || i == settings.datasetSize() - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO reservation (date_debut, date_fin, preferences, client_id, chambre_id) VALUES (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        // Inserted behind the in-memory structures loaded at startup
+        roomAvailabilityIndex.load();
+        reservationStatsStore.load();
+        Long min = jdbcTemplate.queryForObject("SELECT MIN(id) FROM reservation", Long.class);
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM reservation", Long.class);
+        firstReservationId = min == null ? 0 : min;
+        lastReservationId = max == null ? 0 : max;
+    }
+
+    private ProtocolClient.Sample sample(SplittableRandom random) {
+        LocalDate dateDebut = FIRST_DAY.plusDays(random.nextInt(365));
+        return new ProtocolClient.Sample(dateDebut, dateDebut.plusDays(1 + random.nextInt(14)),
+                clientIds[random.nextInt(clientIds.length)],
+                chambreIds[random.nextInt(chambreIds.length)],
+                "benchmark");
+    }
+
+    private BenchmarkReport.ProtocolResult run(ProtocolClient client, BenchmarkSettings settings, int operations) throws Exception {
+        Operation[] table = settings.operationTable();
+        int perWorker = Math.max(1, operations / settings.concurrency());
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            recorders.add(new LatencyRecorder(perWorker / Operation.values().length + 1));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(settings.concurrency());
+        double seconds;
+        long allocated;
+        try {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int worker = 0; worker < settings.concurrency(); worker++) {
+                LatencyRecorder recorder = recorders.get(worker);
+                SplittableRandom random = new SplittableRandom(worker * 31L + client.name().hashCode());
+                futures.add(executor.submit(() -> work(client, table, perWorker, recorder, random)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            // Sampled before shutdown so the worker threads are still alive and counted
+            allocated = allocatedBytes() - allocatedBefore;
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<Operation, BenchmarkReport.OperationResult> byOperation = new EnumMap<>(Operation.class);
+        long total = 0;
+        long errors = 0;
+        for (Operation operation : Operation.values()) {
+            BenchmarkReport.OperationResult result = LatencyRecorder.merge(recorders, operation);
+            if (result.count() + result.errors() > 0) {
+                byOperation.put(operation, result);
+                total += result.count() + result.errors();
+                errors += result.errors();
+            }
+        }
+        return new BenchmarkReport.ProtocolResult(client.name(), total, errors, seconds,
+                total / seconds, total == 0 ? 0 : (double) allocated / total, byOperation);
+    }
+
+    private void work(ProtocolClient client, Operation[] table, int operations, LatencyRecorder recorder, SplittableRandom random) {
+        // Each worker only deletes what it created itself so the seeded dataset size stays stable
+        ArrayDeque<Long> created = new ArrayDeque<>();
+        for (int i = 0; i < operations; i++) {
+            Operation operation = table[random.nextInt(table.length)];
+            if (operation == Operation.DELETE && created.isEmpty()) {
+                operation = Operation.CREATE;
+            }
+            long start = System.nanoTime();
+            try {
+                switch (operation) {
+                    case CREATE -> created.push(client.create(sample(random)));
+                    case GET -> client.get(randomReservationId(random));
+                    case UPDATE -> client.update(randomReservationId(random), sample(random));
+                    case DELETE -> client.delete(created.pop());
+                    case LIST -> client.list();
+                }
+                recorder.record(operation, System.nanoTime() - start);
+            } catch (Exception e) {
+                recorder.error(operation);
+            }
+        }
+    }
+
+    private long randomReservationId(SplittableRandom random) {
+        return lastReservationId <= firstReservationId ? firstReservationId
+                : random.nextLong(firstReservationId, lastReservationId + 1);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+}
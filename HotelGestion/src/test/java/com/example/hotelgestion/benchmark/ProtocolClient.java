@@ -0,0 +1,29 @@
+package com.example.hotelgestion.benchmark;
+
+import java.time.LocalDate;
+
+/**
+ * Drives the same reservation operations through one protocol. Implementations throw on any
+ * protocol-level failure (HTTP error, SOAP fault, GraphQL errors, gRPC status) so the run can count it.
+ */
+interface ProtocolClient extends AutoCloseable {
+
+    record Sample(LocalDate dateDebut, LocalDate dateFin, long clientId, long chambreId, String preferences) {
+    }
+
+    String name();
+
+    long create(Sample sample) throws Exception;
+
+    void get(long id) throws Exception;
+
+    void update(long id, Sample sample) throws Exception;
+
+    void delete(long id) throws Exception;
+
+    void list() throws Exception;
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.hotelgestion.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+class RestProtocolClient extends HttpProtocolClient {
+
+    private static final String JSON = "application/json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    RestProtocolClient(int port) {
+        super("http://localhost:" + port + "/api/reservations");
+    }
+
+    @Override
+    public String name() {
+        return "rest";
+    }
+
+    @Override
+    public long create(Sample sample) throws Exception {
+        String body = send("POST", "", JSON, toJson(sample));
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    @Override
+    public void get(long id) throws Exception {
+        send("GET", "/" + id, null, null);
+    }
+
+    @Override
+    public void update(long id, Sample sample) throws Exception {
+        send("PUT", "/" + id, JSON, toJson(sample));
+    }
+
+    @Override
+    public void delete(long id) throws Exception {
+        send("DELETE", "/" + id, null, null);
+    }
+
+    @Override
+    public void list() throws Exception {
+        send("GET", "", null, null);
+    }
+
+    private String toJson(Sample sample) throws Exception {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("dateDebut", sample.dateDebut().toString());
+        node.put("dateFin", sample.dateFin().toString());
+        node.put("preferences", sample.preferences());
+        node.putObject("client").put("id", sample.clientId());
+        node.putObject("chambre").put("id", sample.chambreId());
+        return objectMapper.writeValueAsString(node);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.hotelgestion.benchmark;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+class SoapProtocolClient extends HttpProtocolClient {
+
+    private static final String NAMESPACE = "http://controller.hotelgestion.example.com/";
+    private static final String CONTENT_TYPE = "text/xml; charset=utf-8";
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+
+    SoapProtocolClient(int port) {
+        super("http://localhost:" + port + "/services/ws");
+        this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        this.documentBuilderFactory.setNamespaceAware(true);
+    }
+
+    @Override
+    public String name() {
+        return "soap";
+    }
+
+    @Override
+    public long create(Sample sample) throws Exception {
+        String body = call("createReservation",
+                "<dateDebut>" + sample.dateDebut() + "</dateDebut>"
+                        + "<dateFin>" + sample.dateFin() + "</dateFin>"
+                        + "<client><id>" + sample.clientId() + "</id></client>"
+                        + "<chambre><id>" + sample.chambreId() + "</id></chambre>"
+                        + "<preference>" + sample.preferences() + "</preference>");
+        return returnedId(body);
+    }
+
+    @Override
+    public void get(long id) throws Exception {
+        call("getReservationById", "<id>" + id + "</id>");
+    }
+
+    @Override
+    public void update(long id, Sample sample) throws Exception {
+        call("updateReservation", "<id>" + id + "</id>"
+                + "<reservation>"
+                + "<dateDebut>" + sample.dateDebut() + "</dateDebut>"
+                + "<dateFin>" + sample.dateFin() + "</dateFin>"
+                + "<client><id>" + sample.clientId() + "</id></client>"
+                + "<chambre><id>" + sample.chambreId() + "</id></chambre>"
+                + "<preferences>" + sample.preferences() + "</preferences>"
+                + "</reservation>");
+    }
+
+    @Override
+    public void delete(long id) throws Exception {
+        call("deleteReservation", "<id>" + id + "</id>");
+    }
+
+    @Override
+    public void list() throws Exception {
+        call("getAllReservations", "");
+    }
+
+    private String call(String operation, String parameters) throws Exception {
+        String envelope = "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\" xmlns:ns=\"" + NAMESPACE + "\">"
+                + "<soap:Body><ns:" + operation + ">" + parameters + "</ns:" + operation + "></soap:Body></soap:Envelope>";
+        String body = send("POST", "", CONTENT_TYPE, envelope);
+        if (body.contains(":Fault>")) {
+            throw new IOException("SOAP fault on " + operation);
+        }
+        return body;
+    }
+
+    // The reservation id is the direct <id> child of <return>; nested client/chambre ids are skipped
+    private long returnedId(String body) throws Exception {
+        Document document = documentBuilderFactory.newDocumentBuilder()
+                .parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        Node result = document.getElementsByTagNameNS("*", "return").item(0);
+        if (result != null) {
+            for (Node child = result.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if ("id".equals(child.getLocalName())) {
+                    return Long.parseLong(child.getTextContent().trim());
+                }
+            }
+        }
+        throw new IOException("SOAP createReservation response has no id");
+    }
+}
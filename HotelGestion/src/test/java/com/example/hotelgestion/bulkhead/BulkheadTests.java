@@ -0,0 +1,100 @@
+package com.example.hotelgestion.bulkhead;
+
+import com.example.hotelgestion.exception.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Admission and the gradient limiter of a single bulkhead; latencies are handed to the permits directly.
+ */
+class BulkheadTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void limitGrowsUnderSteadyLatencyAndShrinksWhenCallsSlowDown() {
+        Bulkhead bulkhead = new Bulkhead("rest", OperationClass.LIST, 4, 1, 32, 0, 0, meterRegistry);
+        for (int round = 0; round < 30; round++) {
+            List<Bulkhead.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < (int) limit(); i++) {
+                permits.add(bulkhead.acquire());
+            }
+            permits.forEach(permit -> permit.release(true, FAST));
+        }
+        double grown = limit();
+        assertTrue(grown > 4, "limit " + grown);
+
+        for (int i = 0; i < 30; i++) {
+            bulkhead.acquire().release(true, SLOW);
+        }
+        assertTrue(limit() < grown, "limit " + limit() + " after slow calls, was " + grown);
+    }
+
+    @Test
+    void unsampledReleasesLeaveTheLimitAlone() {
+        Bulkhead bulkhead = new Bulkhead("grpc", OperationClass.LIST, 4, 1, 32, 0, 0, meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            bulkhead.acquire().release(true, FAST);
+        }
+        double before = limit();
+        for (int i = 0; i < 50; i++) {
+            bulkhead.acquire().release(false, TimeUnit.MINUTES.toNanos(10));
+        }
+        assertEquals(before, limit());
+    }
+
+    @Test
+    void fullBulkheadRefusesOnceTheQueueIsFull() {
+        Bulkhead bulkhead = new Bulkhead("soap", OperationClass.WRITE, 1, 1, 1, 0, 1000, meterRegistry);
+        Bulkhead.Permit permit = bulkhead.acquire();
+        assertThrows(BulkheadFullException.class, bulkhead::acquire);
+        assertEquals(1, meterRegistry.get("bulkhead.rejected").tag("reason", "queue_full").counter().count());
+        permit.release(true);
+        bulkhead.acquire().release(true);
+    }
+
+    @Test
+    void queuedCallTimesOutOrGetsTheReleasedSlot() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("graphql", OperationClass.WRITE, 1, 1, 1, 1, 30, meterRegistry);
+        Bulkhead.Permit permit = bulkhead.acquire();
+        long start = System.nanoTime();
+        assertThrows(BulkheadFullException.class, bulkhead::acquire);
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(25));
+        assertEquals(1, meterRegistry.get("bulkhead.rejected").tag("reason", "timeout").counter().count());
+
+        Bulkhead patient = new Bulkhead("grpc", OperationClass.WRITE, 1, 1, 1, 1, 5000, meterRegistry);
+        Bulkhead.Permit held = patient.acquire();
+        CompletableFuture<Bulkhead.Permit> waiting = CompletableFuture.supplyAsync(patient::acquire);
+        Thread.sleep(50);
+        held.release(true);
+        assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        permit.release(true);
+    }
+
+    @Test
+    void releasingTwiceGivesBackOneSlot() {
+        Bulkhead bulkhead = new Bulkhead("rest", OperationClass.POINT_READ, 1, 1, 1, 0, 0, meterRegistry);
+        Bulkhead.Permit permit = bulkhead.acquire();
+        permit.release(true);
+        permit.release(false);
+        bulkhead.acquire();
+        assertThrows(BulkheadFullException.class, bulkhead::acquire);
+    }
+
+    private double limit() {
+        return meterRegistry.get("bulkhead.limit").gauge().value();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.hotelgestion.bulkhead;
+
+import com.example.hotelgestion.grpc.v2.GetReservationRequest;
+import com.example.hotelgestion.grpc.v2.ReservationChange;
+import com.example.hotelgestion.grpc.v2.ReservationDetail;
+import com.example.hotelgestion.grpc.v2.ReservationServiceGrpc;
+import com.example.hotelgestion.grpc.v2.WatchReservationsRequest;
+import com.example.hotelgestion.latency.LatencyChannel;
+import io.grpc.Attributes;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationContext;
+
+import java.util.Map;
+
+/**
+ * A closed unary call is a latency sample for its bulkhead; a stream only gives its slot back, since its duration
+ * is how long the client kept it open.
+ */
+class GrpcBulkheadInterceptorTests {
+
+    @GrpcService
+    static class AnnotatedService extends ReservationServiceGrpc.ReservationServiceImplBase {
+
+        @Override
+        @BulkheadOperation(OperationClass.POINT_READ)
+        public void getReservation(GetReservationRequest request, StreamObserver<ReservationDetail> responseObserver) {
+        }
+
+        @Override
+        @BulkheadOperation(OperationClass.LIST)
+        public void watchReservations(WatchReservationsRequest request, StreamObserver<ReservationChange> responseObserver) {
+        }
+    }
+
+    @Test
+    void onlyUnaryCallsAreSampled() {
+        Bulkhead.Permit unaryPermit = Mockito.mock(Bulkhead.Permit.class);
+        Bulkhead.Permit streamPermit = Mockito.mock(Bulkhead.Permit.class);
+        BulkheadRegistry registry = Mockito.mock(BulkheadRegistry.class);
+        Mockito.when(registry.acquire(LatencyChannel.GRPC, OperationClass.POINT_READ)).thenReturn(unaryPermit);
+        Mockito.when(registry.acquire(LatencyChannel.GRPC, OperationClass.LIST)).thenReturn(streamPermit);
+        ApplicationContext context = Mockito.mock(ApplicationContext.class);
+        Mockito.when(context.getBeansWithAnnotation(GrpcService.class)).thenReturn(Map.of("service", new AnnotatedService()));
+        GrpcBulkheadInterceptor interceptor = new GrpcBulkheadInterceptor(registry, context);
+
+        close(interceptor, ReservationServiceGrpc.getGetReservationMethod());
+        close(interceptor, ReservationServiceGrpc.getWatchReservationsMethod());
+
+        Mockito.verify(unaryPermit).release(true);
+        Mockito.verify(streamPermit).release(false);
+    }
+
+    private static <ReqT, RespT> void close(GrpcBulkheadInterceptor interceptor, MethodDescriptor<ReqT, RespT> method) {
+        interceptor.interceptCall(new NoopCall<>(method), new Metadata(), (call, headers) -> {
+            call.close(Status.OK, new Metadata());
+            return new ServerCall.Listener<>() {
+            };
+        });
+    }
+
+    private static final class NoopCall<ReqT, RespT> extends ServerCall<ReqT, RespT> {
+
+        private final MethodDescriptor<ReqT, RespT> method;
+
+        private NoopCall(MethodDescriptor<ReqT, RespT> method) {
+            this.method = method;
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(RespT message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return Attributes.EMPTY;
+        }
+
+        @Override
+        public MethodDescriptor<ReqT, RespT> getMethodDescriptor() {
+            return method;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.hotelgestion.bulkhead;
+
+import com.example.hotelgestion.controller.ReservationGrpcController;
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.grpc.Empty;
+import com.example.hotelgestion.grpc.ReservationChunk;
+import com.example.hotelgestion.grpc.ReservationServiceGrpc;
+import com.example.hotelgestion.grpc.StreamReservationsRequest;
+import com.example.hotelgestion.service.ReservationService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.devh.boot.grpc.server.service.GrpcService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clients that stop asking for chunks of streamReservations must not keep the gRPC list bulkhead busy:
+ * with more stalled streams than list slots, a unary list call is still admitted.
+ */
+class GrpcStreamBulkheadTests {
+
+    private static final int LIST_SLOTS = 2;
+    private static final int CHUNK_SIZE = 10;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void tearDown() {
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    void stalledStreamsDoNotHoldListSlots() throws Exception {
+        ReservationService reservationService = Mockito.mock(ReservationService.class);
+        Mockito.when(reservationService.getReservationsAfter(Mockito.anyLong(), Mockito.anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int size = invocation.getArgument(1);
+            return LongStream.rangeClosed(afterId + 1, afterId + size).mapToObj(GrpcStreamBulkheadTests::reservation).toList();
+        });
+        Mockito.when(reservationService.obtenirToutesLesReservations()).thenReturn(List.of(reservation(1L)));
+        start(reservationService);
+
+        int streams = LIST_SLOTS + 1;
+        CountDownLatch firstChunks = new CountDownLatch(streams);
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        ReservationServiceGrpc.ReservationServiceStub stub = ReservationServiceGrpc.newStub(channel);
+        for (int i = 0; i < streams; i++) {
+            stub.streamReservations(StreamReservationsRequest.newBuilder().setChunkSize(CHUNK_SIZE).build(),
+                    new ClientResponseObserver<StreamReservationsRequest, ReservationChunk>() {
+                        @Override
+                        public void beforeStart(ClientCallStreamObserver<StreamReservationsRequest> requestStream) {
+                            // Takes the first chunk and never asks for the next one
+                            requestStream.disableAutoRequestWithInitial(1);
+                        }
+
+                        @Override
+                        public void onNext(ReservationChunk chunk) {
+                            firstChunks.countDown();
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            errors.add(t);
+                            firstChunks.countDown();
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                        }
+                    });
+        }
+        assertTrue(firstChunks.await(10, TimeUnit.SECONDS));
+        assertTrue(errors.isEmpty(), () -> "stream refused: " + errors);
+
+        assertEquals(1, ReservationServiceGrpc.newBlockingStub(channel).withDeadlineAfter(10, TimeUnit.SECONDS)
+                .getAllReservations(Empty.getDefaultInstance()).getReservationsCount());
+    }
+
+    private void start(ReservationService reservationService) throws Exception {
+        // Streams starting together may read at the same time, so reads wait for a slot rather than being refused
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("bulkhead.list.initial-limit", String.valueOf(LIST_SLOTS))
+                .withProperty("bulkhead.list.min-limit", String.valueOf(LIST_SLOTS))
+                .withProperty("bulkhead.list.max-limit", String.valueOf(LIST_SLOTS))
+                .withProperty("bulkhead.list.queue-size", "8")
+                .withProperty("bulkhead.list.max-wait-ms", "1000");
+        BulkheadRegistry registry = new BulkheadRegistry(environment, new SimpleMeterRegistry());
+
+        ReservationGrpcController controller = new ReservationGrpcController();
+        ReflectionTestUtils.setField(controller, "reservationService", reservationService);
+        ReflectionTestUtils.setField(controller, "bulkheadRegistry", registry);
+        ApplicationContext context = Mockito.mock(ApplicationContext.class);
+        Mockito.when(context.getBeansWithAnnotation(GrpcService.class)).thenReturn(Map.of("reservations", controller));
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(controller, new GrpcBulkheadInterceptor(registry, context)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    private static Reservation reservation(long id) {
+        Client client = new Client();
+        client.setId(1L);
+        client.setNom("Client");
+        Chambre chambre = new Chambre();
+        chambre.setId(1L);
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setDateDebut(LocalDate.of(2030, 1, 1));
+        reservation.setDateFin(LocalDate.of(2030, 1, 2));
+        reservation.setPreferences("");
+        reservation.setClient(client);
+        reservation.setChambre(chambre);
+        return reservation;
+    }
+}
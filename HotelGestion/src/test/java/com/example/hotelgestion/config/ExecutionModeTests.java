@@ -0,0 +1,41 @@
+package com.example.hotelgestion.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The virtual mode is either honoured or refused at startup, depending on the runtime running the tests.
+ */
+class ExecutionModeTests {
+
+    @Test
+    void virtualModeIsRefusedWithoutVirtualThreads() {
+        assumeTrue(Runtime.version().feature() < 21);
+        assertThrows(IllegalStateException.class, () -> new ExecutionMode(true));
+    }
+
+    @Test
+    void virtualModeRunsTasksOnVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21);
+        ExecutionMode executionMode = new ExecutionMode(true);
+        try {
+            assertEquals("virtual", executionMode.name());
+            assertTrue(executionMode.virtualThreadExecutor().submit(() -> Thread.currentThread().toString()).get()
+                    .startsWith("VirtualThread"));
+        } finally {
+            executionMode.shutdown();
+        }
+    }
+
+    @Test
+    void platformModeIsTheDefault() {
+        ExecutionMode executionMode = new ExecutionMode(false);
+        assertFalse(executionMode.isVirtual());
+        assertThrows(IllegalStateException.class, executionMode::virtualThreadExecutor);
+    }
+}
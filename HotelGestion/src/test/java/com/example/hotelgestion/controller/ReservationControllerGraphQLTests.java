@@ -0,0 +1,112 @@
+package com.example.hotelgestion.controller;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Client;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.repository.ChambreRepository;
+import com.example.hotelgestion.repository.ClientRepository;
+import com.example.hotelgestion.service.ReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the updateReservation mutation end to end on the embedded database of the benchmark profile.
+ */
+@ActiveProfiles("benchmark")
+@SpringBootTest(properties = "grpc.server.port=-1")
+@AutoConfigureGraphQlTester
+class ReservationControllerGraphQLTests {
+
+    private static final String UPDATE = """
+            mutation($id: ID!, $dateDebut: String!, $dateFin: String!, $clientId: ID!, $chambreId: ID!) {
+              updateReservation(id: $id, dateDebut: $dateDebut, dateFin: $dateFin, clientId: $clientId,
+                                chambreId: $chambreId, preferences: "vue mer") {
+                id dateDebut dateFin preferences client { id } chambre { id }
+              }
+            }""";
+
+    @Autowired
+    private GraphQlTester graphQlTester;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private ChambreRepository chambreRepository;
+    @Autowired
+    private ReservationService reservationService;
+
+    @Test
+    void updateReservationMovesTheStayAndIsCheckedForOverlaps() {
+        Client client = clientRepository.save(new Client());
+        Chambre first = chambre();
+        Chambre second = chambre();
+        Reservation reservation = reservationService.createReservation(reservation(client, first, 1, 3));
+        reservationService.createReservation(reservation(client, second, 10, 12));
+
+        graphQlTester.document(UPDATE)
+                .variable("id", reservation.getId())
+                .variable("dateDebut", day(5).toString())
+                .variable("dateFin", day(8).toString())
+                .variable("clientId", client.getId())
+                .variable("chambreId", second.getId())
+                .execute()
+                .path("updateReservation.dateDebut").entity(String.class).isEqualTo(day(5).toString())
+                .path("updateReservation.dateFin").entity(String.class).isEqualTo(day(8).toString())
+                .path("updateReservation.preferences").entity(String.class).isEqualTo("vue mer")
+                .path("updateReservation.chambre.id").entity(Long.class).isEqualTo(second.getId());
+        assertTrue(reservationService.getReservation(reservation.getId()).isPresent());
+
+        graphQlTester.document(UPDATE)
+                .variable("id", reservation.getId())
+                .variable("dateDebut", day(11).toString())
+                .variable("dateFin", day(13).toString())
+                .variable("clientId", client.getId())
+                .variable("chambreId", second.getId())
+                .execute()
+                .errors().expect(error -> error.getMessage().contains("already booked"))
+                .verify()
+                .path("updateReservation").valueIsNull();
+
+        graphQlTester.document(UPDATE)
+                .variable("id", reservation.getId())
+                .variable("dateDebut", day(5).toString())
+                .variable("dateFin", day(8).toString())
+                .variable("clientId", client.getId())
+                .variable("chambreId", -1)
+                .execute()
+                .errors().expect(error -> error.getMessage().equals("Chambre not found"))
+                .verify();
+        assertEquals(day(8), reservationService.getReservation(reservation.getId()).orElseThrow().getDateFin());
+    }
+
+    private Chambre chambre() {
+        Chambre chambre = new Chambre();
+        chambre.setType(TypeChambre.DOUBLE);
+        chambre.setPrix(80.0);
+        chambre.setDisponible(true);
+        return chambreRepository.save(chambre);
+    }
+
+    private static Reservation reservation(Client client, Chambre chambre, int from, int to) {
+        Reservation reservation = new Reservation();
+        reservation.setClient(client);
+        reservation.setChambre(chambre);
+        reservation.setDateDebut(day(from));
+        reservation.setDateFin(day(to));
+        reservation.setPreferences("");
+        return reservation;
+    }
+
+    private static LocalDate day(int offset) {
+        return LocalDate.of(2032, 3, 1).plusDays(offset);
+    }
+}
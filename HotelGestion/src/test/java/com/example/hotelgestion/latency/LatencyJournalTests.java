@@ -0,0 +1,54 @@
+package com.example.hotelgestion.latency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * An idle writer must sleep without a timeout once nothing is left to flush, and a producer must wake it.
+ */
+class LatencyJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void idleWriterSleepsUntilARecordIsOffered() throws Exception {
+        LatencyJournal journal = new LatencyJournal(directory.toString(), 1024, 4096, 100, 1 << 20, 1,
+                new SimpleMeterRegistry());
+        journal.start();
+        try {
+            Thread writer = (Thread) ReflectionTestUtils.getField(journal, "writer");
+            awaitState(writer, Thread.State.WAITING);
+
+            journal.recordNanos(LatencyChannel.REST, "getReservation", 1_500_000);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (journal.getWrittenRecords() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(1, journal.getWrittenRecords());
+
+            // Parks until the flush is due, then goes back to an untimed park
+            awaitState(writer, Thread.State.WAITING);
+            assertTrue(Files.readString(directory.resolve(LatencyChannel.REST.fileName())).contains("getReservation"));
+        } finally {
+            journal.stop();
+        }
+    }
+
+    private static void awaitState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(state, thread.getState());
+    }
+}
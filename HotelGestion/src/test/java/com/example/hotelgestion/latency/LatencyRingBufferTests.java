@@ -0,0 +1,92 @@
+package com.example.hotelgestion.latency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Producers race on a small ring while the consumer drains it: every accepted record must come out exactly once,
+ * in each producer's order, and accepted plus dropped must add up to what was offered.
+ */
+class LatencyRingBufferTests {
+
+    private static final int PRODUCERS = 8;
+    private static final int RECORDS = 200_000;
+
+    @Test
+    void concurrentProducersLoseNothingButDrops() throws Exception {
+        LatencyRingBuffer ring = new LatencyRingBuffer(1024);
+        long[] accepted = new long[PRODUCERS];
+        long[] drained = new long[PRODUCERS];
+        long[] last = new long[PRODUCERS];
+        Arrays.fill(last, -1);
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < RECORDS; i++) {
+                    if (ring.offer(producer, i & 0xFF, i)) {
+                        accepted[producer]++;
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        LatencyRingBuffer.RecordHandler handler = (channel, method, nanos) -> {
+            if (nanos <= last[channel] || method != (nanos & 0xFF)) {
+                outOfOrder.set(true);
+            }
+            last[channel] = nanos;
+            drained[channel]++;
+        };
+        start.countDown();
+        while (producers.stream().anyMatch(Thread::isAlive)) {
+            ring.drain(handler, 256);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        while (!ring.isEmpty()) {
+            ring.drain(handler, 256);
+        }
+
+        assertFalse(outOfOrder.get(), "Records drained out of order or torn");
+        long totalAccepted = 0;
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals(accepted[p], drained[p], "Producer " + p);
+            totalAccepted += accepted[p];
+        }
+        assertEquals((long) PRODUCERS * RECORDS, totalAccepted + ring.droppedCount());
+        assertTrue(totalAccepted > 0);
+    }
+
+    @Test
+    void fullRingDropsInsteadOfBlocking() {
+        LatencyRingBuffer ring = new LatencyRingBuffer(4);
+        for (int i = 0; i < ring.capacity(); i++) {
+            assertTrue(ring.offer(0, 0, i));
+        }
+        assertFalse(ring.offer(0, 0, 99));
+        assertEquals(1, ring.droppedCount());
+        assertEquals(ring.capacity(), ring.drain((channel, method, nanos) -> { }, 100));
+        assertTrue(ring.offer(0, 0, 100));
+    }
+}
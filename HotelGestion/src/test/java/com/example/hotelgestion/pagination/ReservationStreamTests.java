@@ -0,0 +1,105 @@
+package com.example.hotelgestion.pagination;
+
+import com.example.hotelgestion.entity.Reservation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Page cut and close notifications of the streamed SOAP page, the way JAXB and the CXF invokers drive it.
+ */
+class ReservationStreamTests {
+
+    @Test
+    void lastRowOnlyTellsThatAnotherPageExists() {
+        AtomicBoolean rowsClosed = new AtomicBoolean();
+        ReservationStream stream = new ReservationStream(rows(3).onClose(() -> rowsClosed.set(true)), 2);
+        List<Boolean> notified = new ArrayList<>();
+        stream.onClose(notified::add);
+
+        assertEquals(List.of(1L, 2L), ids(stream));
+        assertEquals(PageCursor.encode(2L), stream.getNextPageToken());
+        assertTrue(rowsClosed.get());
+        assertEquals(List.of(true), notified);
+
+        stream.close();
+        stream.onClose(notified::add);
+        assertEquals(List.of(true, true), notified);
+    }
+
+    @Test
+    void lastPageHasNoToken() {
+        ReservationStream stream = new ReservationStream(rows(2), 2);
+        assertEquals(List.of(1L, 2L), ids(stream));
+        assertNull(stream.getNextPageToken());
+    }
+
+    @Test
+    void abandonedStreamIsClosedOnceAsIncomplete() {
+        AtomicBoolean rowsClosed = new AtomicBoolean();
+        ReservationStream stream = new ReservationStream(rows(5).onClose(() -> rowsClosed.set(true)), 0);
+        List<Boolean> notified = new ArrayList<>();
+        stream.onClose(notified::add);
+
+        Iterator<Reservation> reservations = stream.getReservations().iterator();
+        reservations.next();
+        stream.close();
+        stream.close();
+
+        assertTrue(rowsClosed.get());
+        assertEquals(List.of(false), notified);
+    }
+
+    @Test
+    void sizeReadsThePageAheadAndKeepsItIterable() {
+        AtomicBoolean rowsClosed = new AtomicBoolean();
+        ReservationStream stream = new ReservationStream(rows(3).onClose(() -> rowsClosed.set(true)), 2);
+        assertEquals("ReservationStream[streaming]", stream.getReservations().toString());
+        assertFalse(stream.getReservations().isEmpty());
+        assertEquals(2, stream.getReservations().size());
+        assertTrue(rowsClosed.get());
+        assertEquals(PageCursor.encode(2L), stream.getNextPageToken());
+        assertEquals(List.of(1L, 2L), ids(stream));
+        assertEquals(2, stream.getReservations().size());
+        assertThrows(IllegalStateException.class, () -> stream.getReservations().iterator());
+
+        assertTrue(new ReservationStream(rows(0), 0).getReservations().isEmpty());
+    }
+
+    @Test
+    void invocationResultIsFoundBareOrWrapped() {
+        ReservationStream stream = new ReservationStream(rows(0), 0);
+        assertSame(stream, ReservationStream.in(stream));
+        assertSame(stream, ReservationStream.in(List.of(stream)));
+        assertNull(ReservationStream.in(List.of("other")));
+        assertNull(ReservationStream.in(null));
+    }
+
+    private static List<Long> ids(ReservationStream stream) {
+        List<Long> ids = new ArrayList<>();
+        for (Reservation reservation : stream.getReservations()) {
+            ids.add(reservation.getId());
+        }
+        return ids;
+    }
+
+    private static Stream<Reservation> rows(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(id -> {
+            Reservation reservation = new Reservation();
+            reservation.setId(id);
+            return reservation;
+        });
+    }
+}
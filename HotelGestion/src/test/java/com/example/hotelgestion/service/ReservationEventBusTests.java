@@ -0,0 +1,96 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.dto.ReservationEvent;
+import com.example.hotelgestion.exception.SlowConsumerException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Delivery order under bursts and disconnection of subscribers the bus cannot serve. Events are published outside
+ * any transaction, so they are dispatched at once.
+ */
+class ReservationEventBusTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReservationEventBus bus = new ReservationEventBus(100_000, 2, meterRegistry);
+
+    @AfterEach
+    void close() {
+        bus.close();
+    }
+
+    @Test
+    void burstIsDeliveredInOrderToEverySubscriber() throws InterruptedException {
+        int events = 20_000;
+        RecordingSink first = new RecordingSink(events);
+        RecordingSink second = new RecordingSink(events);
+        bus.subscribe(first);
+        bus.subscribe(second);
+
+        for (long id = 1; id <= events; id++) {
+            bus.deleted(id);
+        }
+
+        for (RecordingSink sink : List.of(first, second)) {
+            assertTrue(sink.received.await(10, TimeUnit.SECONDS));
+            assertEquals(events, sink.events.size());
+            for (int i = 0; i < events; i++) {
+                assertEquals(i + 1, sink.events.get(i).id());
+                assertEquals(i + 1, sink.events.get(i).sequence());
+            }
+        }
+    }
+
+    @Test
+    void subscriberIsDisconnectedWhenTheDispatcherRefusesItsDrain() throws InterruptedException {
+        RecordingSink sink = new RecordingSink(1);
+        bus.subscribe(sink);
+        bus.close();
+
+        bus.deleted(1L);
+
+        assertNotNull(sink.eviction.get());
+        assertEquals(1.0, meterRegistry.get("reservation.events.evictions").counter().count());
+        assertEquals(0.0, meterRegistry.get("reservation.events.subscribers").gauge().value());
+        bus.deleted(2L);
+        assertTrue(sink.events.isEmpty());
+    }
+
+    private static final class RecordingSink implements ReservationEventBus.Sink {
+
+        private final List<ReservationEvent> events = new CopyOnWriteArrayList<>();
+        private final AtomicReference<SlowConsumerException> eviction = new AtomicReference<>();
+        private final CountDownLatch received;
+
+        private RecordingSink(int expected) {
+            this.received = new CountDownLatch(expected);
+        }
+
+        @Override
+        public boolean ready() {
+            return true;
+        }
+
+        @Override
+        public void send(ReservationEvent event) {
+            events.add(event);
+            received.countDown();
+        }
+
+        @Override
+        public void evicted(SlowConsumerException e) {
+            eviction.set(e);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.hotelgestion.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Batching, partial failures, timeouts and shutdown of the group commit, against a transaction manager that keeps
+ * what each transaction wrote until it commits. The first write of each test holds the writer, so the following
+ * ones are queued and run as one batch once it is let go.
+ */
+class ReservationGroupCommitTests {
+
+    private final FakeTransactionManager transactions = new FakeTransactionManager();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final CountDownLatch holding = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ReservationGroupCommit groupCommit;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        groupCommit.close();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void queuedWritesCommitTogetherInArrivalOrder() throws Exception {
+        start(10_000);
+        Future<String> first = holdWriter();
+        List<Future<String>> writes = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            writes.add(queue(insert("w" + i)));
+        }
+        release.countDown();
+
+        assertEquals("w0", first.get(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 5; i++) {
+            assertEquals("w" + i, writes.get(i - 1).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of("w0", "w1", "w2", "w3", "w4", "w5"), transactions.committed);
+        assertEquals(List.of("commit", "commit"), transactions.outcomes);
+    }
+
+    @Test
+    void failedWritesOnlyFailTheirCaller() throws Exception {
+        start(10_000);
+        holdWriter();
+        Future<String> before = queue(insert("before"));
+        Future<String> conflict = queue(() -> {
+            throw new IllegalArgumentException("conflict");
+        });
+        Future<String> middle = queue(insert("middle"));
+        Future<String> refused = queue(() -> {
+            transactions.current.setRollbackOnly();
+            throw new IllegalStateException("refused by the database");
+        });
+        Future<String> after = queue(insert("after"));
+        release.countDown();
+
+        assertEquals("before", before.get(5, TimeUnit.SECONDS));
+        assertEquals("middle", middle.get(5, TimeUnit.SECONDS));
+        assertEquals("after", after.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, failure(conflict));
+        assertEquals("refused by the database", failure(refused).getMessage());
+        // The batch was rolled back, then every other write ran again alone
+        assertEquals(List.of("w0", "before", "middle", "after"), transactions.committed);
+        assertEquals(List.of("commit", "rollback", "commit", "rollback", "commit", "commit"), transactions.outcomes);
+    }
+
+    @Test
+    void writeGivenUpBeforeTheWriterReachedItIsNotRun() throws Exception {
+        start(200);
+        holdWriter();
+        Future<String> late = queue(insert("late"));
+
+        assertInstanceOf(IllegalStateException.class, failure(late));
+        release.countDown();
+        assertEquals("next", queue(insert("next")).get(5, TimeUnit.SECONDS));
+        assertEquals(List.of("w0", "next"), transactions.committed);
+    }
+
+    @Test
+    void shutdownFailsQueuedWritesAndRefusesNewOnes() throws Exception {
+        start(10_000);
+        Future<String> first = holdWriter();
+        Future<String> queued = queue(insert("queued"));
+
+        groupCommit.close();
+        release.countDown();
+
+        assertEquals("w0", first.get(5, TimeUnit.SECONDS));
+        assertEquals("Reservation group commit is stopped", failure(queued).getMessage());
+        assertThrows(IllegalStateException.class, () -> groupCommit.execute(insert("refused")));
+        assertEquals(List.of("w0"), transactions.committed);
+    }
+
+    private void start(long timeoutMs) {
+        groupCommit = new ReservationGroupCommit(true, 64, 0, 16, timeoutMs, transactions,
+                Mockito.mock(EntityManager.class), meterRegistry);
+    }
+
+    // Queues w0, which keeps the writer busy (ignoring interrupts) until release
+    private Future<String> holdWriter() throws InterruptedException {
+        Future<String> first = callers.submit(() -> groupCommit.execute(() -> {
+            holding.countDown();
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    release.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return insert("w0").get();
+        }));
+        holding.await(5, TimeUnit.SECONDS);
+        return first;
+    }
+
+    // Waits until the write is queued, so writes are queued in call order
+    private Future<String> queue(Supplier<String> write) throws InterruptedException {
+        double depth = queueDepth();
+        Future<String> result = callers.submit(() -> groupCommit.execute(write));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queueDepth() == depth && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        return result;
+    }
+
+    private double queueDepth() {
+        return meterRegistry.get("reservation.group_commit.queue.depth").gauge().value();
+    }
+
+    private Supplier<String> insert(String row) {
+        return () -> {
+            transactions.pending.add(row);
+            return row;
+        };
+    }
+
+    private static Throwable failure(Future<?> result) throws Exception {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    // One transaction at a time, as the writer thread runs them
+    private static final class FakeTransactionManager implements PlatformTransactionManager {
+
+        private final List<String> pending = new ArrayList<>();
+        private final List<String> committed = new CopyOnWriteArrayList<>();
+        private final List<String> outcomes = new CopyOnWriteArrayList<>();
+        private volatile SimpleTransactionStatus current;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            pending.clear();
+            current = new SimpleTransactionStatus();
+            return current;
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            if (status.isRollbackOnly()) {
+                rollback(status);
+                return;
+            }
+            committed.addAll(pending);
+            pending.clear();
+            outcomes.add("commit");
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            pending.clear();
+            outcomes.add("rollback");
+        }
+    }
+}
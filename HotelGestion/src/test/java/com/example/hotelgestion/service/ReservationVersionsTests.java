@@ -0,0 +1,35 @@
+package com.example.hotelgestion.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tokens of deleted reservations: the entry is dropped, and no token handed out before the delete matches again.
+ */
+class ReservationVersionsTests {
+
+    private final ReservationVersions versions = new ReservationVersions();
+
+    @Test
+    void deletedReservationNeverRevalidatesAnOldToken() {
+        String untouched = versions.reservationVersion(1L);
+        versions.reservationChanged(2L);
+        String written = versions.reservationVersion(2L);
+        assertEquals(untouched, versions.reservationVersion(1L));
+
+        versions.reservationDeleted(1L);
+        versions.reservationDeleted(2L);
+        assertNotEquals(untouched, versions.reservationVersion(1L));
+        assertNotEquals(written, versions.reservationVersion(2L));
+        assertEquals(versions.reservationVersion(1L), versions.reservationVersion(2L));
+    }
+
+    @Test
+    void deleteChangesTheListVersion() {
+        String list = versions.listVersion();
+        versions.reservationDeleted(3L);
+        assertNotEquals(list, versions.listVersion());
+    }
+}
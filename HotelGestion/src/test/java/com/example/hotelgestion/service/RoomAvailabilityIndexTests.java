@@ -0,0 +1,173 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.Reservation;
+import com.example.hotelgestion.exception.ReservationConflictException;
+import com.example.hotelgestion.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Overlap checks, batch booking and the transaction callbacks of the index. Transactions are simulated with a bare
+ * synchronization scope completed by hand as committed or rolled back.
+ */
+class RoomAvailabilityIndexTests {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 6, 1);
+
+    private final AtomicLong ids = new AtomicLong(100);
+    private RoomAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ReservationRepository reservationRepository = Mockito.mock(ReservationRepository.class);
+        Mockito.when(reservationRepository.findAllBookings()).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 1L, DAY, DAY.plusDays(3)}));
+        index = new RoomAvailabilityIndex(reservationRepository, Mockito.mock(RoomOccupancyIndex.class));
+        index.load();
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void overlappingStaysAreRefusedAndAdjacentOnesAccepted() {
+        assertThrows(ReservationConflictException.class, () -> book(null, 1L, DAY.plusDays(2), DAY.plusDays(4)));
+        assertThrows(ReservationConflictException.class, () -> book(null, 1L, DAY.minusDays(1), DAY.plusDays(1)));
+        book(null, 1L, DAY.plusDays(3), DAY.plusDays(5));
+        book(null, 1L, DAY.minusDays(2), DAY);
+        book(null, 2L, DAY, DAY.plusDays(3));
+        assertFalse(index.isAvailable(1L, DAY.plusDays(4), DAY.plusDays(6)));
+        assertTrue(index.isAvailable(1L, DAY.plusDays(5), DAY.plusDays(6)));
+    }
+
+    @Test
+    void updateDoesNotConflictWithItselfAndFreesItsOldNights() {
+        book(1L, 1L, DAY.plusDays(1), DAY.plusDays(4));
+        assertTrue(index.isAvailable(1L, DAY, DAY.plusDays(1)));
+        book(1L, 2L, DAY, DAY.plusDays(1));
+        assertTrue(index.isAvailable(1L, DAY, DAY.plusDays(10)));
+        assertFalse(index.isAvailable(2L, DAY, DAY.plusDays(1)));
+    }
+
+    @Test
+    void failedWriteRecordsNothing() {
+        assertThrows(IllegalStateException.class, () -> index.book(reservation(null, 3L, DAY, DAY.plusDays(2)), () -> {
+            throw new IllegalStateException("insert failed");
+        }));
+        assertTrue(index.isAvailable(3L, DAY, DAY.plusDays(2)));
+    }
+
+    @Test
+    void batchRefusesOverlapsWithTheIndexAndWithinTheBatch() {
+        List<Reservation> batch = List.of(
+                reservation(null, 1L, DAY.plusDays(1), DAY.plusDays(2)),
+                reservation(null, 4L, DAY, DAY.plusDays(5)),
+                reservation(null, 4L, DAY.plusDays(4), DAY.plusDays(6)),
+                reservation(null, 4L, DAY.plusDays(5), DAY.plusDays(6)));
+        List<Integer> conflicts = index.bookAll(batch, accepted -> accepted.forEach(r -> r.setId(ids.incrementAndGet())));
+        assertEquals(List.of(0, 2), conflicts);
+        assertFalse(index.isAvailable(4L, DAY.plusDays(5), DAY.plusDays(6)));
+        assertTrue(index.isAvailable(4L, DAY.plusDays(6), DAY.plusDays(7)));
+    }
+
+    @Test
+    void rolledBackCreateAndUpdateAreUndone() {
+        TransactionSynchronizationManager.initSynchronization();
+        book(null, 5L, DAY, DAY.plusDays(2));
+        book(1L, 5L, DAY.plusDays(2), DAY.plusDays(4));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(index.isAvailable(5L, DAY, DAY.plusDays(4)));
+        assertFalse(index.isAvailable(1L, DAY, DAY.plusDays(3)));
+    }
+
+    @Test
+    void rolledBackBatchIsUndone() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.bookAll(List.of(reservation(null, 6L, DAY, DAY.plusDays(2))),
+                accepted -> accepted.forEach(r -> r.setId(ids.incrementAndGet())));
+        assertFalse(index.isAvailable(6L, DAY, DAY.plusDays(1)));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertTrue(index.isAvailable(6L, DAY, DAY.plusDays(2)));
+    }
+
+    @Test
+    void deletedBookingIsReleasedOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.release(1L);
+        assertFalse(index.isAvailable(1L, DAY, DAY.plusDays(3)));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertTrue(index.isAvailable(1L, DAY, DAY.plusDays(3)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        Reservation reservation = book(null, 1L, DAY, DAY.plusDays(3));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.initSynchronization();
+        index.release(reservation.getId());
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertFalse(index.isAvailable(1L, DAY, DAY.plusDays(3)));
+    }
+
+    @Test
+    void legacyOverlapsDoNotHideALongerStay() {
+        ReservationRepository reservationRepository = Mockito.mock(ReservationRepository.class);
+        Mockito.when(reservationRepository.findAllBookings()).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 7L, DAY, DAY.plusDays(10)},
+                new Object[]{2L, 7L, DAY.plusDays(2), DAY.plusDays(3)}));
+        index = new RoomAvailabilityIndex(reservationRepository, Mockito.mock(RoomOccupancyIndex.class));
+        index.load();
+        assertFalse(index.isAvailable(7L, DAY.plusDays(5), DAY.plusDays(6)));
+        assertThrows(ReservationConflictException.class, () -> book(null, 7L, DAY.plusDays(5), DAY.plusDays(6)));
+        assertTrue(index.isAvailable(7L, DAY.plusDays(10), DAY.plusDays(11)));
+    }
+
+    private Reservation book(Long id, long chambreId, LocalDate dateDebut, LocalDate dateFin) {
+        Reservation reservation = reservation(id, chambreId, dateDebut, dateFin);
+        return index.book(reservation, () -> {
+            if (reservation.getId() == null) {
+                reservation.setId(ids.incrementAndGet());
+            }
+            return reservation;
+        });
+    }
+
+    private static Reservation reservation(Long id, long chambreId, LocalDate dateDebut, LocalDate dateFin) {
+        Chambre chambre = new Chambre();
+        chambre.setId(chambreId);
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setChambre(chambre);
+        reservation.setDateDebut(dateDebut);
+        reservation.setDateFin(dateFin);
+        return reservation;
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.hotelgestion.service;
+
+import com.example.hotelgestion.entity.Chambre;
+import com.example.hotelgestion.entity.TypeChambre;
+import com.example.hotelgestion.repository.ChambreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Bitset arithmetic of the room search over a 10 day horizon. The horizon is moved to a fixed day first, so days
+ * are written as offsets from it; schedules are built by hand as {@link RoomAvailabilityIndex} keeps them.
+ */
+class RoomOccupancyIndexTests {
+
+    private static final int HORIZON = 10;
+    private static final long ORIGIN = LocalDate.of(2100, 1, 1).toEpochDay();
+
+    private RoomOccupancyIndex index;
+    private long nextId = 1;
+
+    @BeforeEach
+    void setUp() {
+        ChambreRepository chambreRepository = Mockito.mock(ChambreRepository.class);
+        Mockito.when(chambreRepository.findAll()).thenReturn(List.of(
+                chambre(1L, 80.0), chambre(2L, 90.0), chambre(3L, 100.0)));
+        index = new RoomOccupancyIndex(chambreRepository, HORIZON);
+        index.loadRooms();
+        index.advanceTo(ORIGIN);
+    }
+
+    @Test
+    void updateOnlyRecomputesTheNightsOfTheChangedBooking() {
+        NavigableSet<RoomAvailabilityIndex.Booking> schedule = schedule();
+        RoomAvailabilityIndex.Booking first = book(schedule, 1L, 1, 3);
+        index.update(1L, schedule, false, ORIGIN + 1, ORIGIN + 3);
+        book(schedule, 1L, 5, 7);
+        index.update(1L, schedule, false, ORIGIN + 5, ORIGIN + 7);
+        assertEquals(List.of(2L, 3L), search(2, 3));
+        assertEquals(List.of(2L, 3L), search(6, 7));
+        assertEquals(List.of(1L, 2L, 3L), search(3, 5));
+
+        schedule.remove(first);
+        index.update(1L, schedule, false, ORIGIN + 1, ORIGIN + 3);
+        assertEquals(List.of(1L, 2L, 3L), search(0, 3));
+        assertEquals(List.of(2L, 3L), search(4, 6));
+    }
+
+    @Test
+    void overlappingBookingsDoNotHideALongerStay() {
+        NavigableSet<RoomAvailabilityIndex.Booking> schedule = schedule();
+        book(schedule, 1L, 0, 8);
+        book(schedule, 1L, 2, 3);
+        index.update(1L, schedule, true, ORIGIN, ORIGIN + 8);
+        RoomAvailabilityIndex.Booking shortStay = book(schedule, 1L, 5, 6);
+        index.update(1L, schedule, true, ORIGIN + 5, ORIGIN + 6);
+        schedule.remove(shortStay);
+        index.update(1L, schedule, true, ORIGIN + 5, ORIGIN + 6);
+        assertEquals(List.of(2L, 3L), search(5, 6));
+    }
+
+    @Test
+    void searchIsBoundedByTheHorizon() {
+        assertThrows(IllegalArgumentException.class, () -> search(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> search(HORIZON - 1, HORIZON + 1));
+        assertThrows(IllegalArgumentException.class, () -> search(2, 2));
+
+        NavigableSet<RoomAvailabilityIndex.Booking> schedule = schedule();
+        book(schedule, 1L, -3, 1);
+        book(schedule, 1L, HORIZON - 1, HORIZON + 5);
+        index.update(1L, schedule, false, ORIGIN - 3, ORIGIN + HORIZON + 5);
+        assertEquals(List.of(2L, 3L), search(0, 1));
+        assertEquals(List.of(2L, 3L), search(HORIZON - 1, HORIZON));
+        assertEquals(List.of(1L, 2L, 3L), search(1, HORIZON - 1));
+    }
+
+    @Test
+    void rollShiftsTheBitsetAndReadsOnlyTheNightsEnteringTheHorizon() {
+        NavigableSet<RoomAvailabilityIndex.Booking> schedule = schedule();
+        book(schedule, 1L, 2, 5);
+        index.update(1L, schedule, false, ORIGIN, ORIGIN + HORIZON);
+        book(schedule, 1L, HORIZON + 1, HORIZON + 3);
+
+        index.advanceTo(ORIGIN + 3);
+        // Not rolled yet: the room answers for its previous window, where the nights past it count as free
+        assertEquals(List.of(2L, 3L), search(3, 4));
+        assertEquals(List.of(1L, 2L, 3L), search(HORIZON + 1, HORIZON + 3));
+
+        index.roll(1L, schedule, false);
+        assertEquals(List.of(2L, 3L), search(3, 4));
+        assertEquals(List.of(2L, 3L), search(4, 5));
+        assertEquals(List.of(1L, 2L, 3L), search(5, HORIZON + 1));
+        assertEquals(List.of(2L, 3L), search(HORIZON + 2, HORIZON + 3));
+    }
+
+    @Test
+    void rollPastTheWholeHorizonRecomputesFromTheSchedule() {
+        NavigableSet<RoomAvailabilityIndex.Booking> schedule = schedule();
+        book(schedule, 1L, 1, 2);
+        index.update(1L, schedule, false, ORIGIN, ORIGIN + HORIZON);
+        book(schedule, 1L, HORIZON + 4, HORIZON + 6);
+
+        index.advanceTo(ORIGIN + HORIZON + 2);
+        index.roll(1L, schedule, false);
+        assertEquals(List.of(1L, 2L, 3L), search(HORIZON + 2, HORIZON + 4));
+        assertEquals(List.of(2L, 3L), search(HORIZON + 5, HORIZON + 6));
+    }
+
+    @Test
+    void roomsOnDifferentOriginsAnswerTheSameNights() {
+        NavigableSet<RoomAvailabilityIndex.Booking> rolled = schedule();
+        book(rolled, 1L, 4, 6);
+        index.update(1L, rolled, false, ORIGIN, ORIGIN + HORIZON);
+        NavigableSet<RoomAvailabilityIndex.Booking> pending = schedule();
+        book(pending, 2L, 4, 6);
+        index.update(2L, pending, false, ORIGIN, ORIGIN + HORIZON);
+
+        index.advanceTo(ORIGIN + 2);
+        index.roll(1L, rolled, false);
+        assertEquals(List.of(3L), search(5, 6));
+        assertEquals(List.of(1L, 2L, 3L), search(2, 4));
+        assertEquals(List.of(1L, 2L, 3L), search(6, 8));
+        assertEquals(List.of(3L), search(3, 5));
+    }
+
+    @Test
+    void searchKeepsThePriceOrderTypeAndLimit() {
+        assertEquals(List.of(1L, 2L), ids(index.search(TypeChambre.DOUBLE, 95.0, day(0), day(1), null)));
+        assertEquals(List.of(), ids(index.search(TypeChambre.SUITE, null, day(0), day(1), null)));
+        assertEquals(List.of(1L), ids(index.search(null, null, day(0), day(1), 1)));
+    }
+
+    private List<Long> search(int from, int to) {
+        return ids(index.search(null, null, day(from), day(to), null));
+    }
+
+    private RoomAvailabilityIndex.Booking book(NavigableSet<RoomAvailabilityIndex.Booking> schedule, long chambreId,
+                                               int from, int to) {
+        RoomAvailabilityIndex.Booking booking = new RoomAvailabilityIndex.Booking(nextId++, chambreId, ORIGIN + from, ORIGIN + to);
+        schedule.add(booking);
+        return booking;
+    }
+
+    // Same order as the schedules of RoomAvailabilityIndex
+    private static NavigableSet<RoomAvailabilityIndex.Booking> schedule() {
+        return new TreeSet<>(Comparator.comparingLong(RoomAvailabilityIndex.Booking::startDay)
+                .thenComparingLong(RoomAvailabilityIndex.Booking::reservationId));
+    }
+
+    private static LocalDate day(int offset) {
+        return LocalDate.ofEpochDay(ORIGIN + offset);
+    }
+
+    private static List<Long> ids(List<Chambre> chambres) {
+        return chambres.stream().map(Chambre::getId).toList();
+    }
+
+    private static Chambre chambre(long id, double prix) {
+        Chambre chambre = new Chambre();
+        chambre.setId(id);
+        chambre.setType(TypeChambre.DOUBLE);
+        chambre.setPrix(prix);
+        chambre.setDisponible(true);
+        return chambre;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.hotelgestion.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement shapes, statement kinds and the row counts reported through {@link QueryStatsDataSource}.
+ */
+class QueryStatisticsTests {
+
+    @Test
+    void literalsAndInListsAreFolded() {
+        assertEquals("select * from client where nom = ? and id in (?, ...) and prix > ?",
+                QueryStatistics.normalize("select *\n  from client where nom = 'O''Brien' and id in (1, 2,3) and prix > 12.5"));
+        // Digits inside identifiers (Hibernate aliases) are kept
+        assertEquals("select r1_0.id from reservation r1_0 where r1_0.id in (?, ...) limit ?",
+                QueryStatistics.normalize("select r1_0.id from reservation r1_0 where r1_0.id in (?,?, ?) limit ?"));
+        // A single parameter is not a list
+        assertEquals("delete from reservation where id in (?)", QueryStatistics.normalize(" delete from reservation where id in (?) "));
+    }
+
+    @Test
+    void kindIsTheLeadingVerb() {
+        assertEquals(QueryStatistics.Kind.SELECT, QueryStatistics.kindOf("SELECT 1"));
+        assertEquals(QueryStatistics.Kind.SELECT, QueryStatistics.kindOf("with recent as (select ?) select * from recent"));
+        assertEquals(QueryStatistics.Kind.INSERT, QueryStatistics.kindOf("insert into client values (?)"));
+        assertEquals(QueryStatistics.Kind.UPDATE, QueryStatistics.kindOf("Update chambre set prix = ?"));
+        assertEquals(QueryStatistics.Kind.DELETE, QueryStatistics.kindOf("delete from reservation"));
+        assertEquals(QueryStatistics.Kind.OTHER, QueryStatistics.kindOf("call next value for seq"));
+        assertEquals(QueryStatistics.Kind.OTHER, QueryStatistics.kindOf("commit"));
+    }
+
+    @Test
+    void statementsOfOneShapeShareTheirStatisticsUpToMaxShapes() {
+        QueryStatistics statistics = new QueryStatistics(new SimpleMeterRegistry(), 3, 100, 1.0);
+        QueryStatistics.ShapeStats byId = statistics.shapeOf("select * from client where id = 1");
+        assertSame(byId, statistics.shapeOf("select * from client where id = 2"));
+        assertNotSame(byId, statistics.shapeOf("select * from chambre where id = 1"));
+        statistics.shapeOf("delete from client where id = 1");
+        // Past max-shapes new shapes share one line
+        QueryStatistics.ShapeStats other = statistics.shapeOf("update client set nom = 'x'");
+        assertSame(other, statistics.shapeOf("update chambre set prix = 1"));
+        assertEquals(4, statistics.shapeCount());
+        assertNull(statistics.shapeOf(null));
+    }
+
+    @Test
+    void rowsReadThroughTheDataSourceAreCountedOnce() throws Exception {
+        QueryStatistics statistics = new QueryStatistics(new SimpleMeterRegistry(), 500, 10_000, 1.0);
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:querystats;DB_CLOSE_DELAY=-1");
+        QueryStatsDataSource dataSource = new QueryStatsDataSource(h2,
+                new StaticListableBeanFactory(Map.of("queryStatistics", statistics)).getBeanProvider(QueryStatistics.class));
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table room (id int primary key, prix double)");
+            assertEquals(3, statement.executeUpdate("insert into room values (1, 80), (2, 120), (3, 200)"));
+            try (PreparedStatement query = connection.prepareStatement("select id, prix from room where prix > ? order by id")) {
+                query.setDouble(1, 100);
+                // Closed after one row: counted on close
+                try (ResultSet rows = query.executeQuery()) {
+                    assertTrue(rows.next());
+                    assertEquals(2, rows.getInt(1));
+                    assertEquals(120.0, rows.getDouble("prix"));
+                    assertTrue(rows.isWrapperFor(ResultSet.class));
+                }
+                // Read to the end: counted when next returns false, not again on close
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        rows.getObject(2, Double.class);
+                    }
+                }
+            }
+        }
+
+        Map<String, QueryStatistics.ShapeSummary> shapes = new HashMap<>();
+        statistics.top(10).forEach(summary -> shapes.put(summary.shape(), summary));
+        QueryStatistics.ShapeSummary select = shapes.get("select id, prix from room where prix > ? order by id");
+        assertEquals(2, select.executions());
+        assertEquals(3, select.rows());
+        assertEquals("select", select.kind());
+        // Row constructors fold like IN lists
+        assertEquals(3, shapes.get("insert into room values (?, ...), (?, ...), (?, ...)").rows());
+    }
+}